@@ -1,15 +1,13 @@
 package inkball;
 
 import processing.core.PApplet;
-import processing.core.PImage;
-import processing.data.JSONArray;
-import processing.data.JSONObject;
 import processing.event.KeyEvent;
 import processing.event.MouseEvent;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
 
 import java.io.*;
 import java.util.*;
@@ -28,66 +26,35 @@ public class App extends PApplet {
 
     public static final int INITIAL_PARACHUTES = 1;
 
-    public static final int FPS = 30;
+    public static final int FPS = 30;        // simulation ticks per second
+    public static final int DRAW_RATE = 60;  // frames drawn per second, interpolated between ticks
+    public static final int RECORD_BUFFERS = 8; // recorded frames that can wait for an encoder
+    public static final int SCROLL_SPEED = 8;    // pixels the camera moves per frame while an arrow key is held
 
     public String configPath;
-    private String[][] board;
-    private ArrayList<Wall> walls = new ArrayList<>();
-    private ArrayList<Ball> balls = new ArrayList<>(); //stores balls
-    private ArrayList<Line> lines;    // stores lines
-    private ArrayList<Hole> holes = new ArrayList<>(); // stores holes
-    private Line currentLine;          // current line drawn
-    private ArrayList<int[]> spawnerLocations = new ArrayList<>(); //spawner coordinates
-    private ArrayList<Brick> bricks = new ArrayList<>(); // stores bricks (EXTENSION)
-
-
-    private Queue<String> ballColoursToSpawn = new LinkedList<>(); //ball colours to spawn
-    private int spawnInterval;
-    private int spawnTimer;
-    private int currentBallIndex = 0;
-    private int queueOffset = 0; //for visual queue
-
-    //countdown timer
-    private int countdownTime;
-    private int countdownX = 200;
-    private int countdownY = 20;
+    private GameState state;           // simulation state, only touched by the simulation thread once started
+    private Simulation simulation;     // ticks the state on its own thread and publishes snapshots
+    private Snapshot frame;            // latest snapshot, drawn this frame
+    private float alpha;               // how far through the snapshot's tick this frame is drawn
+    private Line currentLine;          // current line drawn, in board coordinates
+    private Line pendingLine;          // released line still drawn until the simulation has added it
+    private long pendingCommand;       // command that adds the pending line
 
     public static Random random = new Random();
-	
-	//scoring variables
-    private int score = 0;
-    private float scoreIncreaseModifier;
-    private float scoreDecreaseModifier;
-    private HashMap<String, Integer> scoreIncreaseValues = new HashMap<>();
-    private HashMap<String, Integer> scoreDecreaseValues = new HashMap<>();
-
-    //game status variables
-    private int timeRemaining;
-    private boolean levelEnded = false;
-    private boolean gameEnded = false;
-    private boolean timeUp = false;
-    private boolean gameFinished = false;
-    private int currentLevelIndex = 0;
-    private JSONArray levels;
-    private boolean paused = false;
-    private int incrementedTime = 0;
-    private boolean incrementingScore = false;
-    
-    //queue display
-    private String lastEmittedBallColor = "";
-
-    //animation variables
-    private int counter = 0; //counter for tracking movement steps
-    private int directionTopLeft = 0;
-    private int directionBottomRight = 2;
-    private int topLeftX = 0;
-    private int topLeftY = 0; //initial position for the top-left tile
-    private int bottomRightX = 17;
-    private int bottomRightY = 17; //initial position for the bottom-right tile
-    private boolean animationTriggered = false;
 
-
-    private HashMap<String, PImage> sprites = new HashMap<>();
+    private SpriteAtlas atlas; // every sprite, decoded once from the sprite sheet
+    private BackgroundLayer backgroundLayer; // static level sprites, rendered once per level
+    private InkLayer inkLayer; // finished lines, rasterised once per line
+    private HudLayer hudLayer; // top bar, rendered again only when a value in it changes
+    private boolean dirtyRendering = false; // repaint only what changed, enabled with --dirty
+    private DirtyTracker dirtyTracker = new DirtyTracker(); // what changed since the last frame
+    private Camera camera = new Camera(WIDTH, HEIGHT - TOPBAR); // part of the board in view
+    private TileMap cameraMap; // level the camera was sized for
+    private int scrollX = 0; // direction the camera scrolls in while an arrow key is held
+    private int scrollY = 0;
+    private FrameRecorder recorder; // records every drawn frame while on, toggled with v
+    private int recordFormat = FrameRecorder.PNG; // numbered PNGs, or a raw RGB stream with --record-raw
+    private boolean recordDropFrames = true; // drop frames when encoders fall behind, or wait with --record-wait
     
     /**
      * Constructor for the App class, sets the configuration file path.
@@ -110,21 +77,36 @@ public class App extends PApplet {
      */
 	@Override
     public void setup() {
-        frameRate(FPS);
-        lines = new ArrayList<>(); // new line array for storing lines
+        frameRate(DRAW_RATE);
         currentLine = null;
 
+        //repaint only changed regions on top of the last frame if asked to
+        if (args != null) {
+            for (String arg : args) {
+                if (arg.equals("--dirty")) {
+                    dirtyRendering = true;
+                } else if (arg.equals("--record-raw")) {
+                    recordFormat = FrameRecorder.RAW;
+                } else if (arg.equals("--record-wait")) {
+                    recordDropFrames = false;
+                }
+            }
+        }
+
         //loadSprites();
         loadSprites();
-        initializeBoard(); //initialize game board structure
-        loadConfigData(); //load config data from the config file
+        backgroundLayer = new BackgroundLayer(this, atlas);
+        inkLayer = new InkLayer(this);
+        hudLayer = new HudLayer(this, atlas);
+        loadConfigData(); //load config data from the config file and create the game state
 
-        //load level data for the current level index variable (level number)k
-        loadLevelData(currentLevelIndex);
+        //load level data for the first level
+        state.startLevel(0);
 
-        //initialize spawn timer and countdown time
-        spawnTimer = spawnInterval * FPS;
-        countdownTime = spawnInterval;
+        //tick the game on its own thread from now on
+        simulation = new Simulation(state, FPS);
+        frame = simulation.getLatest();
+        simulation.start();
 
 
 		//See PApplet javadoc:
@@ -138,344 +120,53 @@ public class App extends PApplet {
     }
 
     /**
-     * Loads sprite images from the file system and stores them in a hashmap for efficient retrieval.
-     */
-    private void loadSprites() {
-
-        //list all sprite names to be used in game
-        String[] spriteNames = {
-            "tile", "wall0", "wall1", "wall2", "wall3", "wall4",
-            "hole0", "hole1", "hole2", "hole3", "hole4", "entrypoint",
-            "ball0", "ball1", "ball2", "ball3", "ball4",
-            "break0", "break1", "break2", "break3", "break4" // extension sprites for broken tiles
-        };
-
-        //store them in hash map
-        for (String spriteName : spriteNames) {
-            getSprite(spriteName);
-        }
-    }
-
-    
-    /**
-     * Initializes the game board based on the height and width of the game window.
-     */
-    private void initializeBoard() {
-        //initialize board based on dimensions given
-        this.board = new String[(HEIGHT-TOPBAR)/CELLSIZE][WIDTH/CELLSIZE];
-    }
-
-    /**
-     * Loads game configuration data from the config file.
+     * Stops the simulation thread when the window closes.
      */
-    private void loadConfigData() {
-        
-        //load config file
-        JSONObject config = loadJSONObject("config.json");
-        levels = config.getJSONArray("levels"); //extracts levels from config file
-    }
-
-    //PROCESSING GAME DATA
-
-
-    /**
-     * Retrieves the sprite image for the given sprite name from the hashmap, or loads it from the file system if not found.
-     *
-     * @param spriteName the name of the sprite to load
-     * @return the PImage object representing the sprite
-     */
-    private PImage getSprite(String spriteName) {
-
-        //load sprites from spriteName and store in hashmap
-        PImage sprite = sprites.get(spriteName);
-        if (sprite == null) {
-            try {
-
-                //tries to get path and load image
-                String path = this.getClass().getResource("/inkball/" + spriteName + ".png").getPath().replace("%20", " ");
-                sprite = loadImage(path);
-                sprites.put(spriteName, sprite); //stores in hashmap
-            } catch (NullPointerException e) {
-                
-                //catches error for if file not found
-                System.out.println("The file /inkball/" + spriteName + ".png is missing or inaccessible");
-            }
-        }
-        return sprite;
-    }
-
-    /**
-     * Loads the level data for the specified level index, setting up the level layout and game elements.
-     *
-     * @param levelIndex the index of the level to load
-     */
-    private void loadLevelData(int levelIndex) {
-        
-        //check if the level index is within bounds
-        if (levelIndex >= levels.size()) {
-            gameEnded = true;
-            return;
-        }
-
-        //parse each level data
-        JSONObject levelData = levels.getJSONObject(levelIndex);
-        loadLevel(levelData.getString("layout"));
-        loadConfig(levelData);
-
-        //initialize time and status flags for new level
-        timeRemaining = levelData.getInt("time");
-        levelEnded = false;
-        timeUp = false;
-        gameEnded = false;
-        paused = false;
-        spawnTimer = spawnInterval * FPS;
-        countdownTime = spawnInterval;
-    }
-
-    /**
-     * Loads the level layout from the specified file.
-     *
-     * @param filename the name of the file containing the level layout
-     */
-    private void loadLevel(String filename) {
-        
-        //clear previous level coordinates
-        clearLevelData();
-        
-        String[] lines = loadStrings(filename);
-        for (int i = 0; i < lines.length; i++) {
-            for (int j = 0; j < lines[i].length(); j++) {
-                char tileChar = lines[i].charAt(j);
-                
-
-                //check next character
-                char nextChar;
-                if (j + 1 < lines[i].length()) {
-                    nextChar = lines[i].charAt(j + 1);
-                } else {
-                    nextChar = ' ';
-                }
-
-                processTile(i, j, tileChar, nextChar, lines[i]);
-
-                //skip next character if ball and hole to avoid number after the letter
-                if (tileChar == 'B' || tileChar == 'H' || tileChar == 'F' || tileChar == 'V') {
-                    j ++;
-                }
-            }
+    @Override
+    public void dispose() {
+        if (simulation != null) {
+            simulation.stop();
         }
+        stopRecording();
+        super.dispose();
     }
 
     /**
-     * Clears the data of the current level, removing spawners and holes.
+     * Loads the sprite sheet from the file system and builds the sprite atlas over it.
      */
-    private void clearLevelData() {
-        
-        //clear level data
-        spawnerLocations.clear();
-        holes.clear();
-        bricks.clear();
-        walls.clear();
-        balls.clear();
-        lines.clear();
-    }
+    private void loadSprites() {
+        try {
 
-    /**
-     * Processes the individual tile characters from the level file, creating game elements accordingly.
-     *
-     * @param row the row index of the tile
-     * @param col the column index of the tile
-     * @param tileChar the character representing the tile
-     * @param nextChar the next character in the line, used for multi-character tiles
-     * @param line the entire line being processed
-     */
-    private void processTile(int row, int col, char tileChar, char nextChar, String line) {
-        
-        //adds wall
-        if (tileChar == 'X' || tileChar == '1' || tileChar == '2' || tileChar == '3' || tileChar == '4') {
-            String wallType = spriteNameFromChar(tileChar, ' ');
-            PImage wallSprite = getSprite(wallType);
-            Wall wall = new Wall(col, row, wallType, wallSprite);
-            walls.add(wall);
-            //board[row][col] = "wall";
-        }
-        
-         if (tileChar == '5' || tileChar == '6' || tileChar == '7' || tileChar == '8' || tileChar <= '9') {
-             addBrick(row, col, tileChar);
-         }
-        
-        //adds spawner coordinates if spawner detected
-        if (tileChar == 'S') {
-            spawnerLocations.add(new int[]{col * CELLSIZE, row * CELLSIZE + TOPBAR});
-            board[row][col] = "entrypoint";
-            return;
-        }
-        
-        //checks if hole and balls coloured
-        if (tileChar == 'H' || tileChar == 'B') {
-            processSpecialTile(row, col, tileChar, nextChar);
-        } else {
-            board[row][col] = spriteNameFromChar(tileChar, ' ');
-        }
-    }
+            //tries to get path and load the sheet
+            String path = this.getClass().getResource("/inkball/inkball_spritesheet.png").getPath().replace("%20", " ");
+            atlas = new SpriteAtlas(loadImage(path));
+        } catch (NullPointerException e) {
 
-    /**
-     * Processes special tiles like holes and balls, adding them to the game board and storing relevant information.
-     *
-     * @param row      the row index of the special tile
-     * @param col      the column index of the special tile
-     * @param tileChar the character representing the special tile ('H' for hole, 'B' for ball)
-     * @param nextChar the next character in the line, used to determine the color of the hole or ball
-     */
-    private void processSpecialTile(int row, int col, char tileChar, char nextChar) {
-        
-        //sets sprite name for tile
-        board[row][col] = spriteNameFromChar(tileChar, nextChar);
-        
-        //add hole or ball
-        if (tileChar == 'B') {
-            addBall(row, col, nextChar);
-        } else if (tileChar == 'H') {
-            addHole(row, col, nextChar);
+            //catches error for if file not found
+            System.out.println("The file /inkball/inkball_spritesheet.png is missing or inaccessible");
         }
     }
 
     /**
-     * Adds a ball to the game board based on the given row, column, and color.
-     *
-     * @param row the row index of the ball
-     * @param col the column index of the ball
-     * @param nextChar the character representing the ball color
-     */
-    private void addBall(int row, int col, char nextChar) {
-        
-        //initialize ball coordinates
-        float startX = col * CELLSIZE;
-        float startY = row * CELLSIZE + TOPBAR;
-        String colour = "ball" + nextChar;
-        PImage sprite = getSprite(colour);
-
-        //adds ball with random velocity and adds to the balls list
-        Ball ball = new Ball(startX, startY, 0, 0, colour, sprite);
-        ball.initializeRandomVelocity();  // set random velocities
-        balls.add(ball);
-
-        board[row][col] = "tile";
-        board[row][col + 1] = "tile";
-    }
-
-    /**
-     * Adds a hole to the game board based on the given row, column, and color.
-     *
-     * @param row the row index of the hole
-     * @param col the column index of the hole
-     * @param nextChar the character representing the hole color
-     */
-    private void addHole(int row, int col, char nextChar) {
-        
-        //make hole x2 bigger
-        //store hole co-ordinates into the array
-        float holeCentreX = (col * CELLSIZE) + (CELLSIZE);
-        float holeCentreY = (row * CELLSIZE) + (CELLSIZE) + TOPBAR;
-        int holeColour = Character.getNumericValue(nextChar);
-        PImage holeSprite = getSprite("hole" + nextChar);
-
-        //holeCentres.add(new Object[]{holeCentreX, holeCentreY, holeColour});
-
-        Hole hole = new Hole((int)holeCentreX, (int)holeCentreY, holeColour, holeSprite);
-        holes.add(hole);
-
-        // String holeType = spriteNameFromChar('H', nextChar);
-
-        // //set other cells as hole
-        board[row][col] = "hole" + nextChar;
-        board[row][col + 1] = "hole" + nextChar;
-        board[row + 1][col] = "hole" + nextChar;
-        board[row + 1][col + 1] = "hole" + nextChar;
-    }
-    
-    /**
-     * Adds a brick to the game board based on the given row, column, and type.
-     *
-     * @param row the row index of the brick
-     * @param col the column index of the brick
-     * @param tileChar the character representing the brick type
+     * Loads game configuration data from the config file, along with every compiled level
+     * layout, and creates the game state. Nothing is read from disk again when levels change.
      */
-    private void addBrick(int row, int col, char tileChar) {
+    private void loadConfigData() {
         
-        if (tileChar >= '5' && tileChar <= '9') {
-            int tileValue = Character.getNumericValue(tileChar) - 5;
-            String type = "wall" + (tileValue); // Convert brick numbers to wall types
-            PImage brickSprite = getSprite(type);  // Use the same sprites as walls
-
-            //get cracked wall sprites
-            String type2 = "break" + (tileValue);
-            PImage crackedBrickSprite = getSprite(type2);
-
-            Brick brick = new Brick(col, row, type, brickSprite, crackedBrickSprite);
-            bricks.add(brick);
-        }
+        //load config file, layouts resolved and cached next to it
+        GameConfig config = GameConfig.load(new File(sketchPath(configPath)));
+        state = new GameState(config, random);
     }
-    
-    /**
-     * Loads the level configuration such as spawn intervals, ball colors, and score modifiers.
-     *
-     * @param levelData the JSON object containing the level configuration data
-     */
-    public void loadConfig(JSONObject levelData) {
-
-        //set spawn interval from config
-        spawnInterval = levelData.getInt("spawn_interval");
-        JSONArray ballsArray = levelData.getJSONArray("balls");
-
-        //add balls to spawn queue
-        ballColoursToSpawn.clear();
-        for (int i = 0; i < ballsArray.size(); i++) {
-            String colour = ballsArray.getString(i);
-            ballColoursToSpawn.add(String.valueOf(getColourNumberFromName(colour)));
-        }
-
-        //set spawn timer and ball index for queue
-        spawnTimer = spawnInterval * FPS;
-        currentBallIndex = 0;
 
-        //load score modifiers from config file
-        scoreIncreaseModifier = (float) levelData.getDouble("score_increase_from_hole_capture_modifier");
-        scoreDecreaseModifier = (float) levelData.getDouble("score_decrease_from_wrong_hole_modifier");
-
-        //load score values
-        loadScoreValues();
-    }
+    //PROCESSING GAME DATA
 
-    /**
-     * Loads the score increase and decrease values from the config file.
-     */
-    private void loadScoreValues() {
-        
-        //load score values from config file
-        JSONObject config = loadJSONObject("config.json");
-        JSONObject scoreIncreaseConfig = config.getJSONObject("score_increase_from_hole_capture");
-        JSONObject scoreDecreaseConfig = config.getJSONObject("score_decrease_from_wrong_hole");
-
-        //put values in increase hash set
-        scoreIncreaseValues.put("grey", scoreIncreaseConfig.getInt("grey"));
-        scoreIncreaseValues.put("orange", scoreIncreaseConfig.getInt("orange"));
-        scoreIncreaseValues.put("blue", scoreIncreaseConfig.getInt("blue"));
-        scoreIncreaseValues.put("green", scoreIncreaseConfig.getInt("green"));
-        scoreIncreaseValues.put("yellow", scoreIncreaseConfig.getInt("yellow"));
-
-        //put values in decrease hash set
-        scoreDecreaseValues.put("grey", scoreDecreaseConfig.getInt("grey"));
-        scoreDecreaseValues.put("orange", scoreDecreaseConfig.getInt("orange"));
-        scoreDecreaseValues.put("blue", scoreDecreaseConfig.getInt("blue"));
-        scoreDecreaseValues.put("green", scoreDecreaseConfig.getInt("green"));
-        scoreDecreaseValues.put("yellow", scoreDecreaseConfig.getInt("yellow"));
-    }
 
     //HANDLE INPUT
 
     /**
-     * Handles keyboard input events, allowing the user to restart the game or pause/resume the game.
+     * Handles keyboard input events, allowing the user to restart the game or pause/resume the game,
+     * which the simulation applies at the start of its next tick, to start and stop recording, or to
+     * scroll a level larger than the window with the arrow keys.
      *
      * @param event the KeyEvent object representing the key that was pressed
      */
@@ -484,69 +175,61 @@ public class App extends PApplet {
         
         //get input
         char key = event.getKey();
+
+        //arrow keys scroll until released
+        if (key == CODED) {
+            setScroll(event.getKeyCode(), 1);
+            return;
+        }
         
         //check for r key for restart
         if (key == 'r') {
-            handleRestart();
+            simulation.submit(GameState::handleRestart);
         }
 
         //check spacebar for pause/play
         if (key == ' ') {
-            paused = !paused;
+            simulation.submit(GameState::togglePause);
         }
-    }
 
-    /**
-     * Handles the logic for restarting the game or the current level based on the current game state.
-     */
-    private void handleRestart() {
-        
-        //if game end reset entire game
-        if (gameEnded) {
-            resetGame();
-        } else if (levelEnded || timeUp) {
-            
-            //if time up or level end restart level
-            restartLevel();
+        //check v for recording
+        if (key == 'v') {
+            if (recorder == null) {
+                startRecording();
+            } else {
+                stopRecording();
+            }
         }
     }
 
     /**
-     * Resets the entire game to its initial state, clearing all game elements and starting from the first level.
+     * Handles keyboard release events, stopping the camera when an arrow key is released.
+     *
+     * @param event the KeyEvent object representing the key that was released
      */
-    private void resetGame() {
-        
-        //if game ended, reset game
-        
-        //reset all game related variables to initial
-        currentLevelIndex = 0;
-        score = 0;
-        incrementedTime = 0;
-        gameEnded = false;
-        levelEnded = false;
-        timeUp = false;
-        incrementingScore = false;
-        animationTriggered = false; 
-        
-        //clear balls and lines
-        balls.clear();
-        lines.clear();
-
-        //load initial level data
-        loadLevelData(currentLevelIndex);
-        //loop();
+    @Override
+    public void keyReleased(KeyEvent event) {
+        if (event.getKey() == CODED) {
+            setScroll(event.getKeyCode(), 0);
+        }
     }
 
     /**
-     * Restarts the current level, resetting the balls and lines while keeping the current level configuration.
+     * Starts or stops scrolling in the direction of an arrow key.
+     *
+     * @param keyCode the code of the key
+     * @param speed   1 while the key is held, 0 once released
      */
-    private void restartLevel() {
-        
-        //if level ended, restart level
-        balls.clear();
-        lines.clear();
-
-        loadLevelData(currentLevelIndex);
+    private void setScroll(int keyCode, int speed) {
+        if (keyCode == LEFT) {
+            scrollX = -speed;
+        } else if (keyCode == RIGHT) {
+            scrollX = speed;
+        } else if (keyCode == UP) {
+            scrollY = -speed;
+        } else if (keyCode == DOWN) {
+            scrollY = speed;
+        }
     }
 
     /**
@@ -557,7 +240,7 @@ public class App extends PApplet {
     public void mousePressed() {
 
         //disable drawing lines when game ended or timeup
-        if (gameEnded || timeUp) {
+        if (!frame.canDraw()) {
             return;
         }
         // create a new player-drawn line object if left click
@@ -576,19 +259,25 @@ public class App extends PApplet {
         
         //add line when held
         if (mouseButton == LEFT && currentLine != null) {
-            currentLine.addPoint(mouseX, mouseY);
+            currentLine.addPoint(mouseX + camera.getX(), mouseY + camera.getY());
         }
     }
 
     /**
-     * Handles mouse release events, finalizing the current line and adding it to the list of lines.
+     * Handles mouse release events, finalizing the current line and handing a copy of it to the
+     * simulation, which owns the copy from then on. The line itself is never changed again and is
+     * drawn as it was until a snapshot includes the copy.
      */
     @Override
     public void mouseReleased() {
 
         //draw line end
 		if (mouseButton == LEFT && currentLine != null) {
-            lines.add(currentLine);
+
+            //the simulation simplifies and indexes its own copy, this one is only drawn
+            Line line = new Line(currentLine);
+            pendingLine = currentLine;
+            pendingCommand = simulation.submit(game -> game.addLine(line));
             currentLine = null;
         }
     }
@@ -600,740 +289,300 @@ public class App extends PApplet {
 
         //create new line and add mouse position to Line
         currentLine = new Line();
-        currentLine.addPoint(mouseX, mouseY);
+        currentLine.addPoint(mouseX + camera.getX(), mouseY + camera.getY());
     }
 
     /**
-     * Deletes the line closest to the current mouse position, if one exists, by iterating through all lines.
+     * Deletes the line closest to the current mouse position, if one exists.
      */
     private void deleteLine() {
-
-        //iterate through lines to delete line closest to mouse position
-        for (int i = 0; i < lines.size(); i ++) {
-            Line line = lines.get(i);
-            if (line.mouseNearLine(mouseX, mouseY)) {
-                lines.remove(i);
-                break;
-            }    
-        } 
+        float x = mouseX + camera.getX();
+        float y = mouseY + camera.getY();
+        simulation.submit(game -> game.eraseLineAt(x, y));
     }
 
     // GAME LOOP AND DRAWING
     
     /**
-     * Draws the game elements on the screen, updating the game state and handling animations, 
-     * score display, and level completion checks.
+     * Draws the latest snapshot of the game on the screen, including animations, score display
+     * and messages. The game itself is ticked by the simulation thread, and balls are drawn part
+     * of the way between their last two positions, so frames can be drawn faster than ticks.
      */
 	@Override
     public void draw() {
 
-        //set background colour
-        background(123);
-
-        //update game status
-        updateGameStatus();
+        //take the latest tick
+        frame = simulation.getLatest();
+        alpha = frame.interpolation(System.nanoTime());
+        if (pendingLine != null && frame.getAppliedCommands() >= pendingCommand) {
+            pendingLine = null;
+        }
 
-        //draw game elements like boards lines balls
-        drawGameElements();
-        
-        //check if level is complete
-        if (!paused && !incrementingScore) {
-            checkLevelCompletion();
-        } else if (incrementingScore) {
-            
-            //update score otherwise
-            updateAndDrawScore();
+        //fit the camera to a new level, then scroll
+        if (frame.getTileMap() != cameraMap) {
+            cameraMap = frame.getTileMap();
+            camera.setBoard(cameraMap.getCols(), cameraMap.getRows());
         }
+        camera.scroll(scrollX * SCROLL_SPEED, scrollY * SCROLL_SPEED);
 
-        
+        //repaint only the regions that changed
+        if (dirtyRendering) {
+            drawDirtyRegions();
+        } else {
 
-        //display messages like pause end
-        displayMessages();
+            //set background colour
+            background(123);
 
-        //stop balls if game end
-        if (levelEnded || gameEnded) {
-            return;
+            //draw game elements like boards lines balls
+            drawGameElements();
         }
-        
-    }
- 
-    /**
-     * Updates the game status, including the spawn timer, time remaining, and game pause state.
-     */
-    private void updateGameStatus() {
-        
-        //display relavent messages and update spawn timer if ball spawned
-        displayMessages();
-        updateSpawnTimer();
 
-        //update remaining time if not paused and not incrementing score
-        if (!paused & !incrementingScore) {
-            updateTimeRemaning();
+        //hand the finished frame to the encoders
+        if (recorder != null) {
+            loadPixels();
+            recorder.capture(pixels);
         }
     }
-    
-    /**
-     * Updates the remaining time for the current level, decrementing it each second, and checks if the time has run out.
-     */
-    private void updateTimeRemaning() {
-        
-        //if level not ended and time not up
-        if (!levelEnded && !timeUp) {   
-            
-            //decrease time every second
-            if (frameCount % FPS == 0 && timeRemaining > 0) {
-                timeRemaining --;
-            }
 
-            //if no time, timeup and level end
-            if (timeRemaining == 0) {
-                timeUp = true;
-                gameEnded = true;
-                levelEnded = true;        
-            }
-        }
-    }
-    
     /**
-     * Updates the spawn timer and triggers the spawning of a new ball when the timer reaches zero.
+     * Repaints only the parts of the window that changed since the last frame, on top of the
+     * frame already on screen. Each changed board region is clipped and redrawn from the background
+     * layer up, and the top bar is redrawn only when a field in it changed.
      */
-    private void updateSpawnTimer() {
-
-        //if there are balls to spawn or timer active
-        if (!ballColoursToSpawn.isEmpty() || (spawnTimer > 0)) {
-            
-            //if not paused and time not up
-            if (!paused && !timeUp) {
-
-                //if spawn timer hits 0, spawn ball and reset timer
-                if (spawnTimer <= 0) {
-                    spawnBall();
-                    spawnTimer = spawnInterval * FPS;
-                    countdownTime = spawnInterval; // Reset the countdown time when a ball is spawned
-                } else {
-
-                    //decrease time and update countdown time
-                    spawnTimer--;
-                    countdownTime = spawnTimer / FPS;
-                }
-            }
-        } else {
+    private void drawDirtyRegions() {
+        dirtyTracker.track(frame, currentLine != null ? currentLine : pendingLine, alpha, camera);
+        DirtyRegions regions = dirtyTracker.getRegions();
+        boolean rendered = backgroundLayer.update(frame, camera, regions);
+        inkLayer.update(frame, camera);
 
-            //reset countdown when no balls left
-            countdownTime = 0;
+        //repaint everything on a new level, a scroll or when the whole board changed
+        if (rendered || regions.isFull()) {
+            background(123);
+            drawGameElements();
+            return;
         }
-    }
 
-    // GAME ELEMENTS
-
-    /**
-     * Draws all the game elements including the board, walls, bricks, lines, balls, ball queue, timer, and score.
-     */
-    private void drawGameElements() {
+        //regions are in board coordinates
+        for (int i = 0; i < regions.size(); i++) {
+            int x = regions.x(i);
+            int y = regions.y(i);
+            int w = regions.width(i);
+            int h = regions.height(i);
 
-        //draw game elemenets: board, lines, balls, ball queue, timer and score
-        drawBoard();
-        drawWalls();
-        drawHoles();
-        drawBricks(); // EXTENSION
-        drawLines();
-        drawBalls();
-        displayBallQueue();
-        displayTimer();
-        displayScore();
-    }
-
-    /**
-     * Draws the game board, including the base tiles and spawners, as well as any special tiles such as holes.
-     */
-    private void drawBoard() {
-
-        // draw base board (standard tile and spawners only)
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board[i].length; j++) {
-                PImage tileSprite = getSprite("tile");
-                
-                if (board[i][j].equals("entrypoint")) {
-                    PImage spawnerSprite = getSprite("entrypoint");
-                    image(spawnerSprite, j * CELLSIZE, i * CELLSIZE + TOPBAR, CELLSIZE, CELLSIZE);
-                } else {
-                    // Otherwise, draw the tile sprite
-                    image(tileSprite, j * CELLSIZE, i * CELLSIZE + TOPBAR, CELLSIZE, CELLSIZE);
-                }
-            }
+            clip(x - camera.getX(), y - camera.getY(), w, h);
+            backgroundLayer.draw(x - camera.getX(), y - camera.getY(), w, h, camera);
+            drawLinesIn(x, y, x + w, y + h);
+            drawBallsIn(x, y, x + w, y + h);
+            noClip();
         }
-
-    }
-
-    /**
-     * Draws all the holes on the game board.
-     */
-    private void drawHoles() {
-        for (Hole hole : holes) {
-            hole.draw(this);
+        if (frame.isIncrementingScore()) {
+            drawTallyTiles();
         }
-    }
 
-    /**
-     * Draws all the wall elements on the game board.
-     */
-    private void drawWalls() {
-        for (Wall wall : walls) {
-            wall.draw(this);
-        }
-    }
-    
-    /**
-     * Draws all the breakable brick elements on the game board.
-     */
-    private void drawBricks() {
-        for (Brick brick : bricks) {
-            brick.draw(this);
+        if (dirtyTracker.isHudChanged()) {
+            drawHud();
         }
     }
 
     /**
-     * Draws all player-drawn lines and the current line being drawn.
+     * Draws the ink in a region: the part of the ink layer and the lines being drawn, if they reach the region.
+     *
+     * @param minX the left of the region, in board coordinates
+     * @param minY the top of the region
+     * @param maxX the right of the region
+     * @param maxY the bottom of the region
      */
-    private void drawLines() {
-        
-        //draw lines if time not up
-        if (!timeUp){
-            stroke(0);  // line colour
-            strokeWeight(10);  // line thickness
-            for (Line line : lines) {
-                line.draw(this);
-            }
-
-            //draw line if exists
-            if (currentLine != null) {
-                currentLine.draw(this);
-            }
+    private void drawLinesIn(int minX, int minY, int maxX, int maxY) {
+        if (frame.isTimeUp()) {
+            return;
         }
-    }
-
-    /**
-     * Draws all the balls on the game board and updates their positions. Removes balls marked for removal.
-     */
-    private void drawBalls() {
-        
-        //List to store removed balls
-        List<Ball> ballsToRemove = new ArrayList<>();
-
-        //iterate through each ball
-        for (Ball ball : balls) {
-            updateBalls(ball, ballsToRemove);
+        inkLayer.draw(minX - camera.getX(), minY - camera.getY(), maxX - minX, maxY - minY, camera);
+        stroke(0);
+        pushMatrix();
+        translate(-camera.getX(), -camera.getY());
+        if (currentLine != null && currentLine.nearBox(minX, minY, maxX, maxY, currentLine.getHalfThickness())) {
+            currentLine.draw(this);
         }
-
-        //remove balls marked for removal
-        balls.removeAll(ballsToRemove);
+        if (pendingLine != null && pendingLine.nearBox(minX, minY, maxX, maxY, pendingLine.getHalfThickness())) {
+            pendingLine.draw(this);
+        }
+        popMatrix();
     }
 
     /**
-     * Displays the ball queue, showing the upcoming balls to be spawned and the last emitted ball.
-     */
-    private void displayBallQueue() {
-        
-        //set queue display position
-        int startX = 20 + queueOffset;
-        int startY = 10;
-        int ballSpacing = 34;
-
-        //queue visual
-        //display ball queue logic
-        noStroke(); //remove border lines
-
-        fill(0); //create black rectangle
-        rect(18, 5, 170, 44);
-
-        //move to left by 1 unit if shifted to right
-        if (queueOffset > 0) {
-            queueOffset--; //move queue back 1 pixel per frame
-        }
-
-        //display most recent emitted ball
-        if (!lastEmittedBallColor.isEmpty()) {
-            String firstSpriteName = "ball" + lastEmittedBallColor;
-            PImage firstSprite = getSprite(firstSpriteName);
-
-            //display first ball if availible
-            if (firstSprite != null) {
-                image(firstSprite, startX - ballSpacing, startY, CELLSIZE, CELLSIZE); // Display the solo sprite
-            }
-        }
-        
-
-        //display next 5 balls
-        String[] queueArray = ballColoursToSpawn.toArray(new String[0]);
-        for (int i = 0; i < queueArray.length; i ++) {
-            String ballColorNumber = queueArray[i];
-            String spriteName = "ball" + ballColorNumber;
-            PImage sprite = getSprite(spriteName);
-
-            //display balls in corrosponding postiion
-            if (sprite != null) {
-                image(sprite, startX + i * ballSpacing, startY, CELLSIZE, CELLSIZE);
+     * Draws the balls that overlap a region.
+     *
+     * @param minX the left of the region, in board coordinates
+     * @param minY the top of the region
+     * @param maxX the right of the region
+     * @param maxY the bottom of the region
+     */
+    private void drawBallsIn(float minX, float minY, float maxX, float maxY) {
+        for (int i = 0; i < frame.getBallCount(); i++) {
+            float x = frame.getBallX(i, alpha);
+            float y = frame.getBallY(i, alpha);
+            int radius = frame.getBallRadius(i);
+            if (x + radius >= minX && x - radius <= maxX && y + radius >= minY && y - radius <= maxY) {
+                drawBall(i);
             }
         }
-
-        // hide the first ball if the queue is empty (worst case)
-        if (ballColoursToSpawn.isEmpty() && spawnTimer == 0) {
-            lastEmittedBallColor = ""; // reset last emitted ball color to hide it
-        }
-
-        //mask off sides
-        fill(200);
-        rect(0, 5, 18, 44); //left side
-        rect(188, 5, WIDTH - 190, 44); //right side
-        rect(0, 0, WIDTH, 5); //above
-        rect(0, 49, WIDTH, TOPBAR - 49); // below
-
     }
 
-    // SCORE AND TIMERS
+    // RECORDING
 
     /**
-     * Displays messages on the screen such as pause state, time up, or game end.
+     * Starts recording every drawn frame into a new directory under recordings.
      */
-    private void displayMessages() {
-        
-        //display message on game state
-        //pause message
-        if (paused) {
-            fill(255, 0, 0);
-            textAlign(CENTER, CENTER);
-            text("=== PAUSED ===", WIDTH / 2, TOPBAR - 20);
-        } else if (timeUp && gameEnded && !gameFinished) {  
-
-            //time up message
-            fill(255, 0, 0);
-            textAlign(CENTER, CENTER);
-            text("=== TIME'S UP ===", WIDTH / 2, TOPBAR - 20);
-        } else if (!timeUp && gameEnded && gameFinished) {
-            
-            //game end message
-            fill(255, 0, 0);
-            textAlign(CENTER, CENTER);
-            text("=== ENDED ===", WIDTH / 2, TOPBAR / 2);
+    private void startRecording() {
+        String name = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        try {
+            recorder = new FrameRecorder(new File("recordings", name), recordFormat, width, height,
+                    Runtime.getRuntime().availableProcessors() / 2, RECORD_BUFFERS, recordDropFrames, DRAW_RATE);
+            System.out.println("Recording to " + recorder.getDir());
+        } catch (IOException e) {
+            System.out.println("Cannot start recording: " + e.getMessage());
         }
     }
 
     /**
-     * Updates the score based on the remaining time and animates the tiles when the level is complete.
+     * Stops recording, waiting for the queued frames to be written.
      */
-    private void updateAndDrawScore() {
-        
-        //update score and yellow animations when level complete
-        if (incrementedTime < timeRemaining) {
-            if (frameCount % 2 == 0) { //increment every 2 frames
-                score ++; //increment score per time
-                incrementedTime++;
-                animateTiles(1);
-            } else {
-                animateTiles(0);
-            }
-
-            //update score display
-            displayScore();
-        } else {
-            
-            //when finished reset states
-            incrementingScore = false;
-            animationTriggered = false;
-            timeRemaining = 0;
+    private void stopRecording() {
+        if (recorder == null) {
+            return;
+        }
+        FrameRecorder stopped = recorder;
+        recorder = null;
+        try {
+            stopped.stop();
+            System.out.println("Recorded " + stopped.getWritten() + " frames to " + stopped.getDir()
+                    + ", dropped " + stopped.getDropped());
+        } catch (IOException e) {
+            System.out.println("Recording failed: " + e.getMessage());
         }
     }
 
-    /**
-     * Displays the remaining time and the countdown timer for the next ball spawn on the screen.
-     */
-    private void displayTimer() {
-        
-        //display timer
-        fill(0);
-        textSize(16);
-        textAlign(RIGHT, CENTER);
-        text("Time: " + timeRemaining, WIDTH - 30, 40);
-
-        //display queue timer
-        fill(0);
-        textSize(14);
-        textAlign(LEFT, CENTER);
-        text(String.format("%.1f", spawnTimer / (float) FPS), countdownX, countdownY);
-    }
+    // GAME ELEMENTS
 
     /**
-     * Displays the player's current score on the screen.
+     * Draws all the game elements in view including the board, walls, bricks, lines, balls, the
+     * score tally and the top bar.
      */
-    private void displayScore() {
-        //display current score
-        fill(0);
-        textSize(16);
-        textAlign(RIGHT, CENTER);
-        text("Score: " + score, WIDTH - 30, 20);
-    }
+    private void drawGameElements() {
 
-    // LOGIC AND MECHANICS
+        //draw game elemenets: board, lines, balls, then ball queue, timer, score and messages
+        backgroundLayer.draw(frame, camera); // tiles, walls, holes and bricks in view, pre-rendered
+        drawLines();
+        drawBalls();
 
-    /**
-     * Updates the position of the given ball, checks for collisions, and handles interactions such as entering holes.
-     *
-     * @param ball           the Ball object to update
-     * @param ballsToRemove  the list of balls marked for removal after interacting with a hole
-     */
-    private void updateBalls(Ball ball, List<Ball> ballsToRemove) {
-    
-        //update ball postitions and check for collisions if not paused or not time up
-        if (!paused & !timeUp){
-            ball.updatePostition();
+        //draw the score tally animation when level complete
+        if (frame.isIncrementingScore()) {
+            drawTallyTiles();
         }
-        ball.checkCollisions(walls, bricks, sprites);
-        handleBallInteractions(ball, ballsToRemove);
-        
-        //draw updated ball
-        ball.draw(this);
+
+        //the top bar goes last, covering anything drawn above the view
+        drawHud();
     }
 
     /**
-     * Handles interactions between the ball and game elements such as lines, holes, and tiles.
-     *
-     * @param ball           the Ball object to check interactions for
-     * @param ballsToRemove  the list of balls marked for removal after interacting with a hole
+     * Draws all player-drawn lines, the current line being drawn and a released line the
+     * simulation has not added yet.
      */
-    private void handleBallInteractions(Ball ball, List<Ball> ballsToRemove) {
+    private void drawLines() {
         
-        //ball colour
-        int ballColourNumber = ball.getColourNumber();
+        //draw lines if time not up
+        if (!frame.isTimeUp()){
+            inkLayer.update(frame, camera);
+            inkLayer.draw(camera); // finished lines in view, rasterised once
 
-        boolean resizingHappened = false;
-        
-        //check line collision with ball
-        for (int i = lines.size() - 1; i >= 0; i --) {
-            Line line = lines.get(i);
-            if (line.handleCollision(ball)) {
-                lines.remove(i);
+            //draw line if exists, shifted by the camera
+            stroke(0);  // line colour
+            pushMatrix();
+            translate(-camera.getX(), -camera.getY());
+            if (currentLine != null) {
+                currentLine.draw(this);
             }
-        }
-
-        for (Hole hole : holes) {
-            int status = hole.checkBallCapture(ball);
-
-            if (status == 1) {
-
-                //correct hole/ball colour, increase score
-                increaseScore(ball.getColourNumber());
-                ballsToRemove.add(ball);
-                return;
-
-            } else if (status == -1) {
-
-                //wrong colour, decrease score and add ball back to queue
-                decreaseScore(ball.getColourNumber());
-                ballsToRemove.add(ball);
-                ballColoursToSpawn.add(String.valueOf(ball.getColourNumber())); // Add ball back to queue
-                spawnTimer = spawnInterval * FPS; // Reset spawn timer
-                return;
-            } else if (status == 0) {
-                resizingHappened = true;  // Track that a hole resized the ball
+            if (pendingLine != null) {
+                pendingLine.draw(this);
             }
-        }
-
-        if (!resizingHappened) {
-            ball.setRadius(App.CELLSIZE / 2);
+            popMatrix();
         }
     }
 
     /**
-     * Increases the score based on the ball's color when it enters the correct hole.
-     *
-     * @param ballColourNumber the color number of the ball that entered the hole
+     * Draws the balls in view.
      */
-    private void increaseScore(int ballColourNumber) {
-        
-        //increase ball score based on colour
-        String colourName = getColorNameFromNumber(ballColourNumber);
-        if (scoreIncreaseValues.containsKey(colourName)) {
-            int increaseValue = scoreIncreaseValues.get(colourName);
-            score += increaseValue * scoreIncreaseModifier;
-        } else {
-            System.out.println("Error: Colour name " + colourName + " not found in scoreIncreaseValues.");
+    private void drawBalls() {
+        for (int i = 0; i < frame.getBallCount(); i++) {
+            float x = frame.getBallX(i, alpha);
+            float y = frame.getBallY(i, alpha);
+            int radius = frame.getBallRadius(i);
+            if (camera.isVisible(x - radius, y - radius, x + radius, y + radius)) {
+                drawBall(i);
+            }
         }
     }
 
     /**
-     * Decreases the score based on the ball's color when it enters the wrong hole.
+     * Draws one ball of the snapshot where it is part of the way through the tick.
      *
-     * @param ballColourNumber the color number of the ball that entered the wrong hole
+     * @param index the index of the ball in the snapshot
      */
-    private void decreaseScore(int ballColourNumber) {
-
-        //decrease ball score based on colour
-        String colourName = getColorNameFromNumber(ballColourNumber);
-        if (scoreDecreaseValues.containsKey(colourName)) {
-            int decreaseValue = scoreDecreaseValues.get(colourName);
-            score -= decreaseValue * scoreDecreaseModifier;
-        } else {
-            System.out.println("Error: Colour name " + colourName + " not found in scoreDecreaseValues.");
-        }
+    private void drawBall(int index) {
+        int radius = frame.getBallRadius(index);
+        atlas.draw(g, SpriteAtlas.ball(frame.getBallColour(index)),
+                frame.getBallX(index, alpha) - radius - camera.getX(),
+                frame.getBallY(index, alpha) - radius - camera.getY(), 2 * radius, 2 * radius);
     }
 
-    /**
-     * Checks if the level is complete by verifying if all balls have been cleared and if no more balls are left to spawn.
-     * If the level is complete, it handles transitioning to the next level or ending the game.
-     */
-    private void checkLevelCompletion() {
-
-        //check if all balls are cleared and level is completed
-        if (balls.isEmpty() && ballColoursToSpawn.isEmpty()) {
-            
-            //if not game ended
-            if (!gameEnded) {
-                
-                //add remaining time to score
-                if (timeRemaining > 0 && !incrementingScore) {
-                    incrementingScore = true;
-                    incrementedTime = 0; //reset for new level
-                    animationTriggered = false;
-                }
-            }
+    // TOP BAR AND TALLY
 
-            //check what type of game end it is
-            if (!incrementingScore) {
-
-                //if last level
-                if (isLastLevel()) {
-                    
-                    //game finished
-                    gameEnded = true;
-                    gameFinished = true;
-                    timeUp = false;
-
-                } else {
-                    
-                    //move to next level only when finishing incrementing score 
-                    currentLevelIndex ++;
-                    levelEnded = false;
-                    timeUp = false;
-                    gameFinished = false;
-                    incrementingScore = false;
-                    animationTriggered = true; 
-                    incrementedTime = 0;
-                    
-                    //clear exisitng lists
-                    balls.clear();
-                    lines.clear();
-                    
-                    //load next level
-                    loadLevelData(currentLevelIndex);
-                }  
-            }
-        }
-    }
-    
     /**
-     * Animates yellow tiles during level completion, moving them around the board in a clockwise direction.
-     *
-     * @param i determines whether to animate the tiles this frame (1 for moving tiles, 0 for drawing tiles without movement)
+     * Draws the ball queue, timers, score and messages, rendering the top bar again only if
+     * a value shown in it changed.
      */
-    private void animateTiles(int i) {
-
-        //retrieve yellow wall sprite
-        PImage yellowWallSprite = getSprite("wall4");
-        
-        if (!animationTriggered) {
-
-            //resets to initial values per animation 
-            counter = 0; //counter for tracking movement steps
-            directionTopLeft = 0;
-            directionBottomRight = 2;
-            topLeftX = 0;
-            topLeftY = 0; //initial position for the top-left tile
-            bottomRightX = 17;
-            bottomRightY = 17; //initial position for the bottom-right tile
-            animationTriggered = true;
-        }
-
-        // Draw the top-left tile at its current position
-        image(yellowWallSprite, topLeftX * CELLSIZE, topLeftY * CELLSIZE + TOPBAR, CELLSIZE, CELLSIZE);
-        image(yellowWallSprite, bottomRightX * CELLSIZE, bottomRightY * CELLSIZE + TOPBAR, CELLSIZE, CELLSIZE);
-
-        if (i == 1) {
-        
-            //move top left tile based on direction
-            // 0 = right, 1 = down, 2 = left, 3 = up
-            if (directionTopLeft == 0) {
-                topLeftX ++;
-            } else if (directionTopLeft == 1) {
-                topLeftY ++;
-            } else if (directionTopLeft == 2) {
-                topLeftX --;
-            } else if (directionTopLeft == 3) {
-                topLeftY --;
-            }
-
-            //move bottom right tile based on direction
-            if (directionBottomRight == 0) {
-                bottomRightX ++;
-            } else if (directionBottomRight == 1) {
-                bottomRightY ++;
-            } else if (directionBottomRight == 2) {
-                bottomRightX --;
-            } else if (directionBottomRight == 3) {
-                bottomRightY --;
-            }
-            
-            
-
-            //increase counter and check if direction needs changing
-            counter ++;
-            if (counter == 17) {
-                counter = 0; //reset counter
-
-                directionTopLeft = (directionTopLeft + 1) % 4;
-                directionBottomRight = (directionBottomRight + 1) % 4;
-            }
-        }
+    private void drawHud() {
+        hudLayer.update(frame);
+        hudLayer.draw();
     }
 
     /**
-     * Determines whether the current level is the last level in the game.
-     *
-     * @return true if the current level is the last level, false otherwise
+     * Draws the two yellow tiles that travel around the board while the remaining time is added to the score.
      */
-    private boolean isLastLevel() {
+    private void drawTallyTiles() {
 
-        //checks if level index is last from levels
-        return currentLevelIndex >= levels.size() - 1;
-    }
-    
-    /**
-     * Spawns a new ball at a random spawner location with a random velocity and color based on the ball queue.
-     * If no spawners or ball colors are available, this method does nothing.
-     */
-    private void spawnBall() {
+        //draw with the yellow wall sprite
+        int yellowWall = SpriteAtlas.wall(Colours.YELLOW);
+        int[] topLeft = frame.getTopLeftTile();
+        int[] bottomRight = frame.getBottomRightTile();
 
-        //spawn new ball at random spawner location
-        if (spawnerLocations.isEmpty() || ballColoursToSpawn.isEmpty()) {
-            return;
-        }
-
-        int[] spawner = spawnerLocations.get(random.nextInt(spawnerLocations.size()));
-        float startX = spawner[0];
-        float startY = spawner[1];
-
-        //get colour for new ball
-        String colourString = ballColoursToSpawn.poll();
-        lastEmittedBallColor = colourString; //save for queue
-
-        int colourNumber = Integer.parseInt(colourString);
-        String spriteName = "ball" + colourNumber;
-        PImage sprite = getSprite(spriteName);
-        currentBallIndex++;
-        
-        //spawn new ball
-        Ball newBall = new Ball(startX, startY, random.nextBoolean() ? 2 : -2, random.nextBoolean() ? 2 : -2, spriteName, sprite);
-        balls.add(newBall);
+        int x = -camera.getX();
+        int y = TOPBAR - camera.getY();
 
-        //shift the visual queue by one ball width
-        queueOffset += 34; 
+        //keep tiles scrolled above the view off the top bar
+        clip(0, TOPBAR, WIDTH, HEIGHT - TOPBAR);
+        atlas.draw(g, yellowWall, x + topLeft[0] * CELLSIZE, y + topLeft[1] * CELLSIZE, CELLSIZE, CELLSIZE);
+        atlas.draw(g, yellowWall, x + bottomRight[0] * CELLSIZE, y + bottomRight[1] * CELLSIZE, CELLSIZE, CELLSIZE);
+        noClip();
     }
 
-    // UTILITY
-
     /**
-     * Converts a color name to its corresponding numerical value.
+     * Returns the sprite atlas every sprite is drawn from.
      *
-     * @param colourName the name of the color
-     * @return the numerical value corresponding to the color name
+     * @return the sprite atlas
      */
-    private int getColourNumberFromName(String colourName) {
-        
-        //return colour number based on colour name
-        switch (colourName.toLowerCase()) {
-            case "orange":
-                return 1;
-            case "blue":
-                return 2;
-            case "green":
-                return 3;
-            case "yellow":
-                return 4;
-            case "grey":
-                return 0;
-            default:
-                return 0;
-        }
+    public SpriteAtlas getAtlas() {
+        return atlas;
     }
 
     /**
-     * Converts a color number to its corresponding color name.
+     * Returns the game state driven by this window. Once the window is set up the state belongs
+     * to the simulation thread, so changes should go through {@link Simulation#submit}.
      *
-     * @param colorNumber the numerical value of the color
-     * @return the name of the color corresponding to the given number
+     * @return the game state
      */
-    private String getColorNameFromNumber(int colorNumber) {
-        
-        //return colour name based on colour number
-        switch (colorNumber) {
-            case 0:
-                return "grey";
-            case 1:
-                return "orange";
-            case 2:
-                return "blue";
-            case 3:
-                return "green";
-            case 4:
-                return "yellow";
-            default:
-                return "grey";
-        }
-    }
-
-    /**
-     * Converts a tile character from the level file to its corresponding sprite name.
-     *
-     * @param tileChar the character representing the tile
-     * @param nextChar the next character in the line, used for multi-character tiles
-     * @return the sprite name corresponding to the tile character
-     */
-    private String spriteNameFromChar(char tileChar, char nextChar) {
-        
-        //map character fomr level files to sprite name
-        switch (tileChar) {
-            case 'X':
-                return "wall0";
-            case '1':
-                return "wall1";
-            case '2':
-                return "wall2";
-            case '3':
-                return "wall3";
-            case '4':
-                return "wall4";
-            case 'H':
-                switch (nextChar) {
-                    case '0': return "hole0";
-                    case '1': return "hole1";
-                    case '2': return "hole2";
-                    case '3': return "hole3";
-                    case '4': return "hole4";
-                    default: return "hole0";
-                }
-            case 'B':
-                switch (nextChar) {
-                    case '0': return "ball0";
-                    case '1': return "ball1";
-                    case '2': return "ball2";
-                    case '3': return "ball3";
-                    case '4': return "ball4";
-                    default: return "ball0";
-                }
-            case 'S':
-                return "entrypoint";
-            default:
-                return "tile";
-        }
+    public GameState getState() {
+        return state;
     }
 
     /**
@@ -1342,7 +591,7 @@ public class App extends PApplet {
      * @return the list of Ball objects
      */
     public List<Ball> getBalls() {
-        return balls;
+        return state.getBalls();
     }
 
     /**
@@ -1351,11 +600,11 @@ public class App extends PApplet {
      * @return the list of Hole objects
      */
     public List<Hole> getHoles() {
-        return holes;
+        return state.getHoles();
     }
     
     public static void main(String[] args) {
-        PApplet.main("inkball.App");
+        PApplet.main("inkball.App", args);
     }
 
 }
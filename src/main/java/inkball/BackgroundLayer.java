@@ -0,0 +1,260 @@
+package inkball;
+
+import java.util.List;
+
+import processing.core.PApplet;
+import processing.core.PGraphics;
+
+/**
+ * The tiles, walls, holes and bricks in view, none of which move, rendered once into an
+ * offscreen buffer and drawn with a single image call per frame. The buffer covers the cells in
+ * view of the camera, not the whole level, and is rendered again whenever a new level is loaded
+ * or the camera scrolls to a new origin cell. Only the cell of a brick is redrawn when the brick
+ * cracks or is destroyed.
+ * <p>
+ * Tiles and walls are read from the cells in view of the tile map, and holes and bricks outside
+ * the buffer are skipped, so rendering the buffer costs the same however large the level is.
+ * Changed bricks are found by comparing the hit count of each brick in the snapshot with the
+ * count it was last drawn with, so the layer stays correct however many ticks pass between two
+ * frames.
+ */
+public class BackgroundLayer {
+
+    private final PApplet app;
+    private final SpriteAtlas atlas;
+    private PGraphics layer;
+    private TileMap drawnMap;          // tile map the layer was rendered from, replaced on every level load
+    private int drawnCol = -1;         // first column in the layer
+    private int drawnRow = -1;         // first row in the layer
+    private int[] drawnHits = new int[0]; // hit count each brick was last drawn with, by brick index
+
+    /**
+     * Constructs an empty background layer.
+     *
+     * @param app   the window that creates the buffer and draws it
+     * @param atlas the sprite atlas to draw from
+     */
+    public BackgroundLayer(PApplet app, SpriteAtlas atlas) {
+        this.app = app;
+        this.atlas = atlas;
+    }
+
+    /**
+     * Brings the layer up to date with the snapshot and draws it in the view.
+     *
+     * @param state  the snapshot to draw
+     * @param camera the part of the board in view
+     */
+    public void draw(Snapshot state, Camera camera) {
+        update(state, camera, null);
+        app.image(layer, getLeft() - camera.getX(), getTop() - camera.getY());
+    }
+
+    /**
+     * Brings the layer up to date with the snapshot without drawing it.
+     *
+     * @param state   the snapshot to render
+     * @param camera  the part of the board in view
+     * @param changed the region to add the redrawn brick cells to, in board coordinates, or null
+     * @return true if the whole layer was rendered again for a new level or a new origin cell
+     */
+    public boolean update(Snapshot state, Camera camera, DirtyRegions changed) {
+        if (state.getTileMap() != drawnMap || camera.getLayerCol() != drawnCol || camera.getLayerRow() != drawnRow) {
+            render(state, camera);
+            return true;
+        }
+        redrawChangedBricks(state, changed);
+        return false;
+    }
+
+    /**
+     * Draws part of the layer at the same place in the window.
+     *
+     * @param x      the left of the part, in window coordinates
+     * @param y      the top of the part, in window coordinates
+     * @param width  the width of the part
+     * @param height the height of the part
+     * @param camera the part of the board in view
+     */
+    public void draw(int x, int y, int width, int height, Camera camera) {
+        int left = x + camera.getX() - getLeft();
+        int top = y + camera.getY() - getTop();
+        app.image(layer, x, y, width, height, left, top, left + width, top + height);
+    }
+
+    /**
+     * Renders every cell covered by the layer, creating the buffer on first use.
+     *
+     * @param state  the snapshot to render
+     * @param camera the part of the board in view
+     */
+    private void render(Snapshot state, Camera camera) {
+        if (layer == null) {
+            layer = app.createGraphics(camera.getLayerWidth(), camera.getLayerHeight());
+        }
+        TileMap map = state.getTileMap();
+        drawnMap = map;
+        drawnCol = camera.getLayerCol();
+        drawnRow = camera.getLayerRow();
+
+        List<Brick> bricks = state.getBricks();
+        if (drawnHits.length != bricks.size()) {
+            drawnHits = new int[bricks.size()];
+        }
+
+        int lastCol = Math.min(map.getCols(), drawnCol + layer.width / App.CELLSIZE);
+        int lastRow = Math.min(map.getRows(), drawnRow + layer.height / App.CELLSIZE);
+
+        begin();
+        layer.background(123);
+        for (int row = drawnRow; row < lastRow; row++) {
+            for (int col = drawnCol; col < lastCol; col++) {
+                drawFloor(col, row);
+                byte code = map.get(col, row);
+                if (TileMap.isWall(code)) {
+                    drawCell(TileMap.spriteRegion(code), col, row);
+                }
+            }
+        }
+        for (Hole hole : state.getHoles()) {
+            if (inLayer(hole.getX() - App.CELLSIZE, hole.getY() - App.CELLSIZE, 2 * App.CELLSIZE)) {
+                hole.draw(layer, atlas);
+            }
+        }
+        for (int i = 0; i < bricks.size(); i++) {
+            Brick brick = bricks.get(i);
+            drawnHits[i] = state.getBrickHits(i);
+            if (inLayer(cellLeft(brick), cellTop(brick), App.CELLSIZE)) {
+                brick.draw(layer, atlas, drawnHits[i]);
+            }
+        }
+        end();
+    }
+
+    /**
+     * Redraws the cell of every brick in the layer that was hit since it was last drawn.
+     *
+     * @param state   the snapshot to draw
+     * @param changed the region to add the redrawn cells to, or null
+     */
+    private void redrawChangedBricks(Snapshot state, DirtyRegions changed) {
+        List<Brick> bricks = state.getBricks();
+        boolean drawing = false;
+
+        for (int i = 0; i < bricks.size() && i < drawnHits.length; i++) {
+            if (state.getBrickHits(i) == drawnHits[i]) {
+                continue;
+            }
+            drawnHits[i] = state.getBrickHits(i);
+            Brick brick = bricks.get(i);
+            if (!inLayer(cellLeft(brick), cellTop(brick), App.CELLSIZE)) {
+                continue;
+            }
+            if (!drawing) {
+                begin();
+                drawing = true;
+            }
+
+            //cover the old sprite with the floor before drawing the cracked brick, if any is left
+            drawFloor((int) brick.getX(), (int) brick.getY());
+            brick.draw(layer, atlas, drawnHits[i]);
+            if (changed != null) {
+                changed.add(cellLeft(brick), cellTop(brick), App.CELLSIZE, App.CELLSIZE);
+            }
+        }
+
+        if (drawing) {
+            end();
+        }
+    }
+
+    /**
+     * Draws the floor sprite of one cell.
+     *
+     * @param col the column of the cell
+     * @param row the row of the cell
+     */
+    private void drawFloor(int col, int row) {
+        drawCell(TileMap.floorRegion(drawnMap.get(col, row)), col, row);
+    }
+
+    /**
+     * Draws a sprite over one cell.
+     *
+     * @param region the sprite atlas region
+     * @param col    the column of the cell
+     * @param row    the row of the cell
+     */
+    private void drawCell(int region, int col, int row) {
+        atlas.draw(layer, region, col * App.CELLSIZE, row * App.CELLSIZE + App.TOPBAR, App.CELLSIZE, App.CELLSIZE);
+    }
+
+    /**
+     * Checks whether a square in board coordinates overlaps the layer.
+     *
+     * @param left the left of the square
+     * @param top  the top of the square
+     * @param size the side of the square
+     * @return true if any of the square is in the layer
+     */
+    private boolean inLayer(float left, float top, float size) {
+        return left + size > getLeft() && left < getLeft() + layer.width
+                && top + size > getTop() && top < getTop() + layer.height;
+    }
+
+    /**
+     * Gets the board x-coordinate of the left of a brick's cell.
+     *
+     * @param brick the brick
+     * @return the left of the cell
+     */
+    private static float cellLeft(Brick brick) {
+        return brick.getX() * App.CELLSIZE;
+    }
+
+    /**
+     * Gets the board y-coordinate of the top of a brick's cell.
+     *
+     * @param brick the brick
+     * @return the top of the cell
+     */
+    private static float cellTop(Brick brick) {
+        return brick.getY() * App.CELLSIZE + App.TOPBAR;
+    }
+
+    /**
+     * Gets the board x-coordinate of the left of the layer.
+     *
+     * @return the left of the layer
+     */
+    private int getLeft() {
+        return drawnCol * App.CELLSIZE;
+    }
+
+    /**
+     * Gets the board y-coordinate of the top of the layer.
+     *
+     * @return the top of the layer
+     */
+    private int getTop() {
+        return drawnRow * App.CELLSIZE + App.TOPBAR;
+    }
+
+    /**
+     * Starts drawing on the layer. Everything is drawn in board coordinates, so the layer is
+     * shifted to its origin cell.
+     */
+    private void begin() {
+        layer.beginDraw();
+        layer.pushMatrix();
+        layer.translate(-getLeft(), -getTop());
+    }
+
+    /**
+     * Finishes drawing on the layer.
+     */
+    private void end() {
+        layer.popMatrix();
+        layer.endDraw();
+    }
+}
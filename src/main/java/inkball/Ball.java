@@ -1,50 +1,91 @@
 package inkball;
 
 import java.util.Random;
-import java.util.ArrayList;
-import java.util.HashMap;
-
-import processing.core.PImage;
+import java.util.List;
 
 
+/**
+ * A view of a single ball. The ball's state lives in a slot of a {@link BallStore}; a ball 
+ * created on its own gets a store of its own until it is added to a shared store.
+ */
 public class Ball implements Drawable {
 
-    public int radius = App.CELLSIZE / 2;
-    private float x, y; //postiion
-    private float vx, vy; //velocity
-    private String colour;
-    private PImage sprite;
-    public int collisionBuffer = 0;
-    private int colourNumber;
+    private static final String[] COLOUR_NAMES = {"ball0", "ball1", "ball2", "ball3", "ball4"};
+
+    private BallStore store;
+    private int index;
 
     /**
-     * Creates a new Ball object with the specified position, velocity, color, and sprite.
+     * Creates a new Ball object with the specified position, velocity, and color.
      *
      * @param x      the initial x-coordinate of the ball
      * @param y      the initial y-coordinate of the ball
      * @param vx     the initial velocity in the x direction
      * @param vy     the initial velocity in the y direction
      * @param colour the color of the ball
-     * @param sprite the PImage object representing the ball's sprite
      */
-    public Ball(float x, float y, float vx, float vy, String colour, PImage sprite) {
-        this.x = x + App.CELLSIZE / 2;
-        this.y = y + App.CELLSIZE / 2;
-        this.vx = vx;
-        this.vy = vy;
-        this.colour = colour;
-        this.sprite = sprite;
-        this.colourNumber = Integer.parseInt(colour.substring(4));
+    public Ball(float x, float y, float vx, float vy, String colour) {
+        this(x, y, vx, vy, Colours.fromSpriteName(colour));
+    }
+
+    /**
+     * Creates a new Ball object with the specified position, velocity, and colour id.
+     *
+     * @param x      the initial x-coordinate of the ball
+     * @param y      the initial y-coordinate of the ball
+     * @param vx     the initial velocity in the x direction
+     * @param vy     the initial velocity in the y direction
+     * @param colour the colour id of the ball
+     */
+    public Ball(float x, float y, float vx, float vy, int colour) {
+        new BallStore(1).append(x + App.CELLSIZE / 2, y + App.CELLSIZE / 2, vx, vy, colour, this);
+    }
+
+    /**
+     * Points this view at a slot of a store.
+     *
+     * @param store the store holding the ball's state
+     * @param index the slot of the ball in the store
+     */
+    void attach(BallStore store, int index) {
+        this.store = store;
+        this.index = index;
+    }
+
+    /**
+     * Gets the store holding the ball's state.
+     *
+     * @return the ball store
+     */
+    BallStore getStore() {
+        return store;
+    }
+
+    /**
+     * Gets the slot of the ball in its store.
+     *
+     * @return the slot index
+     */
+    int getIndex() {
+        return index;
     }
 
     /**
      * Initializes the ball's velocity randomly, setting it to either 2 or -2 in both x and y directions.
      */
     public void initializeRandomVelocity() {
+        initializeRandomVelocity(new Random());
+    }
+
+    /**
+     * Initializes the ball's velocity from the given random source, setting it to either 2 or -2 in both x and y directions.
+     *
+     * @param random the random source used to pick the directions
+     */
+    public void initializeRandomVelocity(Random random) {
         //set velocity to either 2 or -2
-        Random random = new Random();
-        this.vx = random.nextBoolean() ? -2 : 2;
-        this.vy = random.nextBoolean() ? -2 : 2;
+        store.vx[index] = random.nextBoolean() ? -2 : 2;
+        store.vy[index] = random.nextBoolean() ? -2 : 2;
     }
 
     /**
@@ -53,7 +94,7 @@ public class Ball implements Drawable {
      * @param newRadius the new radius of the ball
      */
     public void setRadius(int newRadius) {
-        this.radius = newRadius;
+        store.radius[index] = newRadius;
     }
 
     /**
@@ -62,7 +103,7 @@ public class Ball implements Drawable {
      * @return the x-coordinate of the ball
      */
     public float getX() {
-        return x;
+        return store.x[index];
     }
     
     /**
@@ -71,7 +112,7 @@ public class Ball implements Drawable {
      * @return the y-coordinate of the ball
      */
     public float getY() {
-        return y;
+        return store.y[index];
     }
     
     /**
@@ -80,7 +121,7 @@ public class Ball implements Drawable {
      * @return the velocity in the x direction
      */
     public float getVx() {
-        return vx;
+        return store.vx[index];
     }
     
     /**
@@ -89,7 +130,7 @@ public class Ball implements Drawable {
      * @return the velocity in the y direction
      */
     public float getVy() {
-        return vy;
+        return store.vy[index];
     }
 
     /**
@@ -98,15 +139,15 @@ public class Ball implements Drawable {
      * @return the ball radius
      */
     public int getRadius() {
-        return radius;
+        return store.radius[index];
     }
 
     /**
      * Updates the ball's position by adding the current velocity to its x and y coordinates.
      */
     public void updatePostition() { //update ball postition
-        x += vx;
-        y += vy;
+        store.x[index] += store.vx[index];
+        store.y[index] += store.vy[index];
     }
 
     /**
@@ -115,7 +156,7 @@ public class Ball implements Drawable {
      * @param vx the new velocity in the x direction
      */
     public void setVx(float vx) {
-        this.vx = vx;
+        store.vx[index] = vx;
     }
 
     /**
@@ -124,7 +165,7 @@ public class Ball implements Drawable {
      * @param vy the new velocity in the y direction
      */
     public void setVy(float vy) {
-        this.vy = vy;
+        store.vy[index] = vy;
     }
 
 
@@ -134,7 +175,7 @@ public class Ball implements Drawable {
      * @return the color of the ball as a string
      */
     public String getColour() {
-        return colour;
+        return COLOUR_NAMES[store.colour[index]];
     }
 
     /**
@@ -143,115 +184,57 @@ public class Ball implements Drawable {
      * @return the color number of the ball
      */
     public int getColourNumber() {
-        return colourNumber;
+        return store.colour[index];
     }
     
     /**
-     * Checks for collisions between the ball and walls or bricks. Updates the ball's velocity 
-     * and color if a collision is detected.
+     * Moves the ball through one frame, bouncing off the board edges, walls, bricks and lines
+     * it meets on the way. Updates the ball's velocity and color if a collision is detected,
+     * and damages the bricks hit straight away.
      *
-     * @param walls   the list of Wall objects to check for collisions
-     * @param bricks  the list of Brick objects to check for collisions
-     * @param sprites a hashmap containing the sprites
-     */
-    public void checkCollisions(ArrayList<Wall> walls, ArrayList<Brick> bricks, HashMap<String, PImage> sprites) {
-        float centreX = x;  // X coordinate of the centre of the ball
-        float centreY = y;
-
-        //edge of screen
-        if (centreX - radius < 0 || centreX + radius > App.WIDTH) {
-            vx *= -1;
-        }
-        if (centreY - radius < App.TOPBAR || centreY + radius > App.HEIGHT) {
-            vy *= -1;
-        }
-
-        if (collisionBuffer == 0) {  // Proceed only if no recent collision
-            for (Wall wall : walls) {
-                float wallCentreX = wall.getX() * App.CELLSIZE + App.CELLSIZE / 2;
-                float wallCentreY = wall.getY() * App.CELLSIZE + App.CELLSIZE / 2 + App.TOPBAR;
-
-                float distance = (float) Math.sqrt(Math.pow(centreX - wallCentreX, 2) + Math.pow(centreY - wallCentreY, 2));
-
-                if (distance <= radius + App.CELLSIZE / 2) {
-                    if (Math.abs(centreX - wallCentreX) > Math.abs(centreY - wallCentreY)) {
-                        vx *= -1;
-                    } else {
-                        vy *= -1;
-                    }
-    
-                    // check wall colour and ball colour
-                    String wallType = wall.getType();
-                    String ballType = this.colour;
-                    
-                    // If the colors are different, change the ball's color to match the wall
-                    if (!wallType.equals("wall0") && !wallType.equals(ballType.replace("ball", "wall"))) {
-                        String newBallType = wallType.replace("wall", "ball");  // Convert wall type to ball type
-                        PImage newSprite = sprites.get(newBallType);  // Get the new sprite for the ball
-                        
-                        if (newSprite != null) {
-                            changeColour(newBallType, newSprite);  // Change the ball's color and sprite
-                        }
-                    }
-    
-                    // Set collision buffer to prevent immediate re-collision
-                    collisionBuffer = 2;
-                    return;
-                }
-            }
-
-            for (Brick brick : bricks) {
-                if (!brick.isDestroyed()) {
-                    float brickCentreX = brick.getX() * App.CELLSIZE + App.CELLSIZE / 2;
-                    float brickCentreY = brick.getY() * App.CELLSIZE + App.CELLSIZE / 2 + App.TOPBAR;
-
-                    float distance = (float) Math.sqrt(Math.pow(centreX - brickCentreX, 2) + Math.pow(centreY - brickCentreY, 2));
-
-                    if (distance <= radius + App.CELLSIZE / 2) {
-                        if (Math.abs(centreX - brickCentreX) > Math.abs(centreY - brickCentreY)) {
-                            vx *= -1;
-                        } else {
-                            vy *= -1;
-                        }
-
-                        String brickType = brick.getType();
-                        String ballType = this.colour;
-                        // Damage the brick if the colors match, or if the brick is grey (brick0)
-                        if (brickType.equals("wall0") || brickType.equals(ballType.replace("ball", "wall"))) {
-                            brick.hit();  // Reduce the brick's health and change its sprite
-                        }
-
-                        collisionBuffer = 2;  // Set collision buffer
-                        return;
-                    }
-                }
+     * @param grid      the cell-indexed walls and bricks of the level
+     * @param lineIndex the indexed segments of the player-drawn lines
+     * @param hitLines  receives every line the ball bounced off
+     */
+    public void move(TileGrid grid, SegmentIndex lineIndex, List<Line> hitLines) {
+        BallEvents events = new BallEvents();
+        store.move(index, grid, lineIndex, events);
+        hitLines.addAll(events.hitLines);
+        for (Brick brick : events.hitBricks) {
+            brick.hit();
+            if (brick.isDestroyed()) {
+                grid.removeBrick(brick);
             }
-        } else {
-            collisionBuffer--;
         }
     }
 
     /**
-     * Changes the color and sprite of the ball to the specified new color and sprite.
+     * Changes the color of the ball, and with it the sprite it is drawn with.
      *
      * @param newColour the new color for the ball
-     * @param newSprite the new sprite image for the ball
      */
-    public void changeColour(String newColour, PImage newSprite) {
-        this.colour = newColour;
-        this.sprite = newSprite;
-        this.colourNumber = Integer.parseInt(newColour.substring(4)); // Update the colourNumber with the new color
+    public void changeColour(String newColour) {
+        store.colour[index] = Colours.fromSpriteName(newColour); // Update the colourNumber with the new color
+    }
+
+    /**
+     * Gets the sprite atlas region the ball is drawn with, which follows its colour.
+     *
+     * @return the region id
+     */
+    public int getSpriteRegion() {
+        return SpriteAtlas.ball(store.colour[index]);
     }
 
     /**
-     * Draws the ball on the screen using the current sprite at the ball's position.
+     * Draws the ball on the screen using the sprite of its colour at the ball's position.
      *
      * @param app the App object used to render the ball
      */
     public void draw(App app) {
-        //checkCollisions();
-        app.image(sprite, x - radius , y - radius, 2 * radius, 2 * radius);
-        
+        int radius = store.radius[index];
+        app.getAtlas().draw(app.g, getSpriteRegion(), store.x[index] - radius, store.y[index] - radius,
+                2 * radius, 2 * radius);
     }
 
 }
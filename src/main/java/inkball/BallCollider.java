@@ -0,0 +1,104 @@
+package inkball;
+
+import java.util.Arrays;
+
+/**
+ * Bounces balls off each other with elastic collisions between equal masses. Candidate pairs
+ * are found by sort-and-sweep: balls are sorted by the left edge of their extent along x, and
+ * each ball is only tested against the following balls whose extent starts before its own ends.
+ * Pairs are resolved in that sorted order on a single thread, so the result is deterministic.
+ */
+public class BallCollider {
+
+    private long[] keys = new long[16];   // left edge and slot of each ball, packed so they sort together
+    private float[] minX = new float[16]; // left edge of each ball at the start of the pass, by slot
+
+    /**
+     * Resolves every pair of overlapping balls that are moving towards each other, exchanging
+     * their velocities along the line between their centres and pushing them apart. Balls
+     * marked for removal are skipped.
+     *
+     * @param balls the balls to collide
+     */
+    public void collide(BallStore balls) {
+        int n = balls.size();
+        if (keys.length < n) {
+            keys = new long[Math.max(n, keys.length * 2)];
+            minX = new float[keys.length];
+        }
+
+        //sort slots by left edge
+        for (int i = 0; i < n; i++) {
+            minX[i] = balls.x[i] - balls.radius[i];
+            keys[i] = ((long) sortableBits(minX[i]) << 32) | i;
+        }
+        Arrays.sort(keys, 0, n);
+
+        //sweep along x, testing only balls whose extents overlap on x
+        for (int a = 0; a < n; a++) {
+            int i = (int) keys[a];
+            if (balls.isMarkedRemoved(i)) {
+                continue;
+            }
+            float maxX = minX[i] + 2 * balls.radius[i];
+
+            for (int b = a + 1; b < n; b++) {
+                int j = (int) keys[b];
+                if (minX[j] > maxX) {
+                    break;
+                }
+                if (!balls.isMarkedRemoved(j)) {
+                    resolve(balls, i, j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Bounces two balls off each other if they overlap and are moving closer.
+     *
+     * @param balls the ball store
+     * @param i     the slot of the first ball
+     * @param j     the slot of the second ball
+     */
+    private static void resolve(BallStore balls, int i, int j) {
+        float dx = balls.x[j] - balls.x[i];
+        float dy = balls.y[j] - balls.y[i];
+        float reach = balls.radius[i] + balls.radius[j];
+        float dist2 = dx * dx + dy * dy;
+        if (dist2 >= reach * reach || dist2 == 0) {
+            return;
+        }
+
+        float dist = (float) Math.sqrt(dist2);
+        float nx = dx / dist;
+        float ny = dy / dist;
+
+        //equal masses swap their velocity along the normal
+        float closing = (balls.vx[j] - balls.vx[i]) * nx + (balls.vy[j] - balls.vy[i]) * ny;
+        if (closing < 0) {
+            balls.vx[i] += closing * nx;
+            balls.vy[i] += closing * ny;
+            balls.vx[j] -= closing * nx;
+            balls.vy[j] -= closing * ny;
+        }
+
+        //move both balls apart so they only just touch
+        float push = (reach - dist) / 2;
+        balls.x[i] -= push * nx;
+        balls.y[i] -= push * ny;
+        balls.x[j] += push * nx;
+        balls.y[j] += push * ny;
+    }
+
+    /**
+     * Converts a float to an int with the same ordering, so it can be sorted as an integer.
+     *
+     * @param value the float to convert
+     * @return an int that compares like the float
+     */
+    private static int sortableBits(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & 0x7fffffff);
+    }
+}
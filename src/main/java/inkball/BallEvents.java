@@ -0,0 +1,58 @@
+package inkball;
+
+import java.util.ArrayList;
+
+/**
+ * The side effects of one ball's move through a frame, recorded instead of applied so that many
+ * balls can move at once. Once every ball has moved, the events are applied in ball order.
+ * Each ball slot keeps its own events object, which is cleared and reused every frame.
+ */
+public class BallEvents {
+
+    public static final int NO_CAPTURE = 0;
+    public static final int CAPTURED = 1;      // entered a matching hole
+    public static final int WRONG_HOLE = -1;   // entered a hole of another colour
+
+    final ArrayList<Line> hitLines = new ArrayList<>();   // lines bounced off, in order
+    final ArrayList<Brick> hitBricks = new ArrayList<>(); // bricks damaged, in order
+    int capture = NO_CAPTURE;
+
+    final Contact contact = new Contact(); // reused for every collision query of the ball
+    final SegmentIndex.Scratch scratch = new SegmentIndex.Scratch();
+
+    /**
+     * Clears the events before the ball moves.
+     */
+    public void clear() {
+        hitLines.clear();
+        hitBricks.clear();
+        capture = NO_CAPTURE;
+    }
+
+    /**
+     * Gets the lines the ball bounced off.
+     *
+     * @return the lines hit, in the order they were hit
+     */
+    public ArrayList<Line> getHitLines() {
+        return hitLines;
+    }
+
+    /**
+     * Gets the bricks the ball damaged.
+     *
+     * @return the bricks hit, in the order they were hit
+     */
+    public ArrayList<Brick> getHitBricks() {
+        return hitBricks;
+    }
+
+    /**
+     * Gets the result of checking the ball against the holes.
+     *
+     * @return CAPTURED, WRONG_HOLE or NO_CAPTURE
+     */
+    public int getCapture() {
+        return capture;
+    }
+}
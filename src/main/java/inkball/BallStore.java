@@ -0,0 +1,569 @@
+package inkball;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * Stores the state of many balls in parallel primitive arrays, so the per-frame update and
+ * collision loops run over contiguous memory. Each stored ball is also reachable through a
+ * {@link Ball} view, which reads and writes its slot in the arrays.
+ */
+public class BallStore extends AbstractList<Ball> {
+
+    private static final float MAX_STEP = App.CELLSIZE / 4; // longest distance moved in one sub-step
+    private static final int MAX_CONTACTS = 4; // bounces resolved per sub-step
+
+    private int size = 0;
+    float[] x, y;       // centre position
+    float[] startX, startY; // centre position at the start of the current tick, for drawing between ticks
+    float[] vx, vy;     // velocity
+    int[] radius;
+    int[] colour;       // colour number, 0 for grey
+    private Ball[] views;
+    private boolean[] removed; // balls marked for removal at the end of the frame
+
+    /**
+     * Constructs an empty store with room for the given number of balls before growing.
+     *
+     * @param capacity the initial capacity
+     */
+    public BallStore(int capacity) {
+        capacity = Math.max(1, capacity);
+        x = new float[capacity];
+        y = new float[capacity];
+        startX = new float[capacity];
+        startY = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        radius = new int[capacity];
+        colour = new int[capacity];
+        views = new Ball[capacity];
+        removed = new boolean[capacity];
+    }
+
+    /**
+     * Constructs an empty store.
+     */
+    public BallStore() {
+        this(16);
+    }
+
+    // LIST VIEW
+
+    /**
+     * Gets the view of the ball stored at the given slot.
+     *
+     * @param index the slot of the ball
+     * @return the ball view
+     */
+    @Override
+    public Ball get(int index) {
+        checkIndex(index, size);
+        return views[index];
+    }
+
+    /**
+     * Gets the number of balls stored.
+     *
+     * @return the number of balls
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Inserts a ball at the given slot, copying its state into the arrays. The ball view is
+     * moved into this store and reads and writes its new slot from now on.
+     *
+     * @param index the slot to insert at
+     * @param ball  the ball to insert
+     */
+    @Override
+    public void add(int index, Ball ball) {
+        checkIndex(index, size + 1);
+        BallStore from = ball.getStore();
+        if (from == this) {
+            throw new IllegalArgumentException("Ball is already in this store");
+        }
+        int slot = ball.getIndex();
+        float bx = from.x[slot], by = from.y[slot], bvx = from.vx[slot], bvy = from.vy[slot];
+        int bradius = from.radius[slot], bcolour = from.colour[slot];
+
+        ensureCapacity(size + 1);
+        shift(index, index + 1, size - index);
+        size++;
+        modCount++;
+
+        x[index] = bx;
+        y[index] = by;
+        startX[index] = bx;
+        startY[index] = by;
+        vx[index] = bvx;
+        vy[index] = bvy;
+        radius[index] = bradius;
+        colour[index] = bcolour;
+        removed[index] = false;
+        views[index] = ball;
+        ball.attach(this, index);
+        reindex(index + 1);
+    }
+
+    /**
+     * Appends a new ball and creates its view.
+     *
+     * @param bx      the x-coordinate of the centre
+     * @param by      the y-coordinate of the centre
+     * @param bvx     the velocity in the x direction
+     * @param bvy     the velocity in the y direction
+     * @param bcolour the colour number
+     * @param view    the view to attach to the new slot
+     */
+    void append(float bx, float by, float bvx, float bvy, int bcolour, Ball view) {
+        ensureCapacity(size + 1);
+        int index = size++;
+        modCount++;
+
+        x[index] = bx;
+        y[index] = by;
+        startX[index] = bx;
+        startY[index] = by;
+        vx[index] = bvx;
+        vy[index] = bvy;
+        radius[index] = App.CELLSIZE / 2;
+        colour[index] = bcolour;
+        removed[index] = false;
+        views[index] = view;
+        view.attach(this, index);
+    }
+
+    /**
+     * Removes the ball at the given slot. The removed view keeps its last state in a store of its own.
+     *
+     * @param index the slot of the ball
+     * @return the removed ball
+     */
+    @Override
+    public Ball remove(int index) {
+        checkIndex(index, size);
+        Ball ball = views[index];
+        detach(index);
+
+        shift(index + 1, index, size - index - 1);
+        size--;
+        views[size] = null;
+        modCount++;
+        reindex(index);
+        return ball;
+    }
+
+    /**
+     * Removes all balls from the store.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            detach(i);
+        }
+        Arrays.fill(views, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    // FRAME UPDATE
+
+    /**
+     * Records where every ball is at the start of a tick, so a renderer can draw the balls
+     * part of the way between two ticks.
+     */
+    public void savePositions() {
+        System.arraycopy(x, 0, startX, 0, size);
+        System.arraycopy(y, 0, startY, 0, size);
+    }
+
+    /**
+     * Marks the ball at the given slot for removal at the end of the frame.
+     *
+     * @param index the slot of the ball
+     */
+    public void markRemoved(int index) {
+        removed[index] = true;
+    }
+
+    /**
+     * Checks whether the ball at the given slot is marked for removal.
+     *
+     * @param index the slot of the ball
+     * @return true if the ball will be removed at the end of the frame
+     */
+    public boolean isMarkedRemoved(int index) {
+        return removed[index];
+    }
+
+    /**
+     * Removes every ball marked for removal, keeping the remaining balls in order.
+     */
+    public void removeMarked() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (removed[i]) {
+                detach(i);
+                continue;
+            }
+            if (kept != i) {
+                x[kept] = x[i];
+                y[kept] = y[i];
+                startX[kept] = startX[i];
+                startY[kept] = startY[i];
+                vx[kept] = vx[i];
+                vy[kept] = vy[i];
+                radius[kept] = radius[i];
+                colour[kept] = colour[i];
+                views[kept] = views[i];
+                views[kept].attach(this, kept);
+            }
+            kept++;
+        }
+
+        if (kept != size) {
+            Arrays.fill(views, kept, size, null);
+            Arrays.fill(removed, 0, size, false);
+            size = kept;
+            modCount++;
+        }
+    }
+
+    /**
+     * Moves a ball through one frame, bouncing off the board edges, walls, bricks and lines it
+     * meets on the way. Collisions are found by their time of impact along the movement, which is
+     * split into sub-steps of at most a quarter cell, so fast balls cannot pass through thin
+     * obstacles.
+     * <p>
+     * Only the ball's own slot is written. Lines and bricks hit are recorded in the events, so
+     * different balls can move on different threads while the level stays unchanged.
+     *
+     * @param i         the slot of the ball
+     * @param grid      the cell-indexed walls and bricks of the level
+     * @param lineIndex the indexed segments of the player-drawn lines
+     * @param events    receives the lines and bricks hit, and holds the ball's query scratch
+     */
+    public void move(int i, TileGrid grid, SegmentIndex lineIndex, BallEvents events) {
+        Contact contact = events.contact;
+        float speed = (float) Math.sqrt(vx[i] * vx[i] + vy[i] * vy[i]);
+        int steps = Math.max(1, (int) Math.ceil(speed / MAX_STEP));
+
+        for (int step = 0; step < steps; step++) {
+            float left = 1f / steps; // share of the frame's movement still to travel in this sub-step
+
+            for (int bounce = 0; bounce < MAX_CONTACTS && left > 0; bounce++) {
+                float dx = vx[i] * left;
+                float dy = vy[i] * left;
+
+                //find the earliest obstacle along the movement
+                contact.reset();
+                findEdgeContact(i, dx, dy, grid, contact);
+                findTileContact(i, dx, dy, grid, contact);
+                lineIndex.sweep(x[i], y[i], dx, dy, radius[i], events.hitLines, contact, events.scratch);
+
+                if (!contact.hit()) {
+                    x[i] += dx;
+                    y[i] += dy;
+                    break;
+                }
+
+                //move up to the obstacle and bounce
+                x[i] += dx * contact.time;
+                y[i] += dy * contact.time;
+                left *= 1 - contact.time;
+                bounce(i, contact, events);
+            }
+        }
+    }
+
+    /**
+     * Finds when a ball reaches the edge of the board.
+     *
+     * @param i       the slot of the ball
+     * @param dx      the movement along x
+     * @param dy      the movement along y
+     * @param grid    the level, giving the edges of the board
+     * @param contact receives the edge if it is reached earlier than the contact already held
+     */
+    private void findEdgeContact(int i, float dx, float dy, TileGrid grid, Contact contact) {
+        int r = radius[i];
+        if (dx < 0) {
+            contact.offerEdge(edgeTime(x[i] - r, 0, dx), Contact.EDGE_X);
+        } else if (dx > 0) {
+            contact.offerEdge(edgeTime(grid.getRightEdge() - x[i] - r, 0, -dx), Contact.EDGE_X);
+        }
+        if (dy < 0) {
+            contact.offerEdge(edgeTime(y[i] - r, App.TOPBAR, dy), Contact.EDGE_Y);
+        } else if (dy > 0) {
+            contact.offerEdge(edgeTime(grid.getBottomEdge() - y[i] - r, 0, -dy), Contact.EDGE_Y);
+        }
+    }
+
+    /**
+     * Calculates when a ball moving towards an edge reaches it.
+     *
+     * @param gap   the distance from the edge of the ball to the origin of the axis, towards the edge
+     * @param edge  the position of the edge along the same axis
+     * @param delta the movement towards the edge, negative
+     * @return the time of impact between 0 and 1, or Sweep.NO_HIT
+     */
+    private static float edgeTime(float gap, float edge, float delta) {
+        float t = (gap - edge) / -delta;
+        if (t <= 0) {
+            return 0;
+        }
+        return t <= 1 ? t : Sweep.NO_HIT;
+    }
+
+    /**
+     * Finds the earliest wall or brick a ball touches along its movement, checking the cells
+     * covered by the movement. Walls are checked before bricks, each in row-major order.
+     *
+     * @param i       the slot of the ball
+     * @param dx      the movement along x
+     * @param dy      the movement along y
+     * @param grid    the cell-indexed walls and bricks of the level
+     * @param contact receives the tile if it is touched earlier than the contact already held
+     */
+    private void findTileContact(int i, float dx, float dy, TileGrid grid, Contact contact) {
+        float reach = radius[i] + App.CELLSIZE / 2;
+        int minCol = TileGrid.colAt(Math.min(x[i], x[i] + dx) - reach);
+        int maxCol = TileGrid.colAt(Math.max(x[i], x[i] + dx) + reach);
+        int minRow = TileGrid.rowAt(Math.min(y[i], y[i] + dy) - reach);
+        int maxRow = TileGrid.rowAt(Math.max(y[i], y[i] + dy) + reach);
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                Wall wall = grid.getWall(col, row);
+                if (wall != null) {
+                    contact.offerTile(sweepTile(i, dx, dy, col, row, reach), wall);
+                }
+            }
+        }
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                Brick brick = grid.getBrick(col, row);
+                if (brick != null) {
+                    contact.offerTile(sweepTile(i, dx, dy, col, row, reach), brick);
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates when a ball touches the tile in the given cell, treating the tile as a circle.
+     *
+     * @param i     the slot of the ball
+     * @param dx    the movement along x
+     * @param dy    the movement along y
+     * @param col   the column of the tile
+     * @param row   the row of the tile
+     * @param reach the ball radius plus half a cell
+     * @return the time of impact between 0 and 1, or Sweep.NO_HIT
+     */
+    private float sweepTile(int i, float dx, float dy, int col, int row, float reach) {
+        float tileCentreX = col * App.CELLSIZE + App.CELLSIZE / 2;
+        float tileCentreY = row * App.CELLSIZE + App.CELLSIZE / 2 + App.TOPBAR;
+        return Sweep.circle(x[i], y[i], dx, dy, tileCentreX, tileCentreY, reach);
+    }
+
+    /**
+     * Changes a ball's velocity after touching an obstacle, and applies the side effects of the
+     * hit: coloured walls recolour the ball, while damaged bricks and touched lines are recorded.
+     *
+     * @param i       the slot of the ball
+     * @param contact the obstacle touched
+     * @param events  receives the brick or line touched
+     */
+    private void bounce(int i, Contact contact, BallEvents events) {
+        if (contact.kind == Contact.EDGE_X) {
+            vx[i] *= -1;
+        } else if (contact.kind == Contact.EDGE_Y) {
+            vy[i] *= -1;
+        } else if (contact.kind == Contact.TILE) {
+            bounceOffTile(i, contact.tile);
+            if (contact.tile instanceof Brick) {
+                hitBrick(i, (Brick) contact.tile, events);
+            } else {
+                recolourFromWall(i, contact.tile);
+            }
+        } else if (contact.kind == Contact.LINE) {
+            bounceOffLine(i, contact.line, contact.segment);
+            events.hitLines.add(contact.line);
+        }
+    }
+
+    /**
+     * Reverses a ball's velocity along the dominant axis between the ball and the tile centre.
+     * If the ball would still be moving into the tile, the other axis is reversed as well.
+     *
+     * @param i    the slot of the ball
+     * @param tile the wall or brick touched
+     */
+    private void bounceOffTile(int i, Wall tile) {
+        float dx = x[i] - (tile.getX() * App.CELLSIZE + App.CELLSIZE / 2);
+        float dy = y[i] - (tile.getY() * App.CELLSIZE + App.CELLSIZE / 2 + App.TOPBAR);
+
+        if (Math.abs(dx) > Math.abs(dy)) {
+            vx[i] *= -1;
+        } else {
+            vy[i] *= -1;
+        }
+
+        if (dx * vx[i] + dy * vy[i] < 0) {
+            if (Math.abs(dx) > Math.abs(dy)) {
+                vy[i] *= -1;
+            } else {
+                vx[i] *= -1;
+            }
+        }
+    }
+
+    /**
+     * Reflects a ball's velocity off a line segment using v - 2 (v . n) n, where n is the unit
+     * normal cached when the line was finished, turned to the side of the segment the ball is on.
+     * A ball already moving away from that side, as it can be when it touches an end of the
+     * segment, keeps its velocity.
+     *
+     * @param i       the slot of the ball
+     * @param line    the line touched
+     * @param segment the index of the segment touched
+     */
+    private void bounceOffLine(int i, Line line, int segment) {
+        float nx = line.normalX(segment);
+        float ny = line.normalY(segment);
+        if (nx == 0 && ny == 0) {
+            //a segment of zero length has no normal, send the ball back the way it came
+            vx[i] *= -1;
+            vy[i] *= -1;
+            return;
+        }
+        if ((x[i] - line.pointX(segment)) * nx + (y[i] - line.pointY(segment)) * ny < 0) {
+            nx = -nx;
+            ny = -ny;
+        }
+
+        float vn = vx[i] * nx + vy[i] * ny;
+        if (vn < 0) {
+            vx[i] -= 2 * vn * nx;
+            vy[i] -= 2 * vn * ny;
+        }
+    }
+
+    /**
+     * Changes a ball to the colour of a coloured wall it touched. Grey walls leave the ball unchanged.
+     *
+     * @param i    the slot of the ball
+     * @param wall the wall touched
+     */
+    private void recolourFromWall(int i, Wall wall) {
+
+        // If the colors are different, change the ball's color to match the wall
+        int wallColour = wall.getColour();
+        if (wallColour != Colours.GREY && wallColour != colour[i]) {
+            colour[i] = wallColour;
+        }
+    }
+
+    /**
+     * Records a brick touched by a ball as damaged if the colours match or the brick is grey.
+     *
+     * @param i      the slot of the ball
+     * @param brick  the brick touched
+     * @param events receives the brick if it is damaged
+     */
+    private void hitBrick(int i, Brick brick, BallEvents events) {
+
+        // Damage the brick if the colors match, or if the brick is grey (brick0)
+        int brickColour = brick.getColour();
+        if (brickColour == Colours.GREY || brickColour == colour[i]) {
+            events.hitBricks.add(brick);
+        }
+    }
+
+    // STORAGE
+
+    /**
+     * Moves a ball's state out of this store into a store of its own, so a removed view stays usable.
+     *
+     * @param index the slot of the ball
+     */
+    private void detach(int index) {
+        Ball ball = views[index];
+        BallStore own = new BallStore(1);
+        own.append(x[index], y[index], vx[index], vy[index], colour[index], ball);
+        own.radius[0] = radius[index];
+    }
+
+    /**
+     * Updates the slot stored in each view from the given slot onwards.
+     *
+     * @param from the first slot to update
+     */
+    private void reindex(int from) {
+        for (int i = from; i < size; i++) {
+            views[i].attach(this, i);
+        }
+    }
+
+    /**
+     * Copies a range of slots within every array.
+     *
+     * @param from   the first slot to copy from
+     * @param to     the first slot to copy to
+     * @param length the number of slots to copy
+     */
+    private void shift(int from, int to, int length) {
+        if (length <= 0) {
+            return;
+        }
+        System.arraycopy(x, from, x, to, length);
+        System.arraycopy(y, from, y, to, length);
+        System.arraycopy(startX, from, startX, to, length);
+        System.arraycopy(startY, from, startY, to, length);
+        System.arraycopy(vx, from, vx, to, length);
+        System.arraycopy(vy, from, vy, to, length);
+        System.arraycopy(radius, from, radius, to, length);
+        System.arraycopy(colour, from, colour, to, length);
+        System.arraycopy(views, from, views, to, length);
+        System.arraycopy(removed, from, removed, to, length);
+    }
+
+    /**
+     * Grows every array so it can hold at least the given number of balls.
+     *
+     * @param capacity the number of balls required
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= x.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, x.length * 2);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        startX = Arrays.copyOf(startX, newCapacity);
+        startY = Arrays.copyOf(startY, newCapacity);
+        vx = Arrays.copyOf(vx, newCapacity);
+        vy = Arrays.copyOf(vy, newCapacity);
+        radius = Arrays.copyOf(radius, newCapacity);
+        colour = Arrays.copyOf(colour, newCapacity);
+        views = Arrays.copyOf(views, newCapacity);
+        removed = Arrays.copyOf(removed, newCapacity);
+    }
+
+    /**
+     * Checks that a slot index is within bounds.
+     *
+     * @param index the slot index
+     * @param limit the exclusive upper bound
+     */
+    private static void checkIndex(int index, int limit) {
+        if (index < 0 || index >= limit) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + limit);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package inkball;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Moves every ball through a frame and checks it against the holes, recording the side effects
+ * of each ball in its own {@link BallEvents} instead of applying them. Moving a ball only reads
+ * the level and writes the ball's own slot, so the balls can be split across a fork/join pool.
+ * The caller then applies the recorded events in ball order, which gives the same result
+ * whether the balls were moved on one thread or many.
+ */
+public class BallUpdater {
+
+    private static final int THRESHOLD = 64; // balls moved by one task before it stops splitting
+
+    private final ArrayList<BallEvents> events = new ArrayList<>(); // one per ball slot, reused
+    private final ForkJoinPool pool;
+    private boolean parallel = false;
+
+    /**
+     * Constructs an updater that runs parallel updates on the common pool.
+     */
+    public BallUpdater() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs an updater that runs parallel updates on the given pool.
+     *
+     * @param pool the pool to run parallel updates on
+     */
+    public BallUpdater(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sets whether balls are moved in parallel. Small ball counts are always moved on the calling thread.
+     *
+     * @param parallel true to split large ball counts across the pool
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Checks whether balls are moved in parallel.
+     *
+     * @return true if large ball counts are split across the pool
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Moves every ball through one frame and checks it against the holes. Nothing but the balls
+     * themselves is changed; the lines, bricks and captures are left in the events of each slot.
+     *
+     * @param balls     the balls to move
+     * @param grid      the cell-indexed walls and bricks of the level
+     * @param lineIndex the indexed segments of the player-drawn lines
+     */
+    public void update(BallStore balls, TileGrid grid, SegmentIndex lineIndex) {
+        while (events.size() < balls.size()) {
+            events.add(new BallEvents());
+        }
+
+        Frame frame = new Frame(balls, grid, lineIndex);
+        if (parallel && balls.size() > THRESHOLD) {
+            pool.invoke(new MoveTask(frame, 0, balls.size()));
+        } else {
+            frame.move(0, balls.size());
+        }
+    }
+
+    /**
+     * Gets the events recorded for a ball slot in the last update.
+     *
+     * @param index the slot of the ball
+     * @return the events of the ball
+     */
+    public BallEvents getEvents(int index) {
+        return events.get(index);
+    }
+
+    /**
+     * The read-only inputs of one update, shared by every task.
+     */
+    private class Frame {
+        final BallStore balls;
+        final TileGrid grid;
+        final SegmentIndex lineIndex;
+
+        Frame(BallStore balls, TileGrid grid, SegmentIndex lineIndex) {
+            this.balls = balls;
+            this.grid = grid;
+            this.lineIndex = lineIndex;
+        }
+
+        /**
+         * Moves a range of balls and checks them against the holes.
+         *
+         * @param from the first slot, inclusive
+         * @param to   the last slot, exclusive
+         */
+        void move(int from, int to) {
+            for (int i = from; i < to; i++) {
+                BallEvents ballEvents = events.get(i);
+                ballEvents.clear();
+                balls.move(i, grid, lineIndex, ballEvents);
+                ballEvents.capture = checkHoles(balls.get(i));
+            }
+        }
+
+        /**
+         * Pulls a ball towards the holes in reach of its cell and checks whether one captures it.
+         * Holes out of reach leave a ball untouched, so only the holes listed for the cell are checked.
+         * <p>
+         * The original game reset the ball to full size only if no hole reported on it, but every
+         * hole reports on a ball it does not capture, so the reset only happens on levels without holes.
+         *
+         * @param ball the ball to check
+         * @return CAPTURED, WRONG_HOLE or NO_CAPTURE
+         */
+        private int checkHoles(Ball ball) {
+            Hole[] near = grid.getHolesNear(TileGrid.colAt(ball.getX()), TileGrid.rowAt(ball.getY()));
+
+            for (int h = 0; h < near.length; h++) {
+                int status = near[h].checkBallCapture(ball);
+
+                if (status == 1) {
+                    return BallEvents.CAPTURED;
+                } else if (status == -1) {
+                    return BallEvents.WRONG_HOLE;
+                }
+            }
+
+            if (grid.getHoleCount() == 0) {
+                ball.setRadius(App.CELLSIZE / 2);
+            }
+            return BallEvents.NO_CAPTURE;
+        }
+    }
+
+    /**
+     * Splits a range of balls in half until it is small enough to move directly.
+     */
+    private static class MoveTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Frame frame;
+        private final int from;
+        private final int to;
+
+        MoveTask(Frame frame, int from, int to) {
+            this.frame = frame;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                frame.move(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new MoveTask(frame, from, mid), new MoveTask(frame, mid, to));
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package inkball;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs many seeded games of every level without a window and reports how the levels play:
+ * capture and wrong-hole rates, the score distribution, time to clear and the throughput of
+ * the runner itself. The config and layouts are loaded once and shared by every game.
+ * <p>
+ * Usage: {@code BatchRunner [--config config.json] [--games 200] [--threads cores]
+ * [--policy idle|random] [--seed 1] [--max-seconds 600] [--parallel-balls true|false] [--out stats.txt]}
+ * <p>
+ * Balls are moved in parallel within each game when the config sets "parallel_ball_update" or
+ * {@code --parallel-balls true} is given, which pays off on levels with large ball counts.
+ */
+public class BatchRunner {
+
+    private final GameConfig config; // read once, shared by every game
+    private boolean parallelBalls;   // whether each game moves its balls across the fork/join pool
+
+    /**
+     * The outcome of a single game of one level.
+     */
+    public static class GameResult {
+        public final int level;
+        public final long seed;
+        public final boolean cleared;
+        public final int frames;   // frames simulated until the level was cleared or lost
+        public final int score;    // including the bonus for time remaining when cleared
+        public final int captured;
+        public final int wrongHole;
+
+        GameResult(int level, long seed, boolean cleared, int frames, int score, int captured, int wrongHole) {
+            this.level = level;
+            this.seed = seed;
+            this.cleared = cleared;
+            this.frames = frames;
+            this.score = score;
+            this.captured = captured;
+            this.wrongHole = wrongHole;
+        }
+    }
+
+    /**
+     * Constructs a runner for the levels in a config file, reading every layout once.
+     *
+     * @param configFile the config.json file, layouts are resolved relative to its directory
+     */
+    public BatchRunner(File configFile) {
+        this.config = GameConfig.load(configFile);
+        this.parallelBalls = config.isParallelBallUpdate();
+    }
+
+    /**
+     * Sets whether each game moves its balls in parallel, overriding the config.
+     *
+     * @param parallel true to move large ball counts across the fork/join pool
+     */
+    public void setParallelBalls(boolean parallel) {
+        this.parallelBalls = parallel;
+    }
+
+    /**
+     * Gets the number of levels in the config.
+     *
+     * @return the number of levels
+     */
+    public int getLevelCount() {
+        return config.getLevelCount();
+    }
+
+    /**
+     * Plays a single level to the end.
+     *
+     * @param level     the index of the level
+     * @param seed      the seed for the game and the player
+     * @param policy    the player
+     * @param maxFrames the frame limit for levels that would otherwise never end
+     * @return the outcome of the game
+     */
+    public GameResult play(int level, long seed, InputPolicy policy, int maxFrames) {
+        GameState state = new GameState(config, new Random(seed));
+        state.setParallelUpdate(parallelBalls);
+        state.startLevel(level);
+        Random input = new Random(~seed);
+
+        boolean cleared = false;
+        while (state.getFrameCount() < maxFrames) {
+            policy.act(state, input);
+            state.tick();
+
+            //the tally starts as soon as the level is cleared
+            if (state.isIncrementingScore() || state.isGameFinished()) {
+                cleared = true;
+                break;
+            }
+            if (state.isTimeUp()) {
+                break;
+            }
+        }
+
+        int score = state.getScore() + (cleared ? state.getTimeRemaining() : 0);
+        return new GameResult(level, seed, cleared, state.getFrameCount(), score,
+                state.getCapturedCount(), state.getWrongHoleCount());
+    }
+
+    /**
+     * Plays the given number of games of every level across a thread pool. Game i of level l
+     * uses the seed {@code baseSeed + l * games + i}, so the results do not depend on the number
+     * of threads.
+     *
+     * @param games     the number of games per level
+     * @param threads   the number of threads
+     * @param policies  creates a player for each game
+     * @param baseSeed  the seed of the first game
+     * @param maxFrames the frame limit of each game
+     * @return the results of each level, in game order
+     */
+    public List<List<GameResult>> run(int games, int threads, Supplier<InputPolicy> policies, long baseSeed, int maxFrames) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<List<Future<GameResult>>> futures = new ArrayList<>();
+            for (int level = 0; level < getLevelCount(); level++) {
+                List<Future<GameResult>> levelFutures = new ArrayList<>();
+                for (int i = 0; i < games; i++) {
+                    int lvl = level;
+                    long seed = baseSeed + (long) level * games + i;
+                    levelFutures.add(pool.submit(() -> play(lvl, seed, policies.get(), maxFrames)));
+                }
+                futures.add(levelFutures);
+            }
+
+            List<List<GameResult>> results = new ArrayList<>();
+            for (List<Future<GameResult>> levelFutures : futures) {
+                List<GameResult> levelResults = new ArrayList<>();
+                for (Future<GameResult> future : levelFutures) {
+                    levelResults.add(future.get());
+                }
+                results.add(levelResults);
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch run interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Game failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes the statistics of one level.
+     *
+     * @param out     the stream to write to
+     * @param level   the index of the level
+     * @param results the results of every game of the level
+     */
+    public static void report(PrintStream out, int level, List<GameResult> results) {
+        int clearedGames = 0;
+        long captured = 0;
+        long wrongHole = 0;
+        int[] scores = new int[results.size()];
+        ArrayList<Float> clearTimes = new ArrayList<>();
+
+        for (int i = 0; i < results.size(); i++) {
+            GameResult result = results.get(i);
+            captured += result.captured;
+            wrongHole += result.wrongHole;
+            scores[i] = result.score;
+            if (result.cleared) {
+                clearedGames++;
+                clearTimes.add((float) result.frames / App.FPS);
+            }
+        }
+        Arrays.sort(scores);
+        long entered = captured + wrongHole;
+
+        out.printf("level %d: %d games, %.1f%% cleared%n", level + 1, results.size(), percent(clearedGames, results.size()));
+        if (results.isEmpty()) {
+            return;
+        }
+        out.printf("  capture rate     %.1f%% (%d of %d balls entering a hole)%n", percent(captured, entered), captured, entered);
+        out.printf("  wrong-hole rate  %.1f%%%n", percent(wrongHole, entered));
+        out.printf("  score            min %d  p10 %d  median %d  p90 %d  max %d  mean %.1f%n",
+                scores[0], percentile(scores, 10), percentile(scores, 50), percentile(scores, 90),
+                scores[scores.length - 1], Arrays.stream(scores).average().orElse(0));
+        if (clearTimes.isEmpty()) {
+            out.println("  time to clear    never cleared");
+        } else {
+            clearTimes.sort(null);
+            double mean = clearTimes.stream().mapToDouble(Float::doubleValue).average().orElse(0);
+            out.printf("  time to clear    median %.1fs  mean %.1fs  best %.1fs%n",
+                    clearTimes.get(clearTimes.size() / 2), mean, clearTimes.get(0));
+        }
+    }
+
+    /**
+     * Calculates a percentage, treating an empty total as zero.
+     *
+     * @param part  the part
+     * @param total the total
+     * @return the part as a percentage of the total
+     */
+    private static double percent(long part, long total) {
+        return total == 0 ? 0 : 100.0 * part / total;
+    }
+
+    /**
+     * Picks the nearest-rank percentile of sorted values.
+     *
+     * @param sorted the values in ascending order, not empty
+     * @param p      the percentile between 0 and 100
+     * @return the value at the percentile
+     */
+    static int percentile(int[] sorted, int p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    /**
+     * Creates the players named on the command line.
+     *
+     * @param name idle or random
+     * @return a supplier creating a player for each game
+     */
+    static Supplier<InputPolicy> policyNamed(String name) {
+        if (name.equals("idle")) {
+            return () -> (state, random) -> { };
+        } else if (name.equals("random")) {
+            return () -> new RandomStrokePolicy(2 * App.FPS);
+        }
+        throw new IllegalArgumentException("Unknown policy: " + name);
+    }
+
+    /**
+     * Runs the batch described by the command line arguments and prints the statistics.
+     *
+     * @param args the command line arguments
+     * @throws FileNotFoundException if the output file cannot be created
+     */
+    public static void main(String[] args) throws FileNotFoundException {
+        String configPath = "config.json";
+        int games = 200;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String policy = "idle";
+        long seed = 1;
+        int maxSeconds = 600;
+        String outPath = null;
+        Boolean parallelBalls = null; // as the config says unless given
+
+        if (args.length % 2 != 0) {
+            throw new IllegalArgumentException("Missing value for option: " + args[args.length - 1]);
+        }
+        for (int i = 0; i < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--config": configPath = value; break;
+                case "--games": games = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--policy": policy = value; break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--max-seconds": maxSeconds = Integer.parseInt(value); break;
+                case "--parallel-balls": parallelBalls = Boolean.parseBoolean(value); break;
+                case "--out": outPath = value; break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        BatchRunner runner = new BatchRunner(new File(configPath));
+        if (parallelBalls != null) {
+            runner.setParallelBalls(parallelBalls);
+        }
+        long start = System.nanoTime();
+        List<List<GameResult>> results = runner.run(games, threads, policyNamed(policy), seed, maxSeconds * App.FPS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        PrintStream out = outPath == null ? System.out : new PrintStream(new File(outPath));
+        int total = 0;
+        for (int level = 0; level < results.size(); level++) {
+            report(out, level, results.get(level));
+            total += results.get(level).size();
+        }
+        //threads beyond the machine's cores share them, so only the cores in use divide the rate
+        int cores = Math.min(threads, Runtime.getRuntime().availableProcessors());
+        out.printf("throughput: %.1f games/s/core (%d games in %.2fs on %d threads and %d cores, policy %s)%n",
+                total / seconds / cores, total, seconds, threads, cores, policy);
+        if (out != System.out) {
+            out.close();
+        }
+    }
+}
@@ -1,30 +1,37 @@
 package inkball;
 
-import processing.core.PImage;
+import processing.core.PGraphics;
 
 public class Brick extends Wall {
 
     //private int x, y;
     //private String type;
     //private PImage sprite;
-    private PImage crackedSprite; //cracked sprite
     private int hitCount; //track number of hits
     private final int maxHits = 3;
     private boolean destroyed;
 
     /**
-     * Constructs a Brick object with the specified position, type, sprite, and cracked sprite.
+     * Constructs a Brick object with the specified position and type.
      * Tracks the number of hits and determines when the brick is destroyed.
      *
-     * @param x            the x-coordinate of the brick on the grid
-     * @param y            the y-coordinate of the brick on the grid
-     * @param type         the type of the brick, which represents the brick's characteristics (e.g., color)
-     * @param sprite       the PImage object representing the brick's sprite
-     * @param crackedSprite the PImage object representing the cracked version of the brick's sprite
+     * @param x    the x-coordinate of the brick on the grid
+     * @param y    the y-coordinate of the brick on the grid
+     * @param type the type of the brick, which represents the brick's characteristics (e.g., color)
      */
-    public Brick(int x, int y, String type, PImage sprite, PImage crackedSprite) {
-        super(x, y, type, sprite);
-        this.crackedSprite = crackedSprite;
+    public Brick(int x, int y, String type) {
+        this(x, y, Colours.fromSpriteName(type));
+    }
+
+    /**
+     * Constructs a Brick object with the specified position and colour id.
+     *
+     * @param x      the x-coordinate of the brick on the grid
+     * @param y      the y-coordinate of the brick on the grid
+     * @param colour the colour id of the brick
+     */
+    public Brick(int x, int y, int colour) {
+        super(x, y, colour);
         this.hitCount = 0;
         this.destroyed = false;
     }
@@ -50,11 +57,26 @@ public class Brick extends Wall {
     /**
      * Draws the brick on the screen at its specified position if it has not been destroyed.
      *
-     * @param app the App object used to render the brick
+     * @param g     the graphics to draw on, in window coordinates
+     * @param atlas the sprite atlas to draw from
      */
-    public void draw(App app) {
-        if (!destroyed) {
-            app.image(getSprite(), getX() * App.CELLSIZE, getY() * App.CELLSIZE + App.TOPBAR, App.CELLSIZE, App.CELLSIZE);
+    @Override
+    public void draw(PGraphics g, SpriteAtlas atlas) {
+        draw(g, atlas, hitCount);
+    }
+
+    /**
+     * Draws the brick as it looked after the given number of hits, which may lag behind the
+     * brick itself when drawing a snapshot of the game.
+     *
+     * @param g        the graphics to draw on, in window coordinates
+     * @param atlas    the sprite atlas to draw from
+     * @param hitCount the number of hits to draw the brick with
+     */
+    public void draw(PGraphics g, SpriteAtlas atlas, int hitCount) {
+        if (hitCount < maxHits) {
+            int region = hitCount > 0 ? SpriteAtlas.cracked(getColour()) : super.getSpriteRegion();
+            atlas.draw(g, region, getX() * App.CELLSIZE, getY() * App.CELLSIZE + App.TOPBAR, App.CELLSIZE, App.CELLSIZE);
         }
     }
 
@@ -71,8 +93,16 @@ public class Brick extends Wall {
         hitCount++;
         if (hitCount >= maxHits) {
             destroyed = true;
-        } else {
-            setSprite(crackedSprite);
         }
     }
+
+    /**
+     * Gets the sprite atlas region the brick is drawn with, cracked once it has been hit.
+     *
+     * @return the region id
+     */
+    @Override
+    public int getSpriteRegion() {
+        return hitCount > 0 ? SpriteAtlas.cracked(getColour()) : super.getSpriteRegion();
+    }
 }
@@ -0,0 +1,179 @@
+package inkball;
+
+/**
+ * The part of the board shown below the top bar. Levels larger than the window are scrolled by
+ * moving the camera; everything on the board keeps its board coordinates, and is drawn shifted
+ * by the camera position. Levels that fit in the window leave the camera at the origin.
+ * <p>
+ * Cached layers of the board cover the cells in view plus one more row and column, starting at
+ * the layer origin cell. They only have to be rendered again once the camera moves to a new
+ * origin cell, so scrolling by a few pixels costs nothing but the blit.
+ */
+public class Camera {
+
+    private final int viewWidth;   // width of the board area of the window
+    private final int viewHeight;  // height of the board area of the window
+    private int boardWidth;
+    private int boardHeight;
+    private int x = 0;             // board x shown at the left of the view
+    private int y = 0;             // board y shown at the top of the view, not counting the top bar
+
+    /**
+     * Constructs a camera over an empty board.
+     *
+     * @param viewWidth  the width of the view in pixels
+     * @param viewHeight the height of the view in pixels
+     */
+    public Camera(int viewWidth, int viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+
+    /**
+     * Sets the size of the board shown, moving the camera back to the top-left corner.
+     *
+     * @param cols the number of columns of the level
+     * @param rows the number of rows of the level
+     */
+    public void setBoard(int cols, int rows) {
+        boardWidth = cols * App.CELLSIZE;
+        boardHeight = rows * App.CELLSIZE;
+        x = 0;
+        y = 0;
+    }
+
+    /**
+     * Moves the camera, keeping the view inside the board.
+     *
+     * @param dx the distance to move right, in pixels
+     * @param dy the distance to move down, in pixels
+     */
+    public void scroll(int dx, int dy) {
+        x = Math.max(0, Math.min(x + dx, boardWidth - viewWidth));
+        y = Math.max(0, Math.min(y + dy, boardHeight - viewHeight));
+    }
+
+    /**
+     * Gets the horizontal scroll, subtracted from board x-coordinates to draw them.
+     *
+     * @return the scroll in pixels
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Gets the vertical scroll, subtracted from board y-coordinates to draw them.
+     *
+     * @return the scroll in pixels
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Gets the width of the view.
+     *
+     * @return the width in pixels
+     */
+    public int getViewWidth() {
+        return viewWidth;
+    }
+
+    /**
+     * Gets the height of the view.
+     *
+     * @return the height in pixels
+     */
+    public int getViewHeight() {
+        return viewHeight;
+    }
+
+    /**
+     * Checks whether a box in board coordinates overlaps the view.
+     *
+     * @param minX the left of the box
+     * @param minY the top of the box
+     * @param maxX the right of the box
+     * @param maxY the bottom of the box
+     * @return true if any of the box is in view
+     */
+    public boolean isVisible(float minX, float minY, float maxX, float maxY) {
+        return maxX >= getViewLeft() && minX <= getViewRight() && maxY >= getViewTop() && minY <= getViewBottom();
+    }
+
+    /**
+     * Gets the board x-coordinate at the left of the view.
+     *
+     * @return the left of the view
+     */
+    public int getViewLeft() {
+        return x;
+    }
+
+    /**
+     * Gets the board y-coordinate at the top of the view.
+     *
+     * @return the top of the view
+     */
+    public int getViewTop() {
+        return y + App.TOPBAR;
+    }
+
+    /**
+     * Gets the board x-coordinate at the right of the view.
+     *
+     * @return the right of the view
+     */
+    public int getViewRight() {
+        return x + viewWidth;
+    }
+
+    /**
+     * Gets the board y-coordinate at the bottom of the view.
+     *
+     * @return the bottom of the view
+     */
+    public int getViewBottom() {
+        return y + App.TOPBAR + viewHeight;
+    }
+
+    // LAYERS
+
+    /**
+     * Gets the first column covered by a cached layer.
+     *
+     * @return the column of the layer origin
+     */
+    public int getLayerCol() {
+        return x / App.CELLSIZE;
+    }
+
+    /**
+     * Gets the first row covered by a cached layer.
+     *
+     * @return the row of the layer origin
+     */
+    public int getLayerRow() {
+        return y / App.CELLSIZE;
+    }
+
+    /**
+     * Gets the width of a cached layer: the columns in view plus one, so the view stays covered
+     * while it scrolls within the origin cell.
+     *
+     * @return the width in pixels
+     */
+    public int getLayerWidth() {
+        return ((viewWidth + App.CELLSIZE - 1) / App.CELLSIZE + 1) * App.CELLSIZE;
+    }
+
+    /**
+     * Gets the height of a cached layer: the rows in view plus one.
+     *
+     * @return the height in pixels
+     */
+    public int getLayerHeight() {
+        return ((viewHeight + App.CELLSIZE - 1) / App.CELLSIZE + 1) * App.CELLSIZE;
+    }
+}
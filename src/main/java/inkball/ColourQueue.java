@@ -0,0 +1,112 @@
+package inkball;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A first-in first-out queue of colour ids stored in a growable ring buffer, used for the balls
+ * waiting to be spawned.
+ */
+public class ColourQueue {
+
+    private int[] colours = new int[16];
+    private int head = 0; // slot of the first colour
+    private int size = 0;
+
+    /**
+     * Adds a colour to the back of the queue.
+     *
+     * @param colour the colour id
+     */
+    public void add(int colour) {
+        if (size == colours.length) {
+            int[] larger = new int[colours.length * 2];
+            for (int i = 0; i < size; i++) {
+                larger[i] = get(i);
+            }
+            colours = larger;
+            head = 0;
+        }
+        colours[(head + size) % colours.length] = colour;
+        size++;
+    }
+
+    /**
+     * Removes the colour at the front of the queue.
+     *
+     * @return the colour id
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("Colour queue is empty");
+        }
+        int colour = colours[head];
+        head = (head + 1) % colours.length;
+        size--;
+        return colour;
+    }
+
+    /**
+     * Gets a colour without removing it.
+     *
+     * @param index the position in the queue, 0 for the front
+     * @return the colour id
+     * @throws IndexOutOfBoundsException if the index is outside the queue
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return colours[(head + index) % colours.length];
+    }
+
+    /**
+     * Gets the number of colours in the queue.
+     *
+     * @return the size of the queue
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the queue is empty.
+     *
+     * @return true if there are no colours in the queue
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every colour from the queue.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Copies the colours in queue order.
+     *
+     * @return the colour ids from front to back
+     */
+    public int[] toArray() {
+        int[] copy = new int[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * Describes the queue for debugging.
+     *
+     * @return the colour ids from front to back
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
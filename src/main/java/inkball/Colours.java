@@ -0,0 +1,67 @@
+package inkball;
+
+/**
+ * The colour ids shared by balls, holes, walls, bricks and the spawn queue. A colour is its
+ * number in the sprite names, so "ball2", "hole2" and "wall2" are all blue, and per-colour
+ * values are kept in arrays indexed by colour.
+ */
+public final class Colours {
+
+    public static final int GREY = 0;
+    public static final int ORANGE = 1;
+    public static final int BLUE = 2;
+    public static final int GREEN = 3;
+    public static final int YELLOW = 4;
+    public static final int COUNT = 5;
+
+    private static final String[] NAMES = {"grey", "orange", "blue", "green", "yellow"};
+
+    private Colours() {
+    }
+
+    /**
+     * Converts a colour name from the config to its colour id. Unknown names are grey.
+     *
+     * @param name the colour name, in any case
+     * @return the colour id
+     */
+    public static int fromName(String name) {
+        for (int colour = 0; colour < COUNT; colour++) {
+            if (NAMES[colour].equalsIgnoreCase(name)) {
+                return colour;
+            }
+        }
+        return GREY;
+    }
+
+    /**
+     * Converts a colour id to its name in the config. Unknown ids are grey.
+     *
+     * @param colour the colour id
+     * @return the colour name
+     */
+    public static String name(int colour) {
+        return colour >= 0 && colour < COUNT ? NAMES[colour] : NAMES[GREY];
+    }
+
+    /**
+     * Reads the colour id at the end of a sprite name such as "ball3" or "wall1".
+     *
+     * @param spriteName the sprite name
+     * @return the colour id, grey if the name does not end in a colour
+     */
+    public static int fromSpriteName(String spriteName) {
+        return fromDigit(spriteName.charAt(spriteName.length() - 1));
+    }
+
+    /**
+     * Reads a colour id from a digit, such as the character after a ball or hole in a level layout.
+     *
+     * @param digit the digit
+     * @return the colour id, grey if the character is not a colour
+     */
+    public static int fromDigit(char digit) {
+        int colour = Character.getNumericValue(digit);
+        return colour >= 0 && colour < COUNT ? colour : GREY;
+    }
+}
@@ -0,0 +1,90 @@
+package inkball;
+
+/**
+ * The earliest obstacle found along a ball's movement. One contact is reused for every query
+ * a ball makes, so searching for collisions allocates nothing.
+ */
+public class Contact {
+
+    public static final int NONE = 0;
+    public static final int EDGE_X = 1; // left or right edge of the board
+    public static final int EDGE_Y = 2; // top or bottom edge of the board
+    public static final int TILE = 3;   // a wall or brick
+    public static final int LINE = 4;   // a segment of a player-drawn line
+
+    public int kind;
+    public float time;
+    public Wall tile;
+    public Line line;
+    public int segment;
+
+    /**
+     * Constructs an empty contact.
+     */
+    public Contact() {
+        reset();
+    }
+
+    /**
+     * Clears the contact before a new search.
+     */
+    public void reset() {
+        kind = NONE;
+        time = Sweep.NO_HIT;
+        tile = null;
+        line = null;
+        segment = -1;
+    }
+
+    /**
+     * Checks whether an obstacle has been found.
+     *
+     * @return true if the contact holds an obstacle
+     */
+    public boolean hit() {
+        return kind != NONE;
+    }
+
+    /**
+     * Records a wall or brick if it is hit earlier than the current contact.
+     *
+     * @param t    the time of impact
+     * @param wall the wall or brick hit
+     */
+    public void offerTile(float t, Wall wall) {
+        if (t < time) {
+            kind = TILE;
+            time = t;
+            tile = wall;
+        }
+    }
+
+    /**
+     * Records a line segment if it is hit earlier than the current contact.
+     *
+     * @param t       the time of impact
+     * @param hitLine the line hit
+     * @param index   the index of the segment hit
+     */
+    public void offerLine(float t, Line hitLine, int index) {
+        if (t < time) {
+            kind = LINE;
+            time = t;
+            line = hitLine;
+            segment = index;
+        }
+    }
+
+    /**
+     * Records a board edge if it is hit earlier than the current contact.
+     *
+     * @param t     the time of impact
+     * @param edge  EDGE_X or EDGE_Y
+     */
+    public void offerEdge(float t, int edge) {
+        if (t < time) {
+            kind = edge;
+            time = t;
+        }
+    }
+}
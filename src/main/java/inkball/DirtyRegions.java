@@ -0,0 +1,207 @@
+package inkball;
+
+/**
+ * The rectangles of the board that changed since the last frame and must be repainted.
+ * Rectangles are clipped to an area, usually the part of the board in view, and merged with any rectangle they overlap, so no pixel is
+ * repainted twice. Past a limit the rectangles collapse into their bounding box, and a region
+ * can be marked full when the whole area needs repainting anyway.
+ */
+public class DirtyRegions {
+
+    private static final int MAX_RECTS = 32; // rectangles kept before collapsing into one
+
+    private int minX, minY, maxX, maxY;
+    private final int[] rects = new int[4 * (MAX_RECTS + 1)]; // left, top, right, bottom of each rectangle
+    private int count = 0;
+    private boolean full = false;
+
+    /**
+     * Constructs an empty region inside an area.
+     *
+     * @param minX the left of the area
+     * @param minY the top of the area
+     * @param maxX the right of the area, exclusive
+     * @param maxY the bottom of the area, exclusive
+     */
+    public DirtyRegions(int minX, int minY, int maxX, int maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    /**
+     * Empties the region and moves its area, such as when the camera scrolls.
+     *
+     * @param minX the left of the area
+     * @param minY the top of the area
+     * @param maxX the right of the area, exclusive
+     * @param maxY the bottom of the area, exclusive
+     */
+    public void clear(int minX, int minY, int maxX, int maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        clear();
+    }
+
+    /**
+     * Adds a rectangle, rounded out to whole pixels and clipped to the area.
+     *
+     * @param x      the left of the rectangle
+     * @param y      the top of the rectangle
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     */
+    public void add(float x, float y, float width, float height) {
+        if (full) {
+            return;
+        }
+        int left = Math.max(minX, (int) Math.floor(x));
+        int top = Math.max(minY, (int) Math.floor(y));
+        int right = Math.min(maxX, (int) Math.ceil(x + width));
+        int bottom = Math.min(maxY, (int) Math.ceil(y + height));
+        if (left >= right || top >= bottom) {
+            return;
+        }
+
+        //absorb every rectangle the new one overlaps, growing it each time
+        for (int i = 0; i < count; ) {
+            int r = 4 * i;
+            if (left <= rects[r + 2] && rects[r] <= right && top <= rects[r + 3] && rects[r + 1] <= bottom) {
+                left = Math.min(left, rects[r]);
+                top = Math.min(top, rects[r + 1]);
+                right = Math.max(right, rects[r + 2]);
+                bottom = Math.max(bottom, rects[r + 3]);
+                remove(i);
+                i = 0;
+            } else {
+                i++;
+            }
+        }
+
+        int r = 4 * count;
+        rects[r] = left;
+        rects[r + 1] = top;
+        rects[r + 2] = right;
+        rects[r + 3] = bottom;
+        count++;
+
+        if (count > MAX_RECTS) {
+            collapse();
+        }
+    }
+
+    /**
+     * Marks the whole area as changed.
+     */
+    public void markFull() {
+        full = true;
+        count = 0;
+    }
+
+    /**
+     * Checks whether the whole area has to be repainted.
+     *
+     * @return true if the region was marked full
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Checks whether nothing changed.
+     *
+     * @return true if there are no rectangles and the region is not full
+     */
+    public boolean isEmpty() {
+        return !full && count == 0;
+    }
+
+    /**
+     * Gets the number of separate rectangles.
+     *
+     * @return the number of rectangles, 0 if the region is full
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the left of a rectangle.
+     *
+     * @param i the index of the rectangle
+     * @return the left edge
+     */
+    public int x(int i) {
+        return rects[4 * i];
+    }
+
+    /**
+     * Gets the top of a rectangle.
+     *
+     * @param i the index of the rectangle
+     * @return the top edge
+     */
+    public int y(int i) {
+        return rects[4 * i + 1];
+    }
+
+    /**
+     * Gets the width of a rectangle.
+     *
+     * @param i the index of the rectangle
+     * @return the width in pixels
+     */
+    public int width(int i) {
+        return rects[4 * i + 2] - rects[4 * i];
+    }
+
+    /**
+     * Gets the height of a rectangle.
+     *
+     * @param i the index of the rectangle
+     * @return the height in pixels
+     */
+    public int height(int i) {
+        return rects[4 * i + 3] - rects[4 * i + 1];
+    }
+
+    /**
+     * Removes every rectangle and the full mark, ready for the next frame.
+     */
+    public void clear() {
+        count = 0;
+        full = false;
+    }
+
+    /**
+     * Removes a rectangle by moving the last one into its place.
+     *
+     * @param i the index of the rectangle
+     */
+    private void remove(int i) {
+        count--;
+        System.arraycopy(rects, 4 * count, rects, 4 * i, 4);
+    }
+
+    /**
+     * Replaces every rectangle with their bounding box.
+     */
+    private void collapse() {
+        int left = rects[0], top = rects[1], right = rects[2], bottom = rects[3];
+        for (int i = 1; i < count; i++) {
+            int r = 4 * i;
+            left = Math.min(left, rects[r]);
+            top = Math.min(top, rects[r + 1]);
+            right = Math.max(right, rects[r + 2]);
+            bottom = Math.max(bottom, rects[r + 3]);
+        }
+        rects[0] = left;
+        rects[1] = top;
+        rects[2] = right;
+        rects[3] = bottom;
+        count = 1;
+    }
+}
@@ -0,0 +1,295 @@
+package inkball;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Works out which parts of the window changed between two drawn frames, for the dirty-rectangle
+ * renderer. Each frame it compares the snapshot being drawn with what was drawn last time: the
+ * bounds of every ball before and after it moved, lines that were added or erased, the new part of the
+ * line being drawn, the tally tiles and the fields shown in the top bar.
+ * <p>
+ * Regions are kept in board coordinates and clipped to the part of the board in view. A new
+ * level, the time running out and hiding the ink, or the camera scrolling changes the whole
+ * view, so the region is marked full instead.
+ */
+public class DirtyTracker {
+
+    private final DirtyRegions regions = new DirtyRegions(0, App.TOPBAR, App.WIDTH, App.HEIGHT);
+    private boolean hudChanged = true;
+
+    private TileMap drawnMap;                         // tile map of the level drawn last frame
+    private boolean drawnTimeUp;
+    private int drawnCameraX = -1;                    // camera scroll last frame
+    private int drawnCameraY = -1;
+    private float[] drawnBalls = new float[48];       // left, top and size of each ball drawn last frame
+    private int drawnBallCount = 0;
+    private final ArrayList<Line> drawnLines = new ArrayList<>();
+    private final Set<Line> drawnSet = Collections.newSetFromMap(new IdentityHashMap<>());   // same lines, for lookups
+    private final Set<Line> currentSet = Collections.newSetFromMap(new IdentityHashMap<>()); // lines of the snapshot
+    private int drawnLinesVersion = -1;               // lines version of the snapshot drawn last frame
+    private Line drawnCurrentLine;                    // line being drawn last frame, null if none
+    private int drawnCurrentPoints = 0;
+    private final int[] drawnCurrentBounds = new int[4]; // bounds of every point drawn of that line
+    private boolean drawnTally = false;
+    private final int[] drawnTallyTiles = new int[4]; // cells of the two tally tiles drawn last frame
+    private final int[] drawnHud = new int[HudLayer.FIELDS];
+    private final int[] hud = new int[HudLayer.FIELDS];
+
+    /**
+     * Compares a snapshot with the last frame and records what changed.
+     *
+     * @param state       the snapshot about to be drawn
+     * @param currentLine the line the player is drawing, or null
+     * @param alpha       how far through the tick the balls are drawn, from 0 to 1
+     * @param camera      the part of the board in view
+     */
+    public void track(Snapshot state, Line currentLine, float alpha, Camera camera) {
+        regions.clear(camera.getViewLeft(), camera.getViewTop(), camera.getViewRight(), camera.getViewBottom());
+        hudChanged = false;
+
+        if (state.getTileMap() != drawnMap || state.isTimeUp() != drawnTimeUp) {
+            regions.markFull();
+            hudChanged = true;
+            drawnMap = state.getTileMap();
+            drawnTimeUp = state.isTimeUp();
+        }
+        if (camera.getX() != drawnCameraX || camera.getY() != drawnCameraY) {
+            regions.markFull();
+            drawnCameraX = camera.getX();
+            drawnCameraY = camera.getY();
+        }
+
+        trackBalls(state, alpha);
+        trackLines(state);
+        trackCurrentLine(currentLine);
+        trackTally(state);
+        trackHud(state);
+    }
+
+    /**
+     * Gets the board regions that changed in the last tracked frame.
+     *
+     * @return the changed regions, in board coordinates
+     */
+    public DirtyRegions getRegions() {
+        return regions;
+    }
+
+    /**
+     * Checks whether anything shown in the top bar changed in the last tracked frame.
+     *
+     * @return true if the top bar has to be redrawn
+     */
+    public boolean isHudChanged() {
+        return hudChanged;
+    }
+
+    /**
+     * Marks where every ball that moved was drawn last frame and where it is drawn now.
+     *
+     * @param state the snapshot about to be drawn
+     * @param alpha how far through the tick the balls are drawn
+     */
+    private void trackBalls(Snapshot state, float alpha) {
+        int count = state.getBallCount();
+        if (drawnBalls.length < 3 * count) {
+            float[] larger = new float[Math.max(3 * count, drawnBalls.length * 2)];
+            System.arraycopy(drawnBalls, 0, larger, 0, 3 * drawnBallCount);
+            drawnBalls = larger;
+        }
+
+        for (int i = 0; i < count; i++) {
+            int radius = state.getBallRadius(i);
+            float left = state.getBallX(i, alpha) - radius;
+            float top = state.getBallY(i, alpha) - radius;
+            float size = 2 * radius;
+
+            int b = 3 * i;
+            if (i < drawnBallCount) {
+                if (drawnBalls[b] == left && drawnBalls[b + 1] == top && drawnBalls[b + 2] == size) {
+                    continue;
+                }
+                regions.add(drawnBalls[b], drawnBalls[b + 1], drawnBalls[b + 2], drawnBalls[b + 2]);
+            }
+            drawnBalls[b] = left;
+            drawnBalls[b + 1] = top;
+            drawnBalls[b + 2] = size;
+            regions.add(left, top, size, size);
+        }
+
+        //balls removed since the last frame leave their old place behind
+        for (int i = count; i < drawnBallCount; i++) {
+            regions.add(drawnBalls[3 * i], drawnBalls[3 * i + 1], drawnBalls[3 * i + 2], drawnBalls[3 * i + 2]);
+        }
+        drawnBallCount = count;
+    }
+
+    /**
+     * Marks every line that was added or erased since the last frame.
+     *
+     * @param state the snapshot about to be drawn
+     */
+    private void trackLines(Snapshot state) {
+        if (state.getLinesVersion() == drawnLinesVersion) {
+            return;
+        }
+        drawnLinesVersion = state.getLinesVersion();
+
+        List<Line> lines = state.getLines();
+        if (sameLines(lines)) {
+            return;
+        }
+        //identity sets keep this linear in the number of lines
+        currentSet.clear();
+        currentSet.addAll(lines);
+        for (Line line : drawnLines) {
+            if (!currentSet.contains(line)) {
+                addLine(line, 0, line.getPointCount());
+            }
+        }
+        for (Line line : lines) {
+            if (!drawnSet.contains(line)) {
+                addLine(line, 0, line.getPointCount());
+            }
+        }
+        drawnLines.clear();
+        drawnLines.addAll(lines);
+        drawnSet.clear();
+        drawnSet.addAll(currentSet);
+        currentSet.clear();
+    }
+
+    /**
+     * Checks whether the finished lines are the ones drawn last frame, in the same order.
+     *
+     * @param lines the finished lines about to be drawn
+     * @return true if no line was added or erased
+     */
+    private boolean sameLines(List<Line> lines) {
+        if (lines.size() != drawnLines.size()) {
+            return false;
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i) != drawnLines.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks the points added to the line being drawn, or everything drawn of it once it is
+     * released, since a released stroke is simplified and may no longer cover its old pixels.
+     *
+     * @param currentLine the line the player is drawing, or null
+     */
+    private void trackCurrentLine(Line currentLine) {
+        if (drawnCurrentLine != null && currentLine != drawnCurrentLine) {
+            float margin = drawnCurrentLine.getHalfThickness() + 1;
+            regions.add(drawnCurrentBounds[0] - margin, drawnCurrentBounds[1] - margin,
+                    drawnCurrentBounds[2] - drawnCurrentBounds[0] + 2 * margin,
+                    drawnCurrentBounds[3] - drawnCurrentBounds[1] + 2 * margin);
+            drawnCurrentLine = null;
+        }
+        if (currentLine == null) {
+            return;
+        }
+
+        if (currentLine != drawnCurrentLine) {
+            drawnCurrentLine = currentLine;
+            drawnCurrentPoints = 0;
+            drawnCurrentBounds[0] = drawnCurrentBounds[2] = currentLine.pointX(0);
+            drawnCurrentBounds[1] = drawnCurrentBounds[3] = currentLine.pointY(0);
+        }
+
+        //the last drawn point starts the first new segment
+        int from = Math.max(0, drawnCurrentPoints - 1);
+        int to = currentLine.getPointCount();
+        if (to > drawnCurrentPoints) {
+            addLine(currentLine, from, to);
+            for (int i = from; i < to; i++) {
+                drawnCurrentBounds[0] = Math.min(drawnCurrentBounds[0], currentLine.pointX(i));
+                drawnCurrentBounds[1] = Math.min(drawnCurrentBounds[1], currentLine.pointY(i));
+                drawnCurrentBounds[2] = Math.max(drawnCurrentBounds[2], currentLine.pointX(i));
+                drawnCurrentBounds[3] = Math.max(drawnCurrentBounds[3], currentLine.pointY(i));
+            }
+            drawnCurrentPoints = to;
+        }
+    }
+
+    /**
+     * Marks the bounds of a run of points of a line, widened by the line thickness.
+     *
+     * @param line the line
+     * @param from the first point, inclusive
+     * @param to   the last point, exclusive
+     */
+    private void addLine(Line line, int from, int to) {
+        if (to <= from) {
+            return;
+        }
+        int minX = line.pointX(from), minY = line.pointY(from);
+        int maxX = minX, maxY = minY;
+        for (int i = from + 1; i < to; i++) {
+            minX = Math.min(minX, line.pointX(i));
+            minY = Math.min(minY, line.pointY(i));
+            maxX = Math.max(maxX, line.pointX(i));
+            maxY = Math.max(maxY, line.pointY(i));
+        }
+        float margin = line.getHalfThickness() + 1;
+        regions.add(minX - margin, minY - margin, maxX - minX + 2 * margin, maxY - minY + 2 * margin);
+    }
+
+    /**
+     * Marks the cells of the two tally tiles last frame and now.
+     *
+     * @param state the snapshot about to be drawn
+     */
+    private void trackTally(Snapshot state) {
+        if (drawnTally) {
+            addCell(drawnTallyTiles[0], drawnTallyTiles[1]);
+            addCell(drawnTallyTiles[2], drawnTallyTiles[3]);
+        }
+
+        drawnTally = state.isIncrementingScore();
+        if (drawnTally) {
+            int[] topLeft = state.getTopLeftTile();
+            int[] bottomRight = state.getBottomRightTile();
+            drawnTallyTiles[0] = topLeft[0];
+            drawnTallyTiles[1] = topLeft[1];
+            drawnTallyTiles[2] = bottomRight[0];
+            drawnTallyTiles[3] = bottomRight[1];
+            addCell(drawnTallyTiles[0], drawnTallyTiles[1]);
+            addCell(drawnTallyTiles[2], drawnTallyTiles[3]);
+        }
+    }
+
+    /**
+     * Marks one board cell.
+     *
+     * @param col the column of the cell
+     * @param row the row of the cell
+     */
+    private void addCell(int col, int row) {
+        regions.add(col * App.CELLSIZE, row * App.CELLSIZE + App.TOPBAR, App.CELLSIZE, App.CELLSIZE);
+    }
+
+    /**
+     * Checks whether any value shown in the top bar changed.
+     *
+     * @param state the snapshot about to be drawn
+     */
+    private void trackHud(Snapshot state) {
+        HudLayer.readFields(state, hud);
+        for (int i = 0; i < HudLayer.FIELDS; i++) {
+            if (hud[i] != drawnHud[i]) {
+                hudChanged = true;
+                drawnHud[i] = hud[i];
+            }
+        }
+    }
+}
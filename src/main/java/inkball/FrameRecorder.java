@@ -0,0 +1,212 @@
+package inkball;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records drawn frames without encoding them on the render thread. Each frame's pixels are
+ * copied into a buffer from a fixed pool and handed to a small pool of encoder threads, which
+ * write numbered PNG files or append to a single raw RGB stream. Buffers go back to the pool once
+ * encoded, so recording allocates no pixel arrays after it starts.
+ * <p>
+ * When every buffer is still waiting to be encoded the encoders have fallen behind. The recorder
+ * then either drops the frame or waits for a buffer for at most one frame time, so the render
+ * thread is never held up for long and the simulation thread not at all.
+ */
+public class FrameRecorder {
+
+    public static final int PNG = 0;  // one numbered PNG file per frame
+    public static final int RAW = 1;  // every frame appended to frames.rgb, 3 bytes per pixel, row by row
+
+    private final File dir;
+    private final int format;
+    private final int width;
+    private final int height;
+    private final boolean dropWhenBehind;
+    private final long waitNanos;
+    private final ArrayBlockingQueue<int[]> freeBuffers;
+    private final ExecutorService encoders;
+    private final OutputStream raw;
+    private final byte[] rawRow;           // one row of a raw frame, only used by the single raw encoder
+    private final AtomicInteger written = new AtomicInteger();
+    private int recorded = 0;              // frames handed to the encoders, only used by the render thread
+    private int dropped = 0;               // frames skipped because no buffer was free
+    private volatile IOException failure;  // first error met by an encoder
+
+    /**
+     * Starts a recording into a directory.
+     *
+     * @param dir            the directory to write to, created if missing
+     * @param format         PNG or RAW
+     * @param width          the width of every frame
+     * @param height         the height of every frame
+     * @param encoderThreads the number of PNG encoders; a raw stream is always written by one
+     * @param bufferCount    the number of frames that can wait to be encoded
+     * @param dropWhenBehind true to drop frames when the encoders fall behind, false to wait for them
+     * @param frameRate      the frames drawn per second, bounding how long a frame waits
+     * @throws IOException if the directory or the raw stream cannot be created
+     */
+    public FrameRecorder(File dir, int format, int width, int height, int encoderThreads, int bufferCount,
+                         boolean dropWhenBehind, int frameRate) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        this.dir = dir;
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        this.dropWhenBehind = dropWhenBehind;
+        this.waitNanos = TimeUnit.SECONDS.toNanos(1) / frameRate;
+
+        freeBuffers = new ArrayBlockingQueue<>(bufferCount);
+        for (int i = 0; i < bufferCount; i++) {
+            freeBuffers.add(new int[width * height]);
+        }
+
+        //frames of a raw stream have to be written in order
+        int threads = format == RAW ? 1 : Math.max(1, encoderThreads);
+        encoders = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "inkball-encoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        raw = format == RAW ? new BufferedOutputStream(new FileOutputStream(new File(dir, "frames.rgb"))) : null;
+        rawRow = new byte[3 * width];
+    }
+
+    /**
+     * Copies a frame and queues it for encoding, or drops it if the encoders are behind.
+     *
+     * @param pixels the ARGB pixels of the frame, width * height long
+     * @return true if the frame was queued
+     */
+    public boolean capture(int[] pixels) {
+        int[] buffer = freeBuffers.poll();
+        if (buffer == null && !dropWhenBehind) {
+            try {
+                buffer = freeBuffers.poll(waitNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (buffer == null) {
+            dropped++;
+            return false;
+        }
+
+        int[] copy = buffer;
+        System.arraycopy(pixels, 0, copy, 0, width * height);
+        int number = ++recorded;
+        encoders.execute(() -> encode(copy, number));
+        return true;
+    }
+
+    /**
+     * Waits for every queued frame to be written and closes the recording.
+     *
+     * @throws IOException if a frame could not be written
+     */
+    public void stop() throws IOException {
+        encoders.shutdown();
+        try {
+            encoders.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (raw != null) {
+            raw.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Encodes one frame and returns its buffer to the pool.
+     *
+     * @param buffer the copied pixels
+     * @param number the number of the frame, from 1
+     */
+    private void encode(int[] buffer, int number) {
+        try {
+            if (format == RAW) {
+                writeRaw(buffer);
+            } else {
+                BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                image.setRGB(0, 0, width, height, buffer, 0, width);
+                ImageIO.write(image, "png", new File(dir, String.format("frame-%06d.png", number)));
+            }
+            written.incrementAndGet();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        } finally {
+            freeBuffers.add(buffer);
+        }
+    }
+
+    /**
+     * Appends one frame to the raw stream as red, green and blue bytes.
+     *
+     * @param buffer the copied pixels
+     * @throws IOException if the stream cannot be written
+     */
+    private void writeRaw(int[] buffer) throws IOException {
+        for (int row = 0; row < height; row++) {
+            for (int col = 0, i = row * width; col < width; col++, i++) {
+                int pixel = buffer[i];
+                rawRow[3 * col] = (byte) (pixel >> 16);
+                rawRow[3 * col + 1] = (byte) (pixel >> 8);
+                rawRow[3 * col + 2] = (byte) pixel;
+            }
+            raw.write(rawRow);
+        }
+    }
+
+    /**
+     * Gets the directory the recording is written to.
+     *
+     * @return the directory
+     */
+    public File getDir() {
+        return dir;
+    }
+
+    /**
+     * Gets the number of frames queued for encoding so far.
+     *
+     * @return the recorded frame count
+     */
+    public int getRecorded() {
+        return recorded;
+    }
+
+    /**
+     * Gets the number of frames written so far.
+     *
+     * @return the written frame count
+     */
+    public int getWritten() {
+        return written.get();
+    }
+
+    /**
+     * Gets the number of frames dropped because the encoders were behind.
+     *
+     * @return the dropped frame count
+     */
+    public int getDropped() {
+        return dropped;
+    }
+}
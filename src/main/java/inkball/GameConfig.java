@@ -0,0 +1,235 @@
+package inkball;
+
+import processing.core.PApplet;
+import processing.data.JSONArray;
+import processing.data.JSONObject;
+
+import java.io.File;
+import java.util.function.Function;
+
+/**
+ * The whole game configuration: the score tables, the ink settings and every level with its
+ * layout. It is parsed and checked once, when the game starts, and never changes afterwards, so
+ * a single config can be shared by any number of games and threads, and level transitions never
+ * read config.json or a layout file again.
+ * <p>
+ * Layouts loaded from disk go through the LevelCompiler cache, so a layout file is only parsed
+ * as text the first time it is used or after it changes.
+ */
+public final class GameConfig {
+
+    public static final float DEFAULT_INK_SIMPLIFY_TOLERANCE = 1.5f;
+
+    private final float inkSimplifyTolerance; // how far simplifying may move a stroke, in pixels
+    private final boolean parallelBallUpdate; // whether large ball counts are moved across a fork/join pool
+    private final int[] scoreIncrease;        // score for a ball entering a matching hole, by colour
+    private final int[] scoreDecrease;        // penalty for a ball entering a wrong hole, by colour
+    private final LevelConfig[] levels;
+
+    /**
+     * Constructs a config from parsed values.
+     *
+     * @param inkSimplifyTolerance how far simplifying may move a stroke
+     * @param parallelBallUpdate   whether large ball counts are moved in parallel
+     * @param scoreIncrease        the score for each colour
+     * @param scoreDecrease        the penalty for each colour
+     * @param levels               the levels in order
+     */
+    private GameConfig(float inkSimplifyTolerance, boolean parallelBallUpdate, int[] scoreIncrease,
+                       int[] scoreDecrease, LevelConfig[] levels) {
+        this.inkSimplifyTolerance = inkSimplifyTolerance;
+        this.parallelBallUpdate = parallelBallUpdate;
+        this.scoreIncrease = scoreIncrease;
+        this.scoreDecrease = scoreDecrease;
+        this.levels = levels;
+    }
+
+    /**
+     * Reads a config file and every layout it names. Layout files are resolved relative to the
+     * directory of the config file, and compiled into the level cache beside it.
+     *
+     * @param configFile the config.json file
+     * @return the parsed config
+     * @throws IllegalArgumentException if the config or a layout is missing or invalid
+     */
+    public static GameConfig load(File configFile) {
+        File dir = configFile.getAbsoluteFile().getParentFile();
+        File cache = new File(dir, LevelCompiler.CACHE_DIR);
+        return build(PApplet.loadJSONObject(configFile), layout ->
+                LevelCompiler.load(new File(dir, layout), new File(cache, layout + LevelCompiler.EXTENSION)));
+    }
+
+    /**
+     * Parses and checks an already loaded config, reading and parsing every layout it names once.
+     *
+     * @param json         the parsed config.json object
+     * @param layoutLoader loads the lines of a level layout file by name, or returns null if it cannot
+     * @return the parsed config
+     * @throws IllegalArgumentException if a required value or a layout is missing or invalid
+     */
+    public static GameConfig parse(JSONObject json, Function<String, String[]> layoutLoader) {
+        return build(json, layout -> {
+            String[] lines = layoutLoader.apply(layout);
+            return lines == null ? null : LevelCompiler.parse(lines);
+        });
+    }
+
+    /**
+     * Parses and checks an already loaded config.
+     *
+     * @param json         the parsed config.json object
+     * @param layoutLoader loads the layout of a level by file name, or returns null if it cannot
+     * @return the parsed config
+     */
+    private static GameConfig build(JSONObject json, Function<String, LevelLayout> layoutLoader) {
+        if (json == null) {
+            throw new IllegalArgumentException("Config is missing");
+        }
+        float tolerance = json.getFloat("ink_simplify_tolerance", DEFAULT_INK_SIMPLIFY_TOLERANCE);
+        boolean parallel = json.getBoolean("parallel_ball_update", false);
+        int[] scoreIncrease = parseScores(json, "score_increase_from_hole_capture");
+        int[] scoreDecrease = parseScores(json, "score_decrease_from_wrong_hole");
+
+        require(json, "levels", "config");
+        JSONArray levelsArray = json.getJSONArray("levels");
+        LevelConfig[] levels = new LevelConfig[levelsArray.size()];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = parseLevel(levelsArray.getJSONObject(i), i, layoutLoader);
+        }
+        return new GameConfig(tolerance, parallel, scoreIncrease, scoreDecrease, levels);
+    }
+
+    /**
+     * Parses one level and reads its layout.
+     *
+     * @param json         the level object
+     * @param index        the index of the level, for error messages
+     * @param layoutLoader loads the layout of a level by file name
+     * @return the parsed level
+     */
+    private static LevelConfig parseLevel(JSONObject json, int index, Function<String, LevelLayout> layoutLoader) {
+        String where = "level " + (index + 1);
+        require(json, "layout", where);
+        String layoutName = json.getString("layout");
+        LevelLayout layout = layoutLoader.apply(layoutName);
+        if (layout == null) {
+            throw new IllegalArgumentException(where + ": cannot read layout " + layoutName);
+        }
+
+        require(json, "time", where);
+        require(json, "spawn_interval", where);
+        int time = json.getInt("time");
+        int spawnInterval = json.getInt("spawn_interval");
+        if (spawnInterval <= 0) {
+            throw new IllegalArgumentException(where + ": spawn_interval must be positive");
+        }
+
+        require(json, "balls", where);
+        JSONArray ballsArray = json.getJSONArray("balls");
+        int[] balls = new int[ballsArray.size()];
+        for (int i = 0; i < balls.length; i++) {
+            balls[i] = Colours.fromName(ballsArray.getString(i));
+        }
+
+        require(json, "score_increase_from_hole_capture_modifier", where);
+        require(json, "score_decrease_from_wrong_hole_modifier", where);
+        float increaseModifier = (float) json.getDouble("score_increase_from_hole_capture_modifier");
+        float decreaseModifier = (float) json.getDouble("score_decrease_from_wrong_hole_modifier");
+
+        //balls pass through each other unless the level says otherwise
+        boolean ballCollisions = json.getBoolean("ball_collisions", false);
+
+        return new LevelConfig(layoutName, layout, time, spawnInterval, increaseModifier, decreaseModifier,
+                ballCollisions, balls);
+    }
+
+    /**
+     * Reads a table of scores by colour name into an array by colour id.
+     *
+     * @param json the config object
+     * @param key  the key of the table
+     * @return the scores by colour id
+     */
+    private static int[] parseScores(JSONObject json, String key) {
+        require(json, key, "config");
+        JSONObject table = json.getJSONObject(key);
+        int[] scores = new int[Colours.COUNT];
+        for (int colour = 0; colour < Colours.COUNT; colour++) {
+            require(table, Colours.name(colour), key);
+            scores[colour] = table.getInt(Colours.name(colour));
+        }
+        return scores;
+    }
+
+    /**
+     * Checks that a key is present and not null.
+     *
+     * @param json  the object
+     * @param key   the required key
+     * @param where the part of the config holding the object, for error messages
+     * @throws IllegalArgumentException if the key is missing
+     */
+    private static void require(JSONObject json, String key, String where) {
+        if (!json.hasKey(key) || json.isNull(key)) {
+            throw new IllegalArgumentException(where + ": missing " + key);
+        }
+    }
+
+    /**
+     * Gets how far simplifying may move a finished stroke.
+     *
+     * @return the tolerance in pixels
+     */
+    public float getInkSimplifyTolerance() {
+        return inkSimplifyTolerance;
+    }
+
+    /**
+     * Checks whether games move large ball counts across a fork/join pool, set as
+     * "parallel_ball_update" in the config. The result of a tick is the same either way.
+     *
+     * @return true to move balls in parallel
+     */
+    public boolean isParallelBallUpdate() {
+        return parallelBallUpdate;
+    }
+
+    /**
+     * Gets the score for a ball entering a hole of its own colour, before the level modifier.
+     *
+     * @param colour the colour id of the ball
+     * @return the score
+     */
+    public int getScoreIncrease(int colour) {
+        return scoreIncrease[colour];
+    }
+
+    /**
+     * Gets the penalty for a ball entering a hole of another colour, before the level modifier.
+     *
+     * @param colour the colour id of the ball
+     * @return the penalty
+     */
+    public int getScoreDecrease(int colour) {
+        return scoreDecrease[colour];
+    }
+
+    /**
+     * Gets the number of levels.
+     *
+     * @return the number of levels
+     */
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    /**
+     * Gets the config of one level.
+     *
+     * @param index the index of the level
+     * @return the level config
+     */
+    public LevelConfig getLevel(int index) {
+        return levels[index];
+    }
+}
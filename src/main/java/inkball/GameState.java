@@ -0,0 +1,995 @@
+package inkball;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Holds the full simulation state of an InkBall game and advances it one frame at a time.
+ * The state never draws anything, so it can be ticked without a PApplet window.
+ */
+public class GameState {
+
+    public static final int NO_COLOUR = -1; // no ball shown in front of the queue
+
+    private final GameConfig config; // parsed once, shared and never changed
+    private final Random random;
+
+    private TileMap tileMap; // tile code of each cell
+    private ArrayList<Wall> walls = new ArrayList<>();
+    private BallStore balls = new BallStore(); //stores balls in parallel arrays
+    private ArrayList<Line> lines = new ArrayList<>(); // stores lines
+    private SegmentIndex lineIndex = new SegmentIndex(); // line segments indexed by cell
+    private int linesVersion = 0; // counts every change to the lines, so renderers can skip unchanged frames
+    private BallUpdater ballUpdater = new BallUpdater(); // moves balls, optionally in parallel
+    private BallCollider ballCollider = new BallCollider(); // bounces balls off each other
+    private boolean ballCollisions = false; // whether the current level bounces balls off each other
+    private ArrayList<Hole> holes = new ArrayList<>(); // stores holes
+    private ArrayList<int[]> spawnerLocations = new ArrayList<>(); //spawner coordinates
+    private ArrayList<Brick> bricks = new ArrayList<>(); // stores bricks (EXTENSION)
+    private TileGrid tileGrid = new TileGrid(0, 0); // walls and bricks indexed by cell for collisions
+    private Executor levelPrefetch; // builds the next board during the score tally, null to build on load
+    private CompletableFuture<LevelBoard> nextBoard; // board being built for the next level, if any
+    private int nextBoardLevel = -1;
+
+    private ColourQueue ballColoursToSpawn = new ColourQueue(); //ball colours to spawn
+    private int spawnInterval;
+    private int spawnTimer;
+    private int currentBallIndex = 0;
+    private int queueOffset = 0; //for visual queue
+
+    //countdown timer
+    private int countdownTime;
+
+    //scoring variables
+    private int score = 0;
+    private int capturedCount = 0;  // balls entering a matching hole since the game started
+    private int wrongHoleCount = 0; // balls entering a hole of another colour since the game started
+    private float scoreIncreaseModifier;
+    private float scoreDecreaseModifier;
+
+    //game status variables
+    private int frameCount = 0;
+    private int timeRemaining;
+    private boolean levelEnded = false;
+    private boolean gameEnded = false;
+    private boolean timeUp = false;
+    private boolean gameFinished = false;
+    private int currentLevelIndex = 0;
+    private boolean paused = false;
+    private int incrementedTime = 0;
+    private boolean incrementingScore = false;
+
+    //queue display
+    private int lastEmittedBallColor = NO_COLOUR;
+
+    //animation variables
+    private int counter = 0; //counter for tracking movement steps
+    private int directionTopLeft = 0;
+    private int directionBottomRight = 2;
+    private int topLeftX = 0;
+    private int topLeftY = 0; //initial position for the top-left tile
+    private int bottomRightX = 0;
+    private int bottomRightY = 0; //set to the bottom-right cell of the board when the tally starts
+    private boolean animationTriggered = false;
+
+    /**
+     * Creates a game state from an already parsed configuration.
+     *
+     * @param config the parsed config, holding every level layout
+     * @param random the random source used for spawners and ball velocities
+     */
+    public GameState(GameConfig config, Random random) {
+        this.config = config;
+        this.random = random;
+        ballUpdater.setParallel(config.isParallelBallUpdate());
+    }
+
+    /**
+     * Creates a game state without a window, reading the config file and level layouts from disk.
+     * Layout files are resolved relative to the directory of the config file.
+     *
+     * @param configFile the config.json file
+     * @param seed       the seed for the random source
+     */
+    public GameState(File configFile, long seed) {
+        this(GameConfig.load(configFile), new Random(seed));
+    }
+
+    // LEVEL LOADING
+
+    /**
+     * Starts the game at the given level, resetting the score and all game status flags.
+     *
+     * @param levelIndex the index of the level to start at
+     */
+    public void startLevel(int levelIndex) {
+        currentLevelIndex = levelIndex;
+        score = 0;
+        capturedCount = 0;
+        wrongHoleCount = 0;
+        incrementedTime = 0;
+        gameEnded = false;
+        gameFinished = false;
+        levelEnded = false;
+        timeUp = false;
+        incrementingScore = false;
+        animationTriggered = false;
+
+        loadLevelData(currentLevelIndex);
+    }
+
+    /**
+     * Loads the level data for the specified level index, setting up the level layout and game elements.
+     *
+     * @param levelIndex the index of the level to load
+     */
+    private void loadLevelData(int levelIndex) {
+
+        //check if the level index is within bounds
+        if (levelIndex >= config.getLevelCount()) {
+            gameEnded = true;
+            return;
+        }
+
+        //set up the level from its parsed config
+        LevelConfig level = config.getLevel(levelIndex);
+        loadLevel(level, takeBoard(levelIndex));
+        loadConfig(level);
+
+        //initialize time and status flags for new level
+        timeRemaining = level.getTime();
+        levelEnded = false;
+        timeUp = false;
+        gameEnded = false;
+        paused = false;
+        spawnTimer = spawnInterval * App.FPS;
+        countdownTime = spawnInterval;
+    }
+
+    /**
+     * Starts building the board of a level on the prefetch executor, if there is one, so it is
+     * ready by the time the level is loaded.
+     *
+     * @param levelIndex the index of the level to build
+     */
+    private void prefetchBoard(int levelIndex) {
+        if (levelPrefetch == null || levelIndex >= config.getLevelCount()) {
+            return;
+        }
+        LevelLayout layout = config.getLevel(levelIndex).getLayout();
+        nextBoard = CompletableFuture.supplyAsync(() -> new LevelBoard(layout), levelPrefetch);
+        nextBoardLevel = levelIndex;
+    }
+
+    /**
+     * Takes the prefetched board of a level, waiting for it if it is still being built, or
+     * builds the board now if none was prefetched for that level.
+     *
+     * @param levelIndex the index of the level being loaded
+     * @return a board no level has used yet
+     */
+    private LevelBoard takeBoard(int levelIndex) {
+        CompletableFuture<LevelBoard> prefetched = nextBoard;
+        nextBoard = null;
+        if (prefetched != null && nextBoardLevel == levelIndex) {
+            return prefetched.join();
+        }
+        return new LevelBoard(config.getLevel(levelIndex).getLayout());
+    }
+
+    /**
+     * Puts the board of a level in place and places its balls.
+     *
+     * @param level the level holding the layout
+     * @param board the board built from the layout
+     */
+    private void loadLevel(LevelConfig level, LevelBoard board) {
+
+        //clear previous level balls and lines
+        clearLevelData();
+
+        //swap in the new board, a handful of reference assignments
+        tileMap = board.getTileMap();
+        tileGrid = board.getTileGrid();
+        walls = board.getWalls();
+        bricks = board.getBricks();
+        holes = board.getHoles();
+        spawnerLocations = board.getSpawnerLocations();
+
+        //balls are placed here rather than with the board, so they take the same random velocities as ever
+        LevelLayout layout = level.getLayout();
+        for (int i = 0; i < layout.getCount(LevelLayout.BALLS); i++) {
+            addBall(layout.getRow(LevelLayout.BALLS, i), layout.getCol(LevelLayout.BALLS, i),
+                    layout.getColour(LevelLayout.BALLS, i));
+        }
+    }
+
+    /**
+     * Clears the balls and lines of the current level.
+     */
+    private void clearLevelData() {
+
+        //clear level data
+        balls.clear();
+        lines.clear();
+        lineIndex.clear();
+        linesVersion++;
+    }
+
+    /**
+     * Adds a ball to the game board based on the given row, column, and color.
+     *
+     * @param row    the row index of the ball
+     * @param col    the column index of the ball
+     * @param colour the colour of the ball
+     */
+    private void addBall(int row, int col, int colour) {
+
+        //initialize ball coordinates
+        float startX = col * App.CELLSIZE;
+        float startY = row * App.CELLSIZE + App.TOPBAR;
+
+        //adds ball with random velocity and adds to the balls list
+        Ball ball = new Ball(startX, startY, 0, 0, colour);
+        ball.initializeRandomVelocity(random);  // set random velocities
+        balls.add(ball);
+    }
+
+    /**
+     * Loads the level configuration such as spawn intervals, ball colors, and score modifiers.
+     *
+     * @param level the parsed level configuration
+     */
+    public void loadConfig(LevelConfig level) {
+
+        //set spawn interval from config
+        spawnInterval = level.getSpawnInterval();
+
+        //add balls to spawn queue
+        ballColoursToSpawn.clear();
+        for (int i = 0; i < level.getBallCount(); i++) {
+            ballColoursToSpawn.add(level.getBall(i));
+        }
+
+        //set spawn timer and ball index for queue
+        spawnTimer = spawnInterval * App.FPS;
+        currentBallIndex = 0;
+
+        //score modifiers and ball collisions of the level
+        scoreIncreaseModifier = level.getScoreIncreaseModifier();
+        scoreDecreaseModifier = level.getScoreDecreaseModifier();
+        ballCollisions = level.hasBallCollisions();
+    }
+
+    // INPUT
+
+    /**
+     * Pauses the game if it is running, or resumes it if it is paused.
+     */
+    public void togglePause() {
+        paused = !paused;
+    }
+
+    /**
+     * Handles the logic for restarting the game or the current level based on the current game state.
+     */
+    public void handleRestart() {
+
+        //if game end reset entire game
+        if (gameEnded) {
+            resetGame();
+        } else if (levelEnded || timeUp) {
+
+            //if time up or level end restart level
+            restartLevel();
+        }
+    }
+
+    /**
+     * Resets the entire game to its initial state, clearing all game elements and starting from the first level.
+     */
+    private void resetGame() {
+
+        //reset all game related variables to initial
+        startLevel(0);
+    }
+
+    /**
+     * Restarts the current level, resetting the balls and lines while keeping the current level configuration.
+     */
+    private void restartLevel() {
+
+        //if level ended, restart level
+        loadLevelData(currentLevelIndex);
+    }
+
+    /**
+     * Returns whether the player is currently allowed to draw or erase lines.
+     *
+     * @return true if lines can be drawn, false when the game has ended or time is up
+     */
+    public boolean canDraw() {
+        return !gameEnded && !timeUp;
+    }
+
+    /**
+     * Adds a finished player-drawn line to the game, simplifying it first by the tolerance
+     * set as "ink_simplify_tolerance" in the config.
+     *
+     * @param line the line to add
+     */
+    public void addLine(Line line) {
+
+        //drop the nearly collinear points of slow strokes
+        line.simplify(config.getInkSimplifyTolerance());
+        lines.add(line);
+        lineIndex.add(line);
+        linesVersion++;
+    }
+
+    /**
+     * Deletes the oldest line near the given position, if one exists.
+     *
+     * @param x the x-coordinate of the erase position
+     * @param y the y-coordinate of the erase position
+     */
+    public void eraseLineAt(float x, float y) {
+
+        //only the segments in the cells around the position are checked
+        Line line = lineIndex.findNear(x, y);
+        if (line != null) {
+            removeLine(line);
+        }
+    }
+
+    /**
+     * Removes a line from the game and from the segment index.
+     *
+     * @param line the line to remove
+     */
+    private void removeLine(Line line) {
+
+        //several balls can hit the same line in one frame
+        if (lines.remove(line)) {
+            lineIndex.remove(line);
+            linesVersion++;
+        }
+    }
+
+    // GAME LOOP
+
+    /**
+     * Advances the simulation by a single frame: spawning, timers, ball movement, collisions,
+     * captures, level completion and the end of level score tally.
+     */
+    public void tick() {
+        frameCount++;
+        balls.savePositions();
+
+        //update spawn timer if ball spawned
+        updateSpawnTimer();
+
+        //update remaining time if not paused and not incrementing score
+        if (!paused & !incrementingScore) {
+            updateTimeRemaning();
+        }
+
+        updateBalls();
+        updateQueueDisplay();
+
+        //check if level is complete
+        if (!paused && !incrementingScore) {
+            checkLevelCompletion();
+        } else if (incrementingScore) {
+
+            //update score otherwise
+            updateScoreTally();
+        }
+    }
+
+    /**
+     * Updates the remaining time for the current level, decrementing it each second, and checks if the time has run out.
+     */
+    private void updateTimeRemaning() {
+
+        //if level not ended and time not up
+        if (!levelEnded && !timeUp) {
+
+            //decrease time every second
+            if (frameCount % App.FPS == 0 && timeRemaining > 0) {
+                timeRemaining --;
+            }
+
+            //if no time, timeup and level end
+            if (timeRemaining == 0) {
+                timeUp = true;
+                gameEnded = true;
+                levelEnded = true;
+            }
+        }
+    }
+
+    /**
+     * Updates the spawn timer and triggers the spawning of a new ball when the timer reaches zero.
+     */
+    private void updateSpawnTimer() {
+
+        //if there are balls to spawn or timer active
+        if (!ballColoursToSpawn.isEmpty() || (spawnTimer > 0)) {
+
+            //if not paused and time not up
+            if (!paused && !timeUp) {
+
+                //if spawn timer hits 0, spawn ball and reset timer
+                if (spawnTimer <= 0) {
+                    spawnBall();
+                    spawnTimer = spawnInterval * App.FPS;
+                    countdownTime = spawnInterval; // Reset the countdown time when a ball is spawned
+                } else {
+
+                    //decrease time and update countdown time
+                    spawnTimer--;
+                    countdownTime = spawnTimer / App.FPS;
+                }
+            }
+        } else {
+
+            //reset countdown when no balls left
+            countdownTime = 0;
+        }
+    }
+
+    /**
+     * Moves the visual ball queue back towards its resting position and hides the
+     * last emitted ball once the queue has run out.
+     */
+    private void updateQueueDisplay() {
+
+        //move to left by 1 unit if shifted to right
+        if (queueOffset > 0) {
+            queueOffset--; //move queue back 1 pixel per frame
+        }
+
+        // hide the first ball if the queue is empty (worst case)
+        if (ballColoursToSpawn.isEmpty() && spawnTimer == 0) {
+            lastEmittedBallColor = NO_COLOUR; // reset last emitted ball color to hide it
+        }
+    }
+
+    /**
+     * Updates the positions of all balls, checks for collisions, and handles interactions such as entering holes.
+     * Balls are frozen while the game is paused or the time is up. The balls are moved first,
+     * in parallel if enabled, and their brick hits, line hits and captures are applied afterwards
+     * in ball order. Balls then bounce off each other if the level enables it.
+     */
+    private void updateBalls() {
+        if (paused || timeUp) {
+            return;
+        }
+
+        //move every ball and check holes, recording side effects per ball
+        ballUpdater.update(balls, tileGrid, lineIndex);
+
+        //apply the side effects in ball order
+        for (int i = 0; i < balls.size(); i++) {
+            applyBallEvents(i, ballUpdater.getEvents(i));
+        }
+
+        //bounce the remaining balls off each other
+        if (ballCollisions) {
+            ballCollider.collide(balls);
+        }
+
+        //remove balls marked for removal
+        balls.removeMarked();
+    }
+
+    /**
+     * Applies the side effects recorded while a ball moved: removes the lines it hit, damages
+     * the bricks it hit and scores its capture.
+     *
+     * @param index  the slot of the ball in the ball store
+     * @param events the events recorded for the ball
+     */
+    private void applyBallEvents(int index, BallEvents events) {
+        for (Line line : events.getHitLines()) {
+            removeLine(line);
+        }
+
+        for (Brick brick : events.getHitBricks()) {
+            brick.hit();  // Reduce the brick's health and change its sprite
+            if (brick.isDestroyed()) {
+                tileGrid.removeBrick(brick);
+            }
+        }
+
+        int colourNumber = balls.get(index).getColourNumber();
+        if (events.getCapture() == BallEvents.CAPTURED) {
+
+            //correct hole/ball colour, increase score
+            increaseScore(colourNumber);
+            capturedCount++;
+            balls.markRemoved(index);
+
+        } else if (events.getCapture() == BallEvents.WRONG_HOLE) {
+
+            //wrong colour, decrease score and add ball back to queue
+            decreaseScore(colourNumber);
+            wrongHoleCount++;
+            balls.markRemoved(index);
+            ballColoursToSpawn.add(colourNumber); // Add ball back to queue
+            spawnTimer = spawnInterval * App.FPS; // Reset spawn timer
+        }
+    }
+
+    /**
+     * Increases the score based on the ball's color when it enters the correct hole.
+     *
+     * @param ballColourNumber the color number of the ball that entered the hole
+     */
+    private void increaseScore(int ballColourNumber) {
+
+        //increase ball score based on colour
+        score += config.getScoreIncrease(ballColourNumber) * scoreIncreaseModifier;
+    }
+
+    /**
+     * Decreases the score based on the ball's color when it enters the wrong hole.
+     *
+     * @param ballColourNumber the color number of the ball that entered the wrong hole
+     */
+    private void decreaseScore(int ballColourNumber) {
+
+        //decrease ball score based on colour
+        score -= config.getScoreDecrease(ballColourNumber) * scoreDecreaseModifier;
+    }
+
+    /**
+     * Checks if the level is complete by verifying if all balls have been cleared and if no more balls are left to spawn.
+     * If the level is complete, it handles transitioning to the next level or ending the game.
+     */
+    private void checkLevelCompletion() {
+
+        //check if all balls are cleared and level is completed
+        if (balls.isEmpty() && ballColoursToSpawn.isEmpty()) {
+
+            //if not game ended
+            if (!gameEnded) {
+
+                //add remaining time to score
+                if (timeRemaining > 0 && !incrementingScore) {
+                    incrementingScore = true;
+                    incrementedTime = 0; //reset for new level
+                    animationTriggered = false;
+
+                    //build the next board while the tally runs
+                    prefetchBoard(currentLevelIndex + 1);
+                }
+            }
+
+            //check what type of game end it is
+            if (!incrementingScore) {
+
+                //if last level
+                if (isLastLevel()) {
+
+                    //game finished
+                    gameEnded = true;
+                    gameFinished = true;
+                    timeUp = false;
+
+                } else {
+
+                    //move to next level only when finishing incrementing score
+                    currentLevelIndex ++;
+                    levelEnded = false;
+                    timeUp = false;
+                    gameFinished = false;
+                    incrementingScore = false;
+                    animationTriggered = true;
+                    incrementedTime = 0;
+
+                    //load next level
+                    loadLevelData(currentLevelIndex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the remaining time to the score and moves the yellow tiles when the level is complete.
+     */
+    private void updateScoreTally() {
+
+        //update score and yellow animations when level complete
+        if (incrementedTime < timeRemaining) {
+            if (frameCount % 2 == 0) { //increment every 2 frames
+                score ++; //increment score per time
+                incrementedTime++;
+                animateTiles(1);
+            } else {
+                animateTiles(0);
+            }
+        } else {
+
+            //when finished reset states
+            incrementingScore = false;
+            animationTriggered = false;
+            timeRemaining = 0;
+        }
+    }
+
+    /**
+     * Moves the yellow tiles around the board in a clockwise direction during level completion.
+     *
+     * @param i determines whether to move the tiles this frame (1 for moving tiles, 0 for keeping them still)
+     */
+    private void animateTiles(int i) {
+
+        if (!animationTriggered) {
+
+            //resets to initial values per animation
+            counter = 0; //counter for tracking movement steps
+            directionTopLeft = 0;
+            directionBottomRight = 2;
+            topLeftX = 0;
+            topLeftY = 0; //initial position for the top-left tile
+            bottomRightX = tileMap.getCols() - 1;
+            bottomRightY = tileMap.getRows() - 1; //initial position for the bottom-right tile
+            animationTriggered = true;
+        }
+
+        if (i == 1) {
+
+            //move top left tile based on direction
+            // 0 = right, 1 = down, 2 = left, 3 = up
+            if (directionTopLeft == 0) {
+                topLeftX ++;
+            } else if (directionTopLeft == 1) {
+                topLeftY ++;
+            } else if (directionTopLeft == 2) {
+                topLeftX --;
+            } else if (directionTopLeft == 3) {
+                topLeftY --;
+            }
+
+            //move bottom right tile based on direction
+            if (directionBottomRight == 0) {
+                bottomRightX ++;
+            } else if (directionBottomRight == 1) {
+                bottomRightY ++;
+            } else if (directionBottomRight == 2) {
+                bottomRightX --;
+            } else if (directionBottomRight == 3) {
+                bottomRightY --;
+            }
+
+            //increase counter and check if direction needs changing, both tiles run along the same side length
+            counter ++;
+            int side = directionTopLeft % 2 == 0 ? tileMap.getCols() - 1 : tileMap.getRows() - 1;
+            if (counter == side) {
+                counter = 0; //reset counter
+
+                directionTopLeft = (directionTopLeft + 1) % 4;
+                directionBottomRight = (directionBottomRight + 1) % 4;
+            }
+        }
+    }
+
+    /**
+     * Determines whether the current level is the last level in the game.
+     *
+     * @return true if the current level is the last level, false otherwise
+     */
+    private boolean isLastLevel() {
+
+        //checks if level index is last from levels
+        return currentLevelIndex >= config.getLevelCount() - 1;
+    }
+
+    /**
+     * Spawns a new ball at a random spawner location with a random velocity and color based on the ball queue.
+     * If no spawners or ball colors are available, this method does nothing.
+     */
+    private void spawnBall() {
+
+        //spawn new ball at random spawner location
+        if (spawnerLocations.isEmpty() || ballColoursToSpawn.isEmpty()) {
+            return;
+        }
+
+        int[] spawner = spawnerLocations.get(random.nextInt(spawnerLocations.size()));
+        float startX = spawner[0];
+        float startY = spawner[1];
+
+        //get colour for new ball
+        int colourNumber = ballColoursToSpawn.poll();
+        lastEmittedBallColor = colourNumber; //save for queue
+        currentBallIndex++;
+
+        //spawn new ball
+        Ball newBall = new Ball(startX, startY, random.nextBoolean() ? 2 : -2, random.nextBoolean() ? 2 : -2,
+                colourNumber);
+        balls.add(newBall);
+
+        //shift the visual queue by one ball width
+        queueOffset += 34;
+    }
+
+    // GETTERS
+
+    /**
+     * Returns the tile code of each cell of the level.
+     *
+     * @return the tile map
+     */
+    public TileMap getTileMap() {
+        return tileMap;
+    }
+
+    /**
+     * Returns the list of Wall objects in the current level.
+     *
+     * @return the list of Wall objects
+     */
+    public List<Wall> getWalls() {
+        return walls;
+    }
+
+    /**
+     * Returns the list of Brick objects in the current level.
+     *
+     * @return the list of Brick objects
+     */
+    public List<Brick> getBricks() {
+        return bricks;
+    }
+
+    /**
+     * Returns the cell-indexed walls and bricks of the current level.
+     *
+     * @return the collision grid
+     */
+    public TileGrid getTileGrid() {
+        return tileGrid;
+    }
+
+    /**
+     * Returns the list of Ball objects currently in the game.
+     *
+     * @return the list of Ball objects
+     */
+    public List<Ball> getBalls() {
+        return balls;
+    }
+
+    /**
+     * Returns the store holding the state of the balls, for copying it in bulk.
+     *
+     * @return the ball store
+     */
+    BallStore getBallStore() {
+        return balls;
+    }
+
+    /**
+     * Returns a number that changes whenever a line is added or removed.
+     *
+     * @return the version of the lines
+     */
+    public int getLinesVersion() {
+        return linesVersion;
+    }
+
+    /**
+     * Returns the list of Hole objects currently in the game.
+     *
+     * @return the list of Hole objects
+     */
+    public List<Hole> getHoles() {
+        return holes;
+    }
+
+    /**
+     * Returns the list of finished player-drawn lines.
+     *
+     * @return the list of Line objects
+     */
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    /**
+     * Returns the queue of ball colour numbers still waiting to be spawned.
+     *
+     * @return the spawn queue
+     */
+    public ColourQueue getBallColoursToSpawn() {
+        return ballColoursToSpawn;
+    }
+
+    /**
+     * Returns the colour number of the most recently spawned ball, or NO_COLOUR if it is hidden.
+     *
+     * @return the last emitted ball colour
+     */
+    public int getLastEmittedBallColor() {
+        return lastEmittedBallColor;
+    }
+
+    /**
+     * Returns the horizontal offset of the visual ball queue.
+     *
+     * @return the queue offset in pixels
+     */
+    public int getQueueOffset() {
+        return queueOffset;
+    }
+
+    /**
+     * Returns the number of frames until the next ball spawns.
+     *
+     * @return the spawn timer in frames
+     */
+    public int getSpawnTimer() {
+        return spawnTimer;
+    }
+
+    /**
+     * Returns the time remaining in the current level, in seconds.
+     *
+     * @return the time remaining
+     */
+    public int getTimeRemaining() {
+        return timeRemaining;
+    }
+
+    /**
+     * Returns the player's current score.
+     *
+     * @return the score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the number of balls that entered a matching hole since the game started.
+     *
+     * @return the number of correct captures
+     */
+    public int getCapturedCount() {
+        return capturedCount;
+    }
+
+    /**
+     * Returns the number of balls that entered a hole of another colour since the game started.
+     *
+     * @return the number of wrong-hole captures
+     */
+    public int getWrongHoleCount() {
+        return wrongHoleCount;
+    }
+
+    /**
+     * Returns the index of the level currently being played.
+     *
+     * @return the current level index
+     */
+    public int getCurrentLevelIndex() {
+        return currentLevelIndex;
+    }
+
+    /**
+     * Returns the number of frames simulated so far.
+     *
+     * @return the frame count
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Sets where the board of the next level is built while the score tally of a cleared level
+     * runs, so moving on to it only swaps the board in. Without one, boards are built when the
+     * level loads.
+     *
+     * @param executor runs board builds off the simulation thread, or null to build on load
+     */
+    public void setLevelPrefetch(Executor executor) {
+        this.levelPrefetch = executor;
+    }
+
+    /**
+     * Sets whether balls are moved in parallel across a fork/join pool. The result of a frame is
+     * the same either way.
+     *
+     * @param parallel true to move large ball counts in parallel
+     */
+    public void setParallelUpdate(boolean parallel) {
+        ballUpdater.setParallel(parallel);
+    }
+
+    /**
+     * Returns whether balls are moved in parallel.
+     *
+     * @return true if large ball counts are moved in parallel
+     */
+    public boolean isParallelUpdate() {
+        return ballUpdater.isParallel();
+    }
+
+    /**
+     * Returns whether balls bounce off each other on the current level.
+     *
+     * @return true if ball-to-ball collisions are enabled
+     */
+    public boolean isBallCollisions() {
+        return ballCollisions;
+    }
+
+    /**
+     * Returns whether the game is paused.
+     *
+     * @return true if paused
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Returns whether the time for the current level has run out.
+     *
+     * @return true if the time is up
+     */
+    public boolean isTimeUp() {
+        return timeUp;
+    }
+
+    /**
+     * Returns whether the game has ended, either by running out of time or by finishing the last level.
+     *
+     * @return true if the game has ended
+     */
+    public boolean isGameEnded() {
+        return gameEnded;
+    }
+
+    /**
+     * Returns whether the last level has been completed.
+     *
+     * @return true if the game was finished
+     */
+    public boolean isGameFinished() {
+        return gameFinished;
+    }
+
+    /**
+     * Returns whether the remaining time is currently being added to the score.
+     *
+     * @return true while the end of level score tally is running
+     */
+    public boolean isIncrementingScore() {
+        return incrementingScore;
+    }
+
+    /**
+     * Returns the grid position of the yellow tile travelling from the top-left corner during the score tally.
+     *
+     * @return the {x, y} grid position of the tile
+     */
+    public int[] getTopLeftTile() {
+        return new int[]{topLeftX, topLeftY};
+    }
+
+    /**
+     * Returns the grid position of the yellow tile travelling from the bottom-right corner during the score tally.
+     *
+     * @return the {x, y} grid position of the tile
+     */
+    public int[] getBottomRightTile() {
+        return new int[]{bottomRightX, bottomRightY};
+    }
+}
@@ -1,7 +1,7 @@
 
 package inkball;
 
-import processing.core.PImage;
+import processing.core.PGraphics;
 
 /**
  * Represents a hole in the InkBall game.
@@ -9,22 +9,19 @@ import processing.core.PImage;
 public class Hole implements Drawable {
     private int x, y;          // Position of the hole (centre)
     private int colourNumber;  // Colour number (e.g., 0 for grey, 1 for orange, etc.)
-    private PImage sprite;     // The sprite image representing the hole
     public static final float ATTRACTION_RADIUS = 32; // Radius for attraction force
 
     /**
-     * Constructor to initialize a hole with its position, color, and sprite.
+     * Constructor to initialize a hole with its position and color.
      *
      * @param x            The X coordinate of the hole (centre).
      * @param y            The Y coordinate of the hole (centre).
      * @param colourNumber The color number of the hole.
-     * @param sprite       The PImage sprite representing the hole.
      */
-    public Hole(int x, int y, int colourNumber, PImage sprite) {
+    public Hole(int x, int y, int colourNumber) {
         this.x = x;
         this.y = y;
         this.colourNumber = colourNumber;
-        this.sprite = sprite;
     }
 
     /**
@@ -33,7 +30,26 @@ public class Hole implements Drawable {
      * @param app The App instance for drawing.
      */
     public void draw(App app) {
-        app.image(sprite, x - (App.CELLSIZE), y - (App.CELLSIZE), App.CELLSIZE * 2, App.CELLSIZE * 2);
+        draw(app.g, app.getAtlas());
+    }
+
+    /**
+     * Draws the hole onto a graphics buffer, such as the background layer.
+     *
+     * @param g     the graphics to draw on, in window coordinates
+     * @param atlas the sprite atlas to draw from
+     */
+    public void draw(PGraphics g, SpriteAtlas atlas) {
+        atlas.draw(g, getSpriteRegion(), x - (App.CELLSIZE), y - (App.CELLSIZE), App.CELLSIZE * 2, App.CELLSIZE * 2);
+    }
+
+    /**
+     * Gets the sprite atlas region the hole is drawn with.
+     *
+     * @return the region id
+     */
+    public int getSpriteRegion() {
+        return SpriteAtlas.hole(colourNumber);
     }
 
     /**
@@ -50,6 +66,11 @@ public class Hole implements Drawable {
         // Calculate distance between ball and hole center
         float dx = x - centreX;
         float dy = y - centreY;
+
+        // Far outside the attraction radius, skip the square root
+        if (dx * dx + dy * dy > (ATTRACTION_RADIUS + 1) * (ATTRACTION_RADIUS + 1)) {
+            return 0;
+        }
         float distance = (float) Math.sqrt(dx * dx + dy * dy);
 
         // If within attraction radius (32 pixels)
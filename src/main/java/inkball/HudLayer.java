@@ -0,0 +1,243 @@
+package inkball;
+
+import java.util.Arrays;
+
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PGraphics;
+
+/**
+ * The top bar, holding the ball queue, the spawn countdown, the time, the score and the status
+ * messages, rendered into an offscreen buffer and drawn with a single image call per frame. The
+ * buffer is only rendered again when one of the values it shows changes, and the numbers are
+ * written into a reused character buffer, so frames where nothing changes allocate nothing.
+ */
+public class HudLayer {
+
+    public static final int FIELDS = 11; // values read by readFields
+
+    private static final char[] SCORE = "Score: ".toCharArray();
+    private static final char[] TIME = "Time: ".toCharArray();
+    private static final int QUEUE_X = 20;
+    private static final int QUEUE_Y = 10;
+    private static final int BALL_SPACING = 34;
+    private static final int COUNTDOWN_X = 200;
+    private static final int COUNTDOWN_Y = 20;
+
+    private final PApplet app;
+    private final SpriteAtlas atlas;
+    private PGraphics layer;
+    private final int[] fields = new int[FIELDS];
+    private final int[] renderedFields = new int[FIELDS];
+    private boolean rendered = false;
+    private final char[] text = new char[32]; // text of the value being written
+    private int textLength = 0;
+
+    /**
+     * Constructs an empty top bar.
+     *
+     * @param app   the window that creates the buffer and draws it
+     * @param atlas the sprite atlas to draw the queued balls from
+     */
+    public HudLayer(PApplet app, SpriteAtlas atlas) {
+        this.app = app;
+        this.atlas = atlas;
+    }
+
+    /**
+     * Reads every value shown in the top bar. The spawn countdown is shown to a tenth of a
+     * second, so it is read in tenths and only changes when the shown value does.
+     *
+     * @param state  the snapshot about to be drawn
+     * @param fields receives the values, at least FIELDS long
+     */
+    public static void readFields(Snapshot state, int[] fields) {
+        ColourQueue queue = state.getBallColoursToSpawn();
+        int queueHash = 0;
+        for (int i = 0; i < queue.size(); i++) {
+            queueHash = queueHash * 31 + queue.get(i) + 1;
+        }
+
+        fields[0] = state.getScore();
+        fields[1] = state.getTimeRemaining();
+        fields[2] = spawnTenths(state.getSpawnTimer());
+        fields[3] = state.getQueueOffset();
+        fields[4] = queueHash;
+        fields[5] = state.getLastEmittedBallColor();
+        fields[6] = state.isPaused() ? 1 : 0;
+        fields[7] = state.isTimeUp() ? 1 : 0;
+        fields[8] = state.isGameEnded() ? 1 : 0;
+        fields[9] = state.isGameFinished() ? 1 : 0;
+        fields[10] = state.isIncrementingScore() ? 1 : 0;
+    }
+
+    /**
+     * Renders the top bar again if any value shown in it changed since it was last rendered.
+     *
+     * @param state the snapshot to draw
+     * @return true if the top bar was rendered again
+     */
+    public boolean update(Snapshot state) {
+        readFields(state, fields);
+        if (rendered && Arrays.equals(fields, renderedFields)) {
+            return false;
+        }
+        if (layer == null) {
+            layer = app.createGraphics(App.WIDTH, App.TOPBAR);
+        }
+
+        layer.beginDraw();
+        layer.background(123);
+        drawBallQueue(state);
+        drawTimer(state);
+        drawScore(state);
+        drawMessages(state);
+        layer.endDraw();
+
+        System.arraycopy(fields, 0, renderedFields, 0, FIELDS);
+        rendered = true;
+        return true;
+    }
+
+    /**
+     * Draws the top bar at the top of the window.
+     */
+    public void draw() {
+        app.image(layer, 0, 0);
+    }
+
+    /**
+     * Draws the ball queue, showing the upcoming balls to be spawned and the last emitted ball.
+     *
+     * @param state the snapshot to draw
+     */
+    private void drawBallQueue(Snapshot state) {
+        int startX = QUEUE_X + state.getQueueOffset();
+
+        layer.noStroke();
+        layer.fill(0);
+        layer.rect(18, 5, 170, 44);
+
+        //the last emitted ball slides out on the left while the queue shifts along
+        int lastEmittedBallColor = state.getLastEmittedBallColor();
+        if (lastEmittedBallColor != GameState.NO_COLOUR) {
+            atlas.draw(layer, SpriteAtlas.ball(lastEmittedBallColor), startX - BALL_SPACING, QUEUE_Y,
+                    App.CELLSIZE, App.CELLSIZE);
+        }
+        ColourQueue queue = state.getBallColoursToSpawn();
+        for (int i = 0; i < queue.size(); i++) {
+            atlas.draw(layer, SpriteAtlas.ball(queue.get(i)), startX + i * BALL_SPACING, QUEUE_Y,
+                    App.CELLSIZE, App.CELLSIZE);
+        }
+
+        //mask off sides
+        layer.fill(200);
+        layer.rect(0, 5, 18, 44);
+        layer.rect(188, 5, App.WIDTH - 190, 44);
+        layer.rect(0, 0, App.WIDTH, 5);
+        layer.rect(0, 49, App.WIDTH, App.TOPBAR - 49);
+    }
+
+    /**
+     * Draws the remaining time and the countdown to the next ball spawn.
+     *
+     * @param state the snapshot to draw
+     */
+    private void drawTimer(Snapshot state) {
+        layer.fill(0);
+        layer.textSize(16);
+        layer.textAlign(PConstants.RIGHT, PConstants.CENTER);
+        startText(TIME);
+        appendNumber(state.getTimeRemaining());
+        layer.text(text, 0, textLength, App.WIDTH - 30, 40);
+
+        //seconds to a tenth, as "%.1f" would show them
+        int tenths = spawnTenths(state.getSpawnTimer());
+        layer.textSize(14);
+        layer.textAlign(PConstants.LEFT, PConstants.CENTER);
+        textLength = 0;
+        if (tenths < 0) {
+            text[textLength++] = '-';
+            tenths = -tenths;
+        }
+        appendNumber(tenths / 10);
+        text[textLength++] = '.';
+        text[textLength++] = (char) ('0' + tenths % 10);
+        layer.text(text, 0, textLength, COUNTDOWN_X, COUNTDOWN_Y);
+    }
+
+    /**
+     * Draws the score.
+     *
+     * @param state the snapshot to draw
+     */
+    private void drawScore(Snapshot state) {
+        layer.fill(0);
+        layer.textSize(16);
+        layer.textAlign(PConstants.RIGHT, PConstants.CENTER);
+        startText(SCORE);
+        appendNumber(state.getScore());
+        layer.text(text, 0, textLength, App.WIDTH - 30, 20);
+    }
+
+    /**
+     * Draws the pause, time up or game end message, if any.
+     *
+     * @param state the snapshot to draw
+     */
+    private void drawMessages(Snapshot state) {
+        layer.fill(255, 0, 0);
+        layer.textAlign(PConstants.CENTER, PConstants.CENTER);
+        if (state.isPaused()) {
+            layer.text("=== PAUSED ===", App.WIDTH / 2, App.TOPBAR - 20);
+        } else if (state.isTimeUp() && state.isGameEnded() && !state.isGameFinished()) {
+            layer.text("=== TIME'S UP ===", App.WIDTH / 2, App.TOPBAR - 20);
+        } else if (!state.isTimeUp() && state.isGameEnded() && state.isGameFinished()) {
+            layer.text("=== ENDED ===", App.WIDTH / 2, App.TOPBAR / 2);
+        }
+    }
+
+    /**
+     * Converts the spawn timer to the tenths of a second shown.
+     *
+     * @param spawnTimer the ticks until the next spawn
+     * @return the rounded tenths of a second
+     */
+    private static int spawnTenths(int spawnTimer) {
+        return Math.round(spawnTimer * 10f / App.FPS);
+    }
+
+    /**
+     * Starts the text buffer with a fixed label.
+     *
+     * @param label the label
+     */
+    private void startText(char[] label) {
+        System.arraycopy(label, 0, text, 0, label.length);
+        textLength = label.length;
+    }
+
+    /**
+     * Appends the decimal digits of a number to the text buffer.
+     *
+     * @param value the number
+     */
+    private void appendNumber(int value) {
+        if (value < 0) {
+            text[textLength++] = '-';
+            value = -value;
+        }
+        int start = textLength;
+        do {
+            text[textLength++] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+
+        //digits were written lowest first
+        for (int i = start, j = textLength - 1; i < j; i++, j--) {
+            char swap = text[i];
+            text[i] = text[j];
+            text[j] = swap;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package inkball;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import processing.core.PApplet;
+import processing.core.PGraphics;
+
+/**
+ * The finished lines of a level, rasterised into an offscreen buffer once when they are added
+ * and drawn with a single image call per frame, so the cost of a frame does not grow with the
+ * amount of ink on the board. Only the line the player is still drawing is drawn live.
+ * <p>
+ * The buffer covers the same cells as the {@link BackgroundLayer}, and only holds the lines that
+ * reach into them. When the camera scrolls to a new origin cell the buffer is rendered again
+ * from those lines.
+ * <p>
+ * When a line is removed, by a ball or by the player, only its bounding box is cleared and the
+ * remaining lines that reach into the box are drawn again inside it.
+ */
+public class InkLayer {
+
+    private final PApplet app;
+    private PGraphics layer;
+    private final ArrayList<Line> drawnLines = new ArrayList<>(); // lines currently in the layer
+    private final Set<Line> drawnSet = Collections.newSetFromMap(new IdentityHashMap<>()); // same lines, for lookups
+    private final Set<Line> currentSet = Collections.newSetFromMap(new IdentityHashMap<>()); // lines of the snapshot
+    private final ArrayList<Line> removedLines = new ArrayList<>(); // scratch for lines to erase
+    private int drawnVersion = -1; // lines version of the snapshot the layer matches
+    private int drawnCol = -1;     // first column in the layer
+    private int drawnRow = -1;     // first row in the layer
+
+    /**
+     * Constructs an empty ink layer.
+     *
+     * @param app the window that creates the buffer and draws it
+     */
+    public InkLayer(PApplet app) {
+        this.app = app;
+    }
+
+    /**
+     * Brings the layer up to date with the lines of a snapshot. Does nothing unless a line
+     * was added or removed, or the camera moved to a new origin cell, since the last update.
+     *
+     * @param state  the snapshot to draw
+     * @param camera the part of the board in view
+     */
+    public void update(Snapshot state, Camera camera) {
+        if (layer == null) {
+            layer = app.createGraphics(camera.getLayerWidth(), camera.getLayerHeight());
+        }
+        boolean moved = camera.getLayerCol() != drawnCol || camera.getLayerRow() != drawnRow;
+        if (!moved && state.getLinesVersion() == drawnVersion) {
+            return;
+        }
+        drawnVersion = state.getLinesVersion();
+        drawnCol = camera.getLayerCol();
+        drawnRow = camera.getLayerRow();
+        List<Line> lines = state.getLines();
+
+        layer.beginDraw();
+        layer.pushMatrix();
+        layer.translate(-getLeft(), -getTop());
+        layer.stroke(0);
+
+        //a new level, a restart or a scroll to a new cell starts again from an empty layer
+        if (lines.isEmpty() || moved) {
+            layer.clear();
+            drawnLines.clear();
+            drawnSet.clear();
+        }
+
+        //identity sets keep the lookups below constant time however much ink is on the board
+        currentSet.clear();
+        currentSet.addAll(lines);
+
+        //take removed lines out in one pass, keeping the drawing order of the rest
+        int kept = 0;
+        for (int i = 0; i < drawnLines.size(); i++) {
+            Line line = drawnLines.get(i);
+            if (currentSet.contains(line)) {
+                drawnLines.set(kept++, line);
+            } else {
+                drawnSet.remove(line);
+                removedLines.add(line);
+            }
+        }
+        drawnLines.subList(kept, drawnLines.size()).clear();
+
+        //erase removed lines first, so only lines already in the layer are redrawn around them
+        for (Line line : removedLines) {
+            erase(line);
+        }
+        removedLines.clear();
+
+        //lines that do not reach into the layer are left out until the camera gets near them
+        for (Line line : lines) {
+            if (!drawnSet.contains(line) && inLayer(line)) {
+                line.draw(layer);
+                drawnLines.add(line);
+                drawnSet.add(line);
+            }
+        }
+        currentSet.clear();
+        layer.popMatrix();
+        layer.endDraw();
+    }
+
+    /**
+     * Draws the whole layer in the view.
+     *
+     * @param camera the part of the board in view
+     */
+    public void draw(Camera camera) {
+        app.image(layer, getLeft() - camera.getX(), getTop() - camera.getY());
+    }
+
+    /**
+     * Draws part of the layer at the same place in the window.
+     *
+     * @param x      the left of the part, in window coordinates
+     * @param y      the top of the part, in window coordinates
+     * @param width  the width of the part
+     * @param height the height of the part
+     * @param camera the part of the board in view
+     */
+    public void draw(int x, int y, int width, int height, Camera camera) {
+        int left = x + camera.getX() - getLeft();
+        int top = y + camera.getY() - getTop();
+        app.image(layer, x, y, width, height, left, top, left + width, top + height);
+    }
+
+    /**
+     * Clears the bounding box of a removed line, then draws the remaining lines again inside it.
+     *
+     * @param removed the line to erase
+     */
+    private void erase(Line removed) {
+        float margin = removed.getHalfThickness() + 2; // stroke caps and anti-aliasing
+        int left = Math.max(0, (int) (removed.bound(0) - margin) - getLeft());
+        int top = Math.max(0, (int) (removed.bound(1) - margin) - getTop());
+        int right = Math.min(layer.width, (int) (removed.bound(2) + margin) + 1 - getLeft());
+        int bottom = Math.min(layer.height, (int) (removed.bound(3) + margin) + 1 - getTop());
+        if (left >= right || top >= bottom) {
+            return;
+        }
+
+        //back to board coordinates, where the lines are
+        left += getLeft();
+        top += getTop();
+        right += getLeft();
+        bottom += getTop();
+
+        //clear only the box, going through pixels would copy the whole layer both ways
+        if (layer.getNative() instanceof Graphics2D) {
+            Graphics2D g2 = (Graphics2D) layer.getNative();
+            Composite composite = g2.getComposite();
+            g2.setComposite(AlphaComposite.Clear);
+            g2.fillRect(left, top, right - left, bottom - top);
+            g2.setComposite(composite);
+        } else {
+            layer.pushStyle();
+            layer.blendMode(PApplet.REPLACE);
+            layer.noStroke();
+            layer.fill(0, 0);
+            layer.rect(left, top, right - left, bottom - top);
+            layer.popStyle();
+        }
+
+        layer.clip(left, top, right - left, bottom - top);
+        for (Line line : drawnLines) {
+            if (line.nearBox(left, top, right, bottom, line.getHalfThickness())) {
+                line.draw(layer);
+            }
+        }
+        layer.noClip();
+    }
+
+    /**
+     * Checks whether a line reaches into the layer.
+     *
+     * @param line the line
+     * @return true if the line may cover a pixel of the layer
+     */
+    private boolean inLayer(Line line) {
+        return line.nearBox(getLeft(), getTop(), getLeft() + layer.width, getTop() + layer.height,
+                line.getHalfThickness() + 2);
+    }
+
+    /**
+     * Gets the board x-coordinate of the left of the layer.
+     *
+     * @return the left of the layer
+     */
+    private int getLeft() {
+        return drawnCol * App.CELLSIZE;
+    }
+
+    /**
+     * Gets the board y-coordinate of the top of the layer.
+     *
+     * @return the top of the layer
+     */
+    private int getTop() {
+        return drawnRow * App.CELLSIZE + App.TOPBAR;
+    }
+}
@@ -0,0 +1,18 @@
+package inkball;
+
+import java.util.Random;
+
+/**
+ * Plays the part of the player in a game without a window, deciding each frame whether to draw
+ * or erase lines. A policy is created for every game, so it may keep state between frames.
+ */
+public interface InputPolicy {
+
+    /**
+     * Acts on the game before the next frame is simulated.
+     *
+     * @param state  the game being played
+     * @param random the random source of the player, separate from the game's own
+     */
+    void act(GameState state, Random random);
+}
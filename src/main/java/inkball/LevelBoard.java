@@ -0,0 +1,140 @@
+package inkball;
+
+import java.util.ArrayList;
+
+/**
+ * The fixed part of a level as it starts: the tile map, the collision grid and the walls,
+ * bricks, holes and spawners, built from a compiled layout. Building a board touches nothing
+ * but the layout, so the next level's board can be built on another thread while the current
+ * level is still running, and handed to the game state in one step.
+ * <p>
+ * Bricks crack as the level is played, so a board is used by one level start only.
+ */
+public final class LevelBoard {
+
+    private final TileMap tileMap;
+    private final TileGrid tileGrid;
+    private final ArrayList<Wall> walls = new ArrayList<>();
+    private final ArrayList<Brick> bricks = new ArrayList<>();
+    private final ArrayList<Hole> holes = new ArrayList<>();
+    private final ArrayList<int[]> spawnerLocations = new ArrayList<>();
+
+    /**
+     * Builds the board of a level.
+     *
+     * @param layout the compiled layout of the level
+     */
+    public LevelBoard(LevelLayout layout) {
+        tileMap = new TileMap(layout.getCols(), layout.getRows());
+        tileGrid = new TileGrid(layout.getCols(), layout.getRows());
+
+        //set the code of every cell that is not a plain tile from the tables, so only chunks
+        //holding an entity are allocated; balls come last, as their cells were plain in the text
+        for (int i = 0; i < layout.getCount(LevelLayout.WALLS); i++) {
+            tileMap.set(layout.getCol(LevelLayout.WALLS, i), layout.getRow(LevelLayout.WALLS, i),
+                    TileMap.wall(layout.getColour(LevelLayout.WALLS, i)));
+        }
+        for (int i = 0; i < layout.getCount(LevelLayout.SPAWNERS); i++) {
+            tileMap.set(layout.getCol(LevelLayout.SPAWNERS, i), layout.getRow(LevelLayout.SPAWNERS, i),
+                    TileMap.ENTRYPOINT);
+        }
+        for (int i = 0; i < layout.getCount(LevelLayout.HOLES); i++) {
+            int col = layout.getCol(LevelLayout.HOLES, i);
+            int row = layout.getRow(LevelLayout.HOLES, i);
+            byte code = TileMap.hole(layout.getColour(LevelLayout.HOLES, i));
+            tileMap.set(col, row, code);
+            tileMap.set(col + 1, row, code);
+            tileMap.set(col, row + 1, code);
+            tileMap.set(col + 1, row + 1, code);
+        }
+        for (int i = 0; i < layout.getCount(LevelLayout.BALLS); i++) {
+            int col = layout.getCol(LevelLayout.BALLS, i);
+            int row = layout.getRow(LevelLayout.BALLS, i);
+            tileMap.set(col, row, TileMap.TILE);
+            tileMap.set(col + 1, row, TileMap.TILE);
+        }
+
+        for (int i = 0; i < layout.getCount(LevelLayout.WALLS); i++) {
+            Wall wall = new Wall(layout.getCol(LevelLayout.WALLS, i), layout.getRow(LevelLayout.WALLS, i),
+                    layout.getColour(LevelLayout.WALLS, i));
+            walls.add(wall);
+            tileGrid.addWall(wall);
+        }
+
+        //bricks are drawn with the wall sprites
+        for (int i = 0; i < layout.getCount(LevelLayout.BRICKS); i++) {
+            Brick brick = new Brick(layout.getCol(LevelLayout.BRICKS, i), layout.getRow(LevelLayout.BRICKS, i),
+                    layout.getColour(LevelLayout.BRICKS, i));
+            bricks.add(brick);
+            tileGrid.addBrick(brick);
+        }
+
+        //holes are two cells across, centred on the corner between their four cells
+        for (int i = 0; i < layout.getCount(LevelLayout.HOLES); i++) {
+            int centreX = layout.getCol(LevelLayout.HOLES, i) * App.CELLSIZE + App.CELLSIZE;
+            int centreY = layout.getRow(LevelLayout.HOLES, i) * App.CELLSIZE + App.CELLSIZE + App.TOPBAR;
+            Hole hole = new Hole(centreX, centreY, layout.getColour(LevelLayout.HOLES, i));
+            holes.add(hole);
+            tileGrid.addHole(hole);
+        }
+
+        for (int i = 0; i < layout.getCount(LevelLayout.SPAWNERS); i++) {
+            spawnerLocations.add(new int[]{layout.getCol(LevelLayout.SPAWNERS, i) * App.CELLSIZE,
+                    layout.getRow(LevelLayout.SPAWNERS, i) * App.CELLSIZE + App.TOPBAR});
+        }
+    }
+
+    /**
+     * Gets the tile code of each cell.
+     *
+     * @return the tile map
+     */
+    public TileMap getTileMap() {
+        return tileMap;
+    }
+
+    /**
+     * Gets the walls, bricks and holes indexed by cell.
+     *
+     * @return the collision grid
+     */
+    public TileGrid getTileGrid() {
+        return tileGrid;
+    }
+
+    /**
+     * Gets the walls.
+     *
+     * @return the walls in layout order
+     */
+    public ArrayList<Wall> getWalls() {
+        return walls;
+    }
+
+    /**
+     * Gets the bricks.
+     *
+     * @return the bricks in layout order
+     */
+    public ArrayList<Brick> getBricks() {
+        return bricks;
+    }
+
+    /**
+     * Gets the holes.
+     *
+     * @return the holes in layout order
+     */
+    public ArrayList<Hole> getHoles() {
+        return holes;
+    }
+
+    /**
+     * Gets the top-left corner of each spawner.
+     *
+     * @return the spawner coordinates in layout order
+     */
+    public ArrayList<int[]> getSpawnerLocations() {
+        return spawnerLocations;
+    }
+}
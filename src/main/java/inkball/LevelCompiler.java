@@ -0,0 +1,310 @@
+package inkball;
+
+import processing.core.PApplet;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Compiles level layout files into a binary format that loads without parsing any text, and
+ * keeps compiled levels in a cache next to the config so each layout is only parsed once.
+ * <p>
+ * A compiled level is, in big-endian order: the magic number and format version, the length
+ * and CRC32 of the layout text it was compiled from, the columns and rows, the entity count of
+ * each LevelLayout table, then each table as a column, a row and a colour byte per entity, and
+ * finally a CRC32 of everything before it. Tile codes are not stored, since LevelBoard sets them
+ * from the tables, so a compiled level grows with its entities and not its area. Compiled files
+ * are memory-mapped and read with bulk gets. A file with the wrong magic, version, size or
+ * checksum, or compiled from other text than the layout file now holds, is compiled again.
+ */
+public final class LevelCompiler {
+
+    public static final int MAGIC = 0x494e4b4c;             // "INKL"
+    public static final int VERSION = 3;
+    public static final String EXTENSION = ".lvl";
+    public static final String CACHE_DIR = "levelcache";    // next to config.json
+
+    private static final int HEADER = 4 * (6 + LevelLayout.TABLES); // magic, version, source, cols, rows, counts
+    private static final int ENTITY = 9;                            // column, row, colour
+    private static final int CHECKSUM = 4;
+
+    private LevelCompiler() {
+    }
+
+    /**
+     * Parses the text of a layout file. Every character is read here, once, and nowhere else.
+     *
+     * @param lines the lines of the layout file
+     * @return the layout
+     */
+    public static LevelLayout parse(String[] lines) {
+        int cols = 0;
+        for (String line : lines) {
+            cols = Math.max(cols, line.length());
+        }
+        int rows = lines.length;
+        int[][] tables = new int[LevelLayout.TABLES][24];
+        int[] sizes = new int[LevelLayout.TABLES];
+
+        for (int row = 0; row < rows; row++) {
+            String line = lines[row];
+            for (int col = 0; col < line.length(); col++) {
+                char tileChar = line.charAt(col);
+                char nextChar = col + 1 < line.length() ? line.charAt(col + 1) : ' ';
+
+                //walls, 'X' is grey and '1' to '4' their colour
+                if (tileChar == 'X' || tileChar >= '1' && tileChar <= '4') {
+                    int colour = tileChar == 'X' ? Colours.GREY : tileChar - '0';
+                    add(tables, sizes, LevelLayout.WALLS, col, row, colour);
+                } else if (tileChar >= '5' && tileChar <= '9') {
+                    add(tables, sizes, LevelLayout.BRICKS, col, row, tileChar - '5');
+                } else if (tileChar == 'S') {
+                    add(tables, sizes, LevelLayout.SPAWNERS, col, row, 0);
+                } else if (tileChar == 'B') {
+                    add(tables, sizes, LevelLayout.BALLS, col, row, Colours.fromDigit(nextChar));
+                } else if (tileChar == 'H') {
+                    add(tables, sizes, LevelLayout.HOLES, col, row, Colours.fromDigit(nextChar));
+                }
+
+                //skip the number after a ball or hole letter
+                if (tileChar == 'B' || tileChar == 'H' || tileChar == 'F' || tileChar == 'V') {
+                    col++;
+                }
+            }
+        }
+
+        for (int table = 0; table < LevelLayout.TABLES; table++) {
+            tables[table] = Arrays.copyOf(tables[table], sizes[table]);
+        }
+        return new LevelLayout(cols, rows, tables);
+    }
+
+    /**
+     * Encodes a layout in the compiled format.
+     *
+     * @param layout the layout
+     * @param source the layout text it was parsed from, or null if there is none to check against
+     * @return the bytes of the compiled level
+     */
+    public static byte[] compile(LevelLayout layout, byte[] source) {
+        int entities = 0;
+        for (int table = 0; table < LevelLayout.TABLES; table++) {
+            entities += layout.getCount(table);
+        }
+        int size = HEADER + entities * ENTITY + CHECKSUM;
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(MAGIC).putInt(VERSION);
+        out.putInt(source == null ? -1 : source.length).putInt(source == null ? 0 : checksum(source));
+        out.putInt(layout.getCols()).putInt(layout.getRows());
+        for (int table = 0; table < LevelLayout.TABLES; table++) {
+            out.putInt(layout.getCount(table));
+        }
+        for (int table = 0; table < LevelLayout.TABLES; table++) {
+            for (int i = 0; i < layout.getCount(table); i++) {
+                out.putInt(layout.getCol(table, i)).putInt(layout.getRow(table, i))
+                        .put((byte) layout.getColour(table, i));
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), 0, size - CHECKSUM);
+        out.putInt((int) crc.getValue());
+        return out.array();
+    }
+
+    /**
+     * Decodes a compiled level, checking its header, size and checksum first.
+     *
+     * @param buffer the compiled level, from its position to its limit
+     * @return the layout
+     * @throws IllegalArgumentException if the bytes are not a valid compiled level
+     */
+    public static LevelLayout read(ByteBuffer buffer) {
+        ByteBuffer in = buffer.slice();
+        int size = in.limit();
+        if (size < HEADER + CHECKSUM || in.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a compiled level");
+        }
+        if (in.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported compiled level version " + in.getInt(4));
+        }
+
+        ByteBuffer body = in.duplicate();
+        body.limit(size - CHECKSUM);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != in.getInt(size - CHECKSUM)) {
+            throw new IllegalArgumentException("Compiled level checksum does not match");
+        }
+
+        in.position(16);
+        int cols = in.getInt();
+        int rows = in.getInt();
+        int[] counts = new int[LevelLayout.TABLES];
+        long expected = HEADER + CHECKSUM;
+        for (int table = 0; table < LevelLayout.TABLES; table++) {
+            counts[table] = in.getInt();
+            expected += (long) counts[table] * ENTITY;
+            if (counts[table] < 0) {
+                expected = -1;
+            }
+        }
+        if (cols < 0 || rows < 0 || expected != size) {
+            throw new IllegalArgumentException("Compiled level size does not match its header");
+        }
+
+        int[][] tables = new int[LevelLayout.TABLES][];
+        for (int table = 0; table < LevelLayout.TABLES; table++) {
+            int[] entities = new int[3 * counts[table]];
+            for (int i = 0; i < entities.length; i += 3) {
+                entities[i] = in.getInt();
+                entities[i + 1] = in.getInt();
+                entities[i + 2] = in.get();
+            }
+            tables[table] = entities;
+        }
+        return new LevelLayout(cols, rows, tables);
+    }
+
+    /**
+     * Memory-maps a compiled level file and decodes it.
+     *
+     * @param file the compiled level
+     * @return the layout
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid compiled level
+     */
+    public static LevelLayout map(File file) throws IOException {
+        return map(file, null);
+    }
+
+    /**
+     * Memory-maps a compiled level file and decodes it if it was compiled from the given text.
+     * The magic number, version and source fields are read into a small buffer first, so a
+     * stale file is never mapped, as a file with a live mapping cannot be replaced on every
+     * platform.
+     *
+     * @param file   the compiled level
+     * @param source the current layout text, or null to accept any
+     * @return the layout, or null if it is an older format or was compiled from other text
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid compiled level
+     */
+    private static LevelLayout map(File file, byte[] source) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (source != null) {
+                ByteBuffer head = ByteBuffer.allocate(16); // magic, version, source length and CRC
+                while (head.hasRemaining() && channel.read(head) >= 0) {
+                    //read until the header is full or the file ends
+                }
+                if (head.hasRemaining() || head.getInt(0) != MAGIC || head.getInt(4) != VERSION
+                        || head.getInt(8) != source.length || head.getInt(12) != checksum(source)) {
+                    return null;
+                }
+            }
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes a layout to a compiled level file, replacing it in one move so a reader never
+     * sees half a file.
+     *
+     * @param layout the layout
+     * @param source the layout text it was parsed from, or null
+     * @param file   the compiled level file, its directory created if missing
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(LevelLayout layout, byte[] source, File file) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        File temp = new File(dir, file.getName() + ".tmp");
+        Files.write(temp.toPath(), compile(layout, source));
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Loads a layout from its compiled file if that was compiled from the text the layout file
+     * holds now, or else parses the text and compiles it for next time. The text is only read
+     * and checksummed, not parsed, to check the compiled file; modification times are not
+     * trusted, since checkouts and copies can give edited text an older one. Without the text
+     * the compiled file is used as it is.
+     *
+     * @param layoutFile   the text layout file
+     * @param compiledFile the compiled level file in the cache
+     * @return the layout, or null if neither file can be read
+     */
+    public static LevelLayout load(File layoutFile, File compiledFile) {
+        byte[] source = null;
+        try {
+            source = Files.readAllBytes(layoutFile.toPath());
+        } catch (IOException e) {
+            //no text, only the compiled file can be used
+        }
+
+        if (compiledFile.isFile()) {
+            try {
+                LevelLayout layout = map(compiledFile, source);
+                if (layout != null) {
+                    return layout;
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                //damaged or an older format, compile it again below
+            }
+        }
+        if (source == null) {
+            return null;
+        }
+
+        LevelLayout layout = parse(PApplet.loadStrings(new ByteArrayInputStream(source)));
+        try {
+            write(layout, source, compiledFile);
+        } catch (IOException e) {
+            //the cache is only an optimisation, the text is parsed again next time
+        }
+        return layout;
+    }
+
+    /**
+     * Calculates the CRC32 of some bytes.
+     *
+     * @param bytes the bytes
+     * @return the checksum
+     */
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Adds an entity to a growing table.
+     *
+     * @param tables the tables
+     * @param sizes  the number of values used in each table
+     * @param table  the table to add to
+     * @param col    the column of the entity
+     * @param row    the row of the entity
+     * @param colour the colour of the entity
+     */
+    private static void add(int[][] tables, int[] sizes, int table, int col, int row, int colour) {
+        if (sizes[table] + 3 > tables[table].length) {
+            tables[table] = Arrays.copyOf(tables[table], 2 * tables[table].length);
+        }
+        int[] entities = tables[table];
+        entities[sizes[table]++] = col;
+        entities[sizes[table]++] = row;
+        entities[sizes[table]++] = colour;
+    }
+}
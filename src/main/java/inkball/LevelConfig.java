@@ -0,0 +1,125 @@
+package inkball;
+
+/**
+ * The settings of one level, read from config.json together with its compiled layout.
+ * Everything is parsed into primitive fields and colour ids when the config is loaded, so
+ * starting or restarting a level reads nothing from disk and parses no text.
+ * A level config never changes once created.
+ */
+public final class LevelConfig {
+
+    private final String layoutName;
+    private final LevelLayout layout;
+    private final int time;            // seconds to clear the level
+    private final int spawnInterval;   // seconds between ball spawns
+    private final float scoreIncreaseModifier;
+    private final float scoreDecreaseModifier;
+    private final boolean ballCollisions;
+    private final int[] balls;         // colour ids of the balls to spawn, in order
+
+    /**
+     * Constructs a level config from values already validated by GameConfig.
+     *
+     * @param layoutName            the name of the layout file
+     * @param layout                the compiled layout
+     * @param time                  the seconds to clear the level
+     * @param spawnInterval         the seconds between ball spawns
+     * @param scoreIncreaseModifier the multiplier for balls entering a matching hole
+     * @param scoreDecreaseModifier the multiplier for balls entering a wrong hole
+     * @param ballCollisions        whether balls bounce off each other
+     * @param balls                 the colour ids of the balls to spawn, copied
+     */
+    LevelConfig(String layoutName, LevelLayout layout, int time, int spawnInterval, float scoreIncreaseModifier,
+                float scoreDecreaseModifier, boolean ballCollisions, int[] balls) {
+        this.layoutName = layoutName;
+        this.layout = layout;
+        this.time = time;
+        this.spawnInterval = spawnInterval;
+        this.scoreIncreaseModifier = scoreIncreaseModifier;
+        this.scoreDecreaseModifier = scoreDecreaseModifier;
+        this.ballCollisions = ballCollisions;
+        this.balls = balls.clone();
+    }
+
+    /**
+     * Gets the name of the layout file.
+     *
+     * @return the file name
+     */
+    public String getLayoutName() {
+        return layoutName;
+    }
+
+    /**
+     * Gets the compiled layout of the board.
+     *
+     * @return the layout
+     */
+    public LevelLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Gets the time to clear the level.
+     *
+     * @return the time in seconds
+     */
+    public int getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the time between ball spawns.
+     *
+     * @return the interval in seconds
+     */
+    public int getSpawnInterval() {
+        return spawnInterval;
+    }
+
+    /**
+     * Gets the multiplier applied to the score for a ball entering a matching hole.
+     *
+     * @return the modifier
+     */
+    public float getScoreIncreaseModifier() {
+        return scoreIncreaseModifier;
+    }
+
+    /**
+     * Gets the multiplier applied to the penalty for a ball entering a wrong hole.
+     *
+     * @return the modifier
+     */
+    public float getScoreDecreaseModifier() {
+        return scoreDecreaseModifier;
+    }
+
+    /**
+     * Checks whether balls bounce off each other in this level.
+     *
+     * @return true if ball collisions are on
+     */
+    public boolean hasBallCollisions() {
+        return ballCollisions;
+    }
+
+    /**
+     * Gets the number of balls to spawn.
+     *
+     * @return the length of the spawn list
+     */
+    public int getBallCount() {
+        return balls.length;
+    }
+
+    /**
+     * Gets the colour of a ball to spawn.
+     *
+     * @param index the position of the ball in the spawn list
+     * @return the colour id
+     */
+    public int getBall(int index) {
+        return balls[index];
+    }
+}
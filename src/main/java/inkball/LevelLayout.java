@@ -0,0 +1,99 @@
+package inkball;
+
+/**
+ * The board of one level as compiled from its layout file: its size and a table of positions for
+ * each kind of entity. Layouts are built by LevelCompiler, either from the text of a layout file
+ * or from a compiled level file, and never change afterwards, so starting a level only creates
+ * entities from the tables. Tile codes follow from the tables and are set by LevelBoard, so a
+ * layout holds nothing per cell and stays small however large the board is.
+ * <p>
+ * Every table lists its entities in the order they appear in the layout file, row by row, so
+ * levels built from a compiled file place and number their entities exactly as the text did.
+ */
+public final class LevelLayout {
+
+    public static final int WALLS = 0;     // walls, with their colour
+    public static final int BRICKS = 1;    // bricks, with their colour
+    public static final int HOLES = 2;     // top-left cell of each hole, with its colour
+    public static final int BALLS = 3;     // balls placed on the board, with their colour
+    public static final int SPAWNERS = 4;  // entrypoints, colour unused
+    public static final int TABLES = 5;
+
+    private final int cols;
+    private final int rows;
+    private final int[][] entities;  // column, row and colour of each entity, by table
+
+    /**
+     * Constructs a layout, taking ownership of the arrays.
+     *
+     * @param cols     the number of columns
+     * @param rows     the number of rows
+     * @param entities the column, row and colour triples of each table
+     */
+    LevelLayout(int cols, int rows, int[][] entities) {
+        this.cols = cols;
+        this.rows = rows;
+        this.entities = entities;
+    }
+
+    /**
+     * Gets the number of columns of the board.
+     *
+     * @return the number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Gets the number of rows of the board.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of entities in a table.
+     *
+     * @param table WALLS, BRICKS, HOLES, BALLS or SPAWNERS
+     * @return the number of entities
+     */
+    public int getCount(int table) {
+        return entities[table].length / 3;
+    }
+
+    /**
+     * Gets the column of an entity.
+     *
+     * @param table the table of the entity
+     * @param index the index of the entity in the table
+     * @return the column
+     */
+    public int getCol(int table, int index) {
+        return entities[table][3 * index];
+    }
+
+    /**
+     * Gets the row of an entity.
+     *
+     * @param table the table of the entity
+     * @param index the index of the entity in the table
+     * @return the row
+     */
+    public int getRow(int table, int index) {
+        return entities[table][3 * index + 1];
+    }
+
+    /**
+     * Gets the colour of an entity.
+     *
+     * @param table the table of the entity
+     * @param index the index of the entity in the table
+     * @return the colour id
+     */
+    public int getColour(int table, int index) {
+        return entities[table][3 * index + 2];
+    }
+}
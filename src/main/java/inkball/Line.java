@@ -1,19 +1,38 @@
 package inkball;
 
 import java.awt.Point;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
 import processing.core.PApplet;
+import processing.core.PGraphics;
 
 public class Line {
-    //store all points that make up the line
-    private ArrayList<Point> points;
+    //store all points that make up the line, packed as x0, y0, x1, y1, ...
+    private int[] coords = new int[16];
+    private int pointCount = 0;
+    //bounding box of each segment, packed as minX, minY, maxX, maxY
+    private int[] bounds = new int[32];
+    //direction, inverse squared length and unit normal of each segment, packed as ex, ey, invLen2, nx, ny
+    private float[] geometry = new float[0];
+    private boolean geometryDirty = true; // points changed since the geometry was calculated
     private final float thickness = 10.0f; 
 
     /**
-     * Constructs a new Line object with an empty list of points.
+     * Constructs a new Line object with no points.
      */
     public Line() {
-        this.points = new ArrayList<>();
+    }
+
+    /**
+     * Constructs a copy of a line with the same points, sharing no arrays with it.
+     *
+     * @param other the line to copy
+     */
+    public Line(Line other) {
+        coords = Arrays.copyOf(other.coords, other.coords.length);
+        bounds = Arrays.copyOf(other.bounds, other.bounds.length);
+        pointCount = other.pointCount;
     }
 
     /**
@@ -23,143 +42,415 @@ public class Line {
      * @param y the y-coordinate of the point to add
      */
     public void addPoint(float x, float y) {
-        points.add(new Point((int) x, (int) y));
+        if (2 * pointCount + 2 > coords.length) {
+            coords = Arrays.copyOf(coords, coords.length * 2);
+            bounds = Arrays.copyOf(bounds, coords.length * 2);
+        }
+        coords[2 * pointCount] = (int) x;
+        coords[2 * pointCount + 1] = (int) y;
+        pointCount++;
+        if (pointCount > 1) {
+            updateBounds(pointCount - 2);
+        }
+        geometryDirty = true;
     }
 
     /**
-     * Returns the list of points that make up the line.
+     * Calculates the direction, inverse squared length and unit normal of every segment, so
+     * collision queries only read them. Called once a stroke is finished; queries on a line that
+     * changed since call it themselves.
+     */
+    public void finish() {
+        int segments = getSegmentCount();
+        if (geometry.length < 5 * segments) {
+            geometry = new float[5 * segments];
+        }
+        for (int s = 0; s < segments; s++) {
+            float ex = coords[2 * s + 2] - coords[2 * s];
+            float ey = coords[2 * s + 3] - coords[2 * s + 1];
+            float len2 = ex * ex + ey * ey;
+            int g = 5 * s;
+            geometry[g] = ex;
+            geometry[g + 1] = ey;
+
+            //a segment of zero length has no direction, treat it as a point
+            if (len2 == 0) {
+                geometry[g + 2] = 0;
+                geometry[g + 3] = 0;
+                geometry[g + 4] = 0;
+            } else {
+                float len = (float) Math.sqrt(len2);
+                geometry[g + 2] = 1 / len2;
+                geometry[g + 3] = -ey / len;
+                geometry[g + 4] = ex / len;
+            }
+        }
+        geometryDirty = false;
+    }
+
+    /**
+     * Gets the cached geometry of the segments, calculating it first if the points changed.
      *
-     * @return the list of points that form the line
+     * @return the packed segment geometry
      */
-    public ArrayList<Point> getPoints() {
-        return points;
+    private float[] geometry() {
+        if (geometryDirty) {
+            finish();
+        }
+        return geometry;
     }
 
     /**
-     * Draws the line on the screen by connecting the points with straight lines.
+     * Returns the inverse of a segment's squared length, or 0 for a segment of zero length.
      *
-     * @param app the App object used to render the line
+     * @param segment the index of the segment
+     * @return one over the squared length
      */
-    public void draw(App app) { // Connect dots via line
-        app.strokeWeight(thickness);
-        if (points.size() > 1) {
-            for (int i = 0; i < points.size() - 1; i++) {
-                Point p1 = points.get(i);
-                Point p2 = points.get(i + 1);
-                app.line(p1.x, p1.y, p2.x, p2.y);
+    public float inverseLengthSquared(int segment) {
+        return geometry()[5 * segment + 2];
+    }
+
+    /**
+     * Returns the x component of a segment's unit normal, or 0 for a segment of zero length.
+     *
+     * @param segment the index of the segment
+     * @return the normal along x
+     */
+    public float normalX(int segment) {
+        return geometry()[5 * segment + 3];
+    }
+
+    /**
+     * Returns the y component of a segment's unit normal, or 0 for a segment of zero length.
+     *
+     * @param segment the index of the segment
+     * @return the normal along y
+     */
+    public float normalY(int segment) {
+        return geometry()[5 * segment + 4];
+    }
+
+    /**
+     * Recalculates the bounding box of a segment from its end points.
+     *
+     * @param segment the index of the segment
+     */
+    private void updateBounds(int segment) {
+        int x1 = coords[2 * segment], y1 = coords[2 * segment + 1];
+        int x2 = coords[2 * segment + 2], y2 = coords[2 * segment + 3];
+        bounds[4 * segment] = Math.min(x1, x2);
+        bounds[4 * segment + 1] = Math.min(y1, y2);
+        bounds[4 * segment + 2] = Math.max(x1, x2);
+        bounds[4 * segment + 3] = Math.max(y1, y2);
+    }
+
+    /**
+     * Removes points that barely change the shape of a finished stroke, using Ramer-Douglas-Peucker.
+     * Every removed point, and so every part of the original stroke, stays within the tolerance
+     * of the simplified line. The tolerance is capped at half the line thickness, so the
+     * collision shape never moves by more than that.
+     *
+     * @param tolerance the largest distance a removed point may be from the simplified line
+     */
+    public void simplify(float tolerance) {
+        int n = pointCount;
+        tolerance = Math.min(tolerance, getHalfThickness());
+        if (n < 3 || tolerance <= 0) {
+            return;
+        }
+
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+
+        //ranges still to split, as pairs of first and last point
+        int[] stack = new int[2 * n];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+
+            //find the point furthest from the segment between the ends of the range
+            float worst = -1;
+            int worstIndex = -1;
+            for (int i = first + 1; i < last; i++) {
+                float d = distanceToSegment(pointX(i), pointY(i), pointX(first), pointY(first), pointX(last), pointY(last));
+                if (d > worst) {
+                    worst = d;
+                    worstIndex = i;
+                }
+            }
+
+            //keep it and split the range there if it is too far
+            if (worstIndex != -1 && worst > tolerance) {
+                keep[worstIndex] = true;
+                stack[top++] = first;
+                stack[top++] = worstIndex;
+                stack[top++] = worstIndex;
+                stack[top++] = last;
             }
         }
+
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                coords[2 * kept] = coords[2 * i];
+                coords[2 * kept + 1] = coords[2 * i + 1];
+                kept++;
+            }
+        }
+        pointCount = kept;
+        for (int i = 0; i < kept - 1; i++) {
+            updateBounds(i);
+        }
+        geometryDirty = true;
     }
 
     /**
-     * Checks if the mouse is near the line by comparing its position with each segment of the line.
+     * Returns a read-only view of the points that make up the line. Each point read from the
+     * view is a new copy; the line itself stores only packed coordinates.
      *
-     * @param mouseX the x-coordinate of the mouse
-     * @param mouseY the y-coordinate of the mouse
-     * @return true if the mouse is near any segment of the line, false otherwise
+     * @return the list of points that form the line
      */
-    public boolean mouseNearLine(float mouseX, float mouseY) {
-        for (int i = 0; i < points.size() -1; i ++) {
-            Point p1 = points.get(i);
-            Point p2 = points.get(i + 1);
+    public List<Point> getPoints() {
+        return new AbstractList<Point>() {
+            @Override
+            public Point get(int index) {
+                if (index < 0 || index >= pointCount) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + pointCount);
+                }
+                return new Point(coords[2 * index], coords[2 * index + 1]);
+            }
 
-            if (pointNearSegment(mouseX, mouseY, p1.x, p1.y, p2.x, p2.y)) {
-                return true;
+            @Override
+            public int size() {
+                return pointCount;
             }
+        };
+    }
+
+    /**
+     * Returns the number of points in the line.
+     *
+     * @return the number of points
+     */
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    /**
+     * Draws the line on the screen by connecting the points with straight lines.
+     *
+     * @param app the App object used to render the line
+     */
+    public void draw(App app) { // Connect dots via line
+        draw(app.g);
+    }
+
+    /**
+     * Draws the line onto a graphics buffer, such as the ink layer, with the current stroke colour.
+     *
+     * @param g the graphics to draw on, in window coordinates
+     */
+    public void draw(PGraphics g) {
+        g.strokeWeight(thickness);
+        for (int i = 0; i < pointCount - 1; i++) {
+            g.line(coords[2 * i], coords[2 * i + 1], coords[2 * i + 2], coords[2 * i + 3]);
         }
-        return false;
     }
 
     /**
-     * Handles the collision between the ball and the line, adjusting the ball's velocity if a collision occurs.
+     * Returns the number of straight segments between consecutive points of the line.
      *
-     * @param ball the Ball object to check for a collision
-     * @return true if a collision occurred, false otherwise
+     * @return the number of segments
      */
-    public boolean handleCollision(Ball ball){
-        float ballx = ball.getX();
-        float bally = ball.getY();
-        float ballVx = ball.getVx();
-        float ballVy = ball.getVy();
-        float ballRadius = ball.getRadius();
+    public int getSegmentCount() {
+        return Math.max(0, pointCount - 1);
+    }
 
-        for (int i = 0; i < points.size() - 1; i++) { //iterate each point
-            Point p1 = points.get(i);
-            Point p2 = points.get(i+1);
+    /**
+     * Returns the x-coordinate of a point of the line.
+     *
+     * @param i the index of the point
+     * @return the x-coordinate of the point
+     */
+    public int pointX(int i) {
+        return coords[2 * i];
+    }
 
-            if (ballNearSegment(ballx + ballVx, bally + ballVy, p1.x, p1.y, p2.x, p2.y, ballRadius)) {
-                
-                //calculate normal vectors
-                float dx = p2.x - p1.x;
-                float dy = p2.y - p1.y;
+    /**
+     * Returns the y-coordinate of a point of the line.
+     *
+     * @param i the index of the point
+     * @return the y-coordinate of the point
+     */
+    public int pointY(int i) {
+        return coords[2 * i + 1];
+    }
 
-                //create normals
-                float[] normal1 = {-dy, dx};
-                float[] normal2 = {dy, -dx};
+    /**
+     * Calculates when a moving ball first touches a segment of the line.
+     *
+     * @param segment    the index of the segment
+     * @param px         the x-coordinate of the ball centre at the start of the movement
+     * @param py         the y-coordinate of the ball centre at the start of the movement
+     * @param dx         the movement along x
+     * @param dy         the movement along y
+     * @param ballRadius the radius of the ball
+     * @return the time of impact between 0 and 1, or Sweep.NO_HIT
+     */
+    public float sweepSegment(int segment, float px, float py, float dx, float dy, float ballRadius) {
+        float reach = ballRadius + thickness / 2;
 
-                //nomalize vectors
-                float length1 = (float) Math.sqrt((normal1[0]) * normal1[0] + normal1[1] * normal1[1]);
-                normal1[0] /= length1;
-                normal1[1] /= length1;
+        //skip the exact test if the movement stays clear of the segment's bounding box
+        if (!nearBounds(segment, Math.min(px, px + dx), Math.min(py, py + dy),
+                Math.max(px, px + dx), Math.max(py, py + dy), reach)) {
+            return Sweep.NO_HIT;
+        }
+        float[] g = geometry();
+        int i = 5 * segment;
+        return Sweep.capsule(px, py, dx, dy, coords[2 * segment], coords[2 * segment + 1],
+                g[i], g[i + 1], g[i + 2], g[i + 3], g[i + 4], reach);
+    }
 
-                float length2 = (float) Math.sqrt((normal2[0]) * normal2[0] + normal2[1] * normal2[1]);
-                normal2[0] /= length2;
-                normal2[1] /= length2;
+    /**
+     * Gets one side of the bounding box of a segment.
+     *
+     * @param segment the index of the segment
+     * @param side    0 for the minimum x, 1 for the minimum y, 2 for the maximum x, 3 for the maximum y
+     * @return the coordinate of that side
+     */
+    public int segmentBound(int segment, int side) {
+        return bounds[4 * segment + side];
+    }
 
-                //calculate dot product
-                float dot1 = (ballVx * normal1[0]) + (ballVy * normal1[1]);
-                float dot2 = (ballVx * normal2[0]) + (ballVy * normal2[1]);
+    /**
+     * Gets one side of the bounding box of the whole line, not counting its thickness.
+     *
+     * @param side 0 for the minimum x, 1 for the minimum y, 2 for the maximum x, 3 for the maximum y
+     * @return the coordinate of that side, 0 if the line has no points
+     */
+    public int bound(int side) {
+        if (pointCount == 0) {
+            return 0;
+        }
+        int axis = side & 1;
+        int result = coords[axis];
+        for (int i = 1; i < pointCount; i++) {
+            int value = coords[2 * i + axis];
+            result = side < 2 ? Math.min(result, value) : Math.max(result, value);
+        }
+        return result;
+    }
 
-                //choose closer normal
-                float[] closerNormal;
-                if (dot1 <= dot2) {
-                    closerNormal = normal1;
-                } else {
-                    closerNormal = normal2;
-                }
+    /**
+     * Checks whether any segment of the line comes within a distance of a box, comparing bounding boxes only.
+     *
+     * @param minX  the left of the box
+     * @param minY  the top of the box
+     * @param maxX  the right of the box
+     * @param maxY  the bottom of the box
+     * @param reach the distance the line may be from the box
+     * @return true if the bounding box of some segment is within the distance of the box
+     */
+    public boolean nearBox(float minX, float minY, float maxX, float maxY, float reach) {
+        for (int s = 0; s < getSegmentCount(); s++) {
+            if (nearBounds(s, minX, minY, maxX, maxY, reach)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-                //change velocity using formula v - 2 (v * n) n
+    /**
+     * Checks whether a box comes within a distance of the bounding box of a segment.
+     *
+     * @param segment the index of the segment
+     * @param minX    the left of the box
+     * @param minY    the top of the box
+     * @param maxX    the right of the box
+     * @param maxY    the bottom of the box
+     * @param reach   the distance the boxes may be apart
+     * @return true if the boxes are within the distance of each other
+     */
+    private boolean nearBounds(int segment, float minX, float minY, float maxX, float maxY, float reach) {
+        int b = 4 * segment;
+        return maxX >= bounds[b] - reach && minX <= bounds[b + 2] + reach
+                && maxY >= bounds[b + 1] - reach && minY <= bounds[b + 3] + reach;
+    }
 
-                float vn = (ballVx * closerNormal[0]) + (ballVy * closerNormal[1]);
-                ball.setVx(ballVx - 2 * vn * closerNormal[0]);
-                ball.setVy(ballVy - 2 * vn * closerNormal[1]);
+    /**
+     * Returns the half thickness of the line, the distance from a segment within which the line is solid.
+     *
+     * @return half the line thickness
+     */
+    public float getHalfThickness() {
+        return thickness / 2;
+    }
 
+    /**
+     * Checks if the mouse is near the line by comparing its position with each segment of the line.
+     *
+     * @param mouseX the x-coordinate of the mouse
+     * @param mouseY the y-coordinate of the mouse
+     * @return true if the mouse is near any segment of the line, false otherwise
+     */
+    public boolean mouseNearLine(float mouseX, float mouseY) {
+        for (int i = 0; i < pointCount - 1; i ++) {
+            if (mouseNearSegment(mouseX, mouseY, i)) {
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * Checks if the mouse is near a single segment of the line.
+     *
+     * @param mouseX  the x-coordinate of the mouse
+     * @param mouseY  the y-coordinate of the mouse
+     * @param segment the index of the segment, starting at the segment from point 0 to point 1
+     * @return true if the mouse is near the segment, false otherwise
+     */
+    public boolean mouseNearSegment(float mouseX, float mouseY, int segment) {
+        if (!nearBounds(segment, mouseX, mouseY, mouseX, mouseY, thickness / 2)) {
+            return false;
+        }
+        return pointNearSegment(mouseX, mouseY, segment);
+    }
+
     /**
      * Checks if a point is near a line segment by calculating the distance between the point and the segment.
      *
-     * @param px the x-coordinate of the point
-     * @param py the y-coordinate of the point
-     * @param x1 the x-coordinate of the first point of the segment
-     * @param y1 the y-coordinate of the first point of the segment
-     * @param x2 the x-coordinate of the second point of the segment
-     * @param y2 the y-coordinate of the second point of the segment
+     * @param px      the x-coordinate of the point
+     * @param py      the y-coordinate of the point
+     * @param segment the index of the segment
      * @return true if the point is near the segment, false otherwise
      */
-    private boolean pointNearSegment(float px, float py, float x1, float y1, float x2, float y2) {
-        float dist = distanceToSegment(px, py, x1, y1, x2, y2);
+    private boolean pointNearSegment(float px, float py, int segment) {
+        float dist = distanceToSegment(px, py, segment);
         return dist <= thickness / 2;
     }
 
     /**
-     * Checks if a ball is near a line segment by calculating the distance between the ball and the segment.
+     * Calculates the distance from a point to a segment of the line, using its cached geometry.
      *
-     * @param px the x-coordinate of the ball
-     * @param py the y-coordinate of the ball
-     * @param x1 the x-coordinate of the first point of the segment
-     * @param y1 the y-coordinate of the first point of the segment
-     * @param x2 the x-coordinate of the second point of the segment
-     * @param y2 the y-coordinate of the second point of the segment
-     * @return true if the ball is near the segment, false otherwise
+     * @param px      the x-coordinate of the point
+     * @param py      the y-coordinate of the point
+     * @param segment the index of the segment
+     * @return the distance from the point to the segment
      */
-    private boolean ballNearSegment(float px, float py, float x1, float y1, float x2, float y2, float ballRadius) {
-        float dist = distanceToSegment(px, py, x1, y1, x2, y2);
-        return dist <= thickness / 2 + ballRadius;
+    private float distanceToSegment(float px, float py, int segment) {
+        float[] g = geometry();
+        int i = 5 * segment;
+        float x1 = coords[2 * segment];
+        float y1 = coords[2 * segment + 1];
+
+        //closest point on the segment, the first end for a segment of zero length
+        float along = Math.max(0, Math.min(1, ((px - x1) * g[i] + (py - y1) * g[i + 1]) * g[i + 2]));
+        return dist(px, py, x1 + along * g[i], y1 + along * g[i + 1]);
     }
 
     /**
@@ -0,0 +1,50 @@
+package inkball;
+
+import java.util.Random;
+
+/**
+ * A player that every so often draws a short stroke across the path of a random ball, at a
+ * random angle. It never erases lines; balls remove the lines they hit.
+ */
+public class RandomStrokePolicy implements InputPolicy {
+
+    private static final int STROKE_LENGTH = 2 * App.CELLSIZE;
+
+    private final int interval; // frames between strokes
+
+    /**
+     * Constructs a policy drawing one stroke every given number of frames.
+     *
+     * @param interval the number of frames between strokes
+     */
+    public RandomStrokePolicy(int interval) {
+        this.interval = Math.max(1, interval);
+    }
+
+    /**
+     * Draws a stroke ahead of a random ball when the interval has passed.
+     *
+     * @param state  the game being played
+     * @param random the random source of the player
+     */
+    @Override
+    public void act(GameState state, Random random) {
+        if (state.getFrameCount() % interval != 0 || !state.canDraw() || state.getBalls().isEmpty()) {
+            return;
+        }
+
+        //centre the stroke where the ball will be in a second
+        Ball ball = state.getBalls().get(random.nextInt(state.getBalls().size()));
+        float centreX = ball.getX() + ball.getVx() * App.FPS;
+        float centreY = ball.getY() + ball.getVy() * App.FPS;
+        double angle = random.nextDouble() * Math.PI;
+        float halfX = (float) Math.cos(angle) * STROKE_LENGTH / 2;
+        float halfY = (float) Math.sin(angle) * STROKE_LENGTH / 2;
+
+        Line line = new Line();
+        line.addPoint(centreX - halfX, centreY - halfY);
+        line.addPoint(centreX, centreY);
+        line.addPoint(centreX + halfX, centreY + halfY);
+        state.addLine(line);
+    }
+}
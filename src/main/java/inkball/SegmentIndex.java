@@ -0,0 +1,258 @@
+package inkball;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A spatial hash over the segments of the player-drawn lines. Each segment is stored in the
+ * buckets of the cells it covers, so ball collisions and right-click erasing only test the
+ * segments near a position instead of every point of every line.
+ */
+public class SegmentIndex {
+
+    private static final int BUCKETS = 1024; // must be a power of two
+    private static final int CELL = App.CELLSIZE;
+
+    private final ArrayList<ArrayList<Entry>> buckets = new ArrayList<>(BUCKETS);
+    private final Scratch scratch = new Scratch(); // used by erasing, which only runs on the simulation thread
+    private int nextOrder = 0;
+
+    /**
+     * A single segment of an indexed line.
+     */
+    private static class Entry {
+        final Line line;
+        final int segment; // index of the segment within the line
+        final int order;   // order the line was added, matching its position in the list of lines
+
+        Entry(Line line, int segment, int order) {
+            this.line = line;
+            this.segment = segment;
+            this.order = order;
+        }
+    }
+
+    /**
+     * Working memory for a single query. Queries only read the index, so several threads can
+     * query it at once as long as each uses its own scratch.
+     */
+    public static class Scratch {
+        private final ArrayList<Entry> candidates = new ArrayList<>();
+    }
+
+    /**
+     * Constructs an empty index.
+     */
+    public SegmentIndex() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Adds every segment of a finished line to the cells it covers, calculating the line's
+     * segment geometry first.
+     *
+     * @param line the line to add
+     */
+    public void add(Line line) {
+
+        //indexed lines are only read from now on, possibly by several threads at once
+        line.finish();
+        int order = nextOrder++;
+        for (int i = 0; i < line.getSegmentCount(); i++) {
+            Entry entry = new Entry(line, i, order);
+
+            //store the segment in every cell of its bounding box
+            int[] cells = segmentCells(line, i);
+            for (int cy = cells[1]; cy <= cells[3]; cy++) {
+                for (int cx = cells[0]; cx <= cells[2]; cx++) {
+                    ArrayList<Entry> bucket = buckets.get(bucket(cx, cy));
+
+                    //cells of one segment can share a bucket, and the entry is then its last element
+                    if (bucket.isEmpty() || bucket.get(bucket.size() - 1) != entry) {
+                        bucket.add(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes every segment of a line from the index.
+     *
+     * @param line the line to remove
+     */
+    public void remove(Line line) {
+        for (int i = 0; i < line.getSegmentCount(); i++) {
+            int[] cells = segmentCells(line, i);
+            for (int cy = cells[1]; cy <= cells[3]; cy++) {
+                for (int cx = cells[0]; cx <= cells[2]; cx++) {
+                    buckets.get(bucket(cx, cy)).removeIf(entry -> entry.line == line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all lines from the index.
+     */
+    public void clear() {
+        for (ArrayList<Entry> bucket : buckets) {
+            bucket.clear();
+        }
+        nextOrder = 0;
+    }
+
+    /**
+     * Finds the earliest segment a moving ball touches among the segments near its path. On equal
+     * times the most recently drawn line wins.
+     *
+     * @param px      the x-coordinate of the ball centre at the start of the movement
+     * @param py      the y-coordinate of the ball centre at the start of the movement
+     * @param dx      the movement along x
+     * @param dy      the movement along y
+     * @param radius  the radius of the ball
+     * @param ignore  lines the ball already hit this frame, which are about to be removed
+     * @param contact receives the segment hit if it is earlier than the contact already held
+     * @param scratch the working memory of the calling thread
+     */
+    public void sweep(float px, float py, float dx, float dy, float radius, List<Line> ignore,
+                      Contact contact, Scratch scratch) {
+        float reach = radius + Math.abs(dx) + Math.abs(dy);
+        ArrayList<Entry> candidates = collectCandidates(px, py, reach, true, scratch);
+
+        for (int i = 0; i < candidates.size(); i++) {
+            Entry entry = candidates.get(i);
+            if (!ignore.contains(entry.line)) {
+                contact.offerLine(entry.line.sweepSegment(entry.segment, px, py, dx, dy, radius), entry.line, entry.segment);
+            }
+        }
+    }
+
+    /**
+     * Finds the oldest line with a segment near the given position.
+     *
+     * @param x the x-coordinate of the position
+     * @param y the y-coordinate of the position
+     * @return the line near the position, or null if there is none
+     */
+    public Line findNear(float x, float y) {
+        ArrayList<Entry> candidates = collectCandidates(x, y, 0, false, scratch);
+
+        for (int i = 0; i < candidates.size(); i++) {
+            Entry entry = candidates.get(i);
+            if (entry.line.mouseNearSegment(x, y, entry.segment)) {
+                return entry.line;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Collects the segments stored in the cells around a position into the candidate list of a
+     * scratch, without duplicates, sorted by line order and then by segment.
+     *
+     * @param x           the x-coordinate of the position
+     * @param y           the y-coordinate of the position
+     * @param reach       how far from the position to look, on top of the line thickness already covered by each entry
+     * @param newestFirst true to sort the newest line first, false to sort the oldest line first
+     * @param scratch     the working memory to collect into
+     * @return the candidate list of the scratch
+     */
+    private ArrayList<Entry> collectCandidates(float x, float y, float reach, boolean newestFirst, Scratch scratch) {
+        ArrayList<Entry> candidates = scratch.candidates;
+        candidates.clear();
+
+        int minX = cellOf(x - reach);
+        int maxX = cellOf(x + reach);
+        int minY = cellOf(y - reach);
+        int maxY = cellOf(y + reach);
+        for (int cy = minY; cy <= maxY; cy++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                ArrayList<Entry> bucket = buckets.get(bucket(cx, cy));
+                for (int i = 0; i < bucket.size(); i++) {
+                    candidates.add(bucket.get(i));
+                }
+            }
+        }
+
+        //insertion sort, candidate lists are short
+        for (int i = 1; i < candidates.size(); i++) {
+            Entry entry = candidates.get(i);
+            int j = i - 1;
+            while (j >= 0 && comesAfter(candidates.get(j), entry, newestFirst)) {
+                candidates.set(j + 1, candidates.get(j));
+                j--;
+            }
+            candidates.set(j + 1, entry);
+        }
+
+        //a segment covering several cells is collected once per cell, duplicates are now adjacent
+        int kept = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            Entry entry = candidates.get(i);
+            if (kept == 0 || candidates.get(kept - 1) != entry) {
+                candidates.set(kept++, entry);
+            }
+        }
+        while (candidates.size() > kept) {
+            candidates.remove(candidates.size() - 1);
+        }
+        return candidates;
+    }
+
+    /**
+     * Checks whether one entry should be processed after another.
+     *
+     * @param a           the first entry
+     * @param b           the second entry
+     * @param newestFirst true if newer lines come first
+     * @return true if a comes after b
+     */
+    private static boolean comesAfter(Entry a, Entry b, boolean newestFirst) {
+        if (a.order != b.order) {
+            return newestFirst ? a.order < b.order : a.order > b.order;
+        }
+        return a.segment > b.segment;
+    }
+
+    /**
+     * Calculates the range of cells covered by a segment, grown by half the line thickness.
+     *
+     * @param line    the line containing the segment
+     * @param segment the index of the segment
+     * @return the cell range as {minX, minY, maxX, maxY}
+     */
+    private static int[] segmentCells(Line line, int segment) {
+        float pad = line.getHalfThickness();
+        return new int[]{
+            cellOf(line.segmentBound(segment, 0) - pad),
+            cellOf(line.segmentBound(segment, 1) - pad),
+            cellOf(line.segmentBound(segment, 2) + pad),
+            cellOf(line.segmentBound(segment, 3) + pad)
+        };
+    }
+
+    /**
+     * Converts a coordinate to the index of the cell containing it.
+     *
+     * @param value the coordinate in pixels
+     * @return the cell index along that axis
+     */
+    private static int cellOf(float value) {
+        return (int) Math.floor(value / CELL);
+    }
+
+    /**
+     * Hashes a cell to one of the buckets. Different cells can share a bucket, which only adds
+     * candidates that fail the exact distance test.
+     *
+     * @param cx the cell index along x
+     * @param cy the cell index along y
+     * @return the bucket index
+     */
+    private static int bucket(int cx, int cy) {
+        return ((cx * 73856093) ^ (cy * 19349663)) & (BUCKETS - 1);
+    }
+}
@@ -0,0 +1,147 @@
+package inkball;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Runs the game state on a thread of its own at a fixed tick rate, so slow frames do not slow
+ * the game down and slow ticks do not hold up drawing. After every tick the state is copied into
+ * a {@link Snapshot} and published through a {@link TripleBuffer}, where the render thread picks
+ * up the latest one.
+ * <p>
+ * Input never touches the game state directly: it is submitted as commands, which are applied
+ * in order at the start of the next tick. Game time only advances one tick per step, so a run
+ * with the same commands on the same ticks always plays out the same way.
+ */
+public class Simulation implements Runnable {
+
+    private static final int MAX_CATCH_UP = 5; // ticks run back to back after a stall before skipping ahead
+
+    private final GameState state;
+    private final long tickNanos;
+    private final TripleBuffer<Snapshot> snapshots = new TripleBuffer<>(Snapshot::new);
+    private final ConcurrentLinkedQueue<Consumer<GameState>> commands = new ConcurrentLinkedQueue<>();
+    private long submitted = 0;         // commands submitted, only used by the submitting thread
+    private long applied = 0;           // commands applied, only used by the simulation thread
+    private long ticks = 0;
+    private volatile boolean running = false;
+    private Thread thread;
+    private ExecutorService levelPrefetch; // builds the next level's board during the score tally
+
+    /**
+     * Constructs a simulation of a game state, publishing a snapshot of its current state.
+     *
+     * @param state          the game state, only used by the simulation from now on
+     * @param ticksPerSecond the tick rate
+     */
+    public Simulation(GameState state, int ticksPerSecond) {
+        this.state = state;
+        this.tickNanos = TimeUnit.SECONDS.toNanos(1) / ticksPerSecond;
+        publish();
+    }
+
+    /**
+     * Queues a command to be applied to the game state at the start of the next tick. Commands
+     * must be submitted from a single thread.
+     *
+     * @param command the change to make to the game state
+     * @return the sequence number of the command, applied once a snapshot's command count reaches it
+     */
+    public long submit(Consumer<GameState> command) {
+        commands.add(command);
+        return ++submitted;
+    }
+
+    /**
+     * Applies the queued commands, advances the game state by one tick and publishes a snapshot.
+     * Called by the simulation thread, or directly when no thread was started.
+     */
+    public void step() {
+        Consumer<GameState> command;
+        while ((command = commands.poll()) != null) {
+            command.accept(state);
+            applied++;
+        }
+        state.tick();
+        ticks++;
+        publish();
+    }
+
+    /**
+     * Gets the snapshot of the latest tick. Only the render thread may call this, and the
+     * snapshot stays unchanged until it is called again.
+     *
+     * @return the latest snapshot
+     */
+    public Snapshot getLatest() {
+        return snapshots.getLatest();
+    }
+
+    /**
+     * Starts ticking on a daemon thread, with the board of each next level built on a second one.
+     */
+    public void start() {
+        levelPrefetch = Executors.newSingleThreadExecutor(task -> {
+            Thread loader = new Thread(task, "inkball-level-loader");
+            loader.setDaemon(true);
+            return loader;
+        });
+        state.setLevelPrefetch(levelPrefetch);
+        running = true;
+        thread = new Thread(this, "inkball-simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the simulation thread and waits for the tick in progress to finish.
+     */
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        if (levelPrefetch != null) {
+            state.setLevelPrefetch(null);
+            levelPrefetch.shutdownNow();
+            levelPrefetch = null;
+        }
+    }
+
+    /**
+     * Ticks at the fixed rate until stopped. Late ticks are caught up back to back, but after
+     * a long stall the schedule skips ahead rather than running a burst of ticks.
+     */
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        while (running) {
+            step();
+            next += tickNanos;
+
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else if (-wait > MAX_CATCH_UP * tickNanos) {
+                next = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Copies the game state into the back snapshot and publishes it.
+     */
+    private void publish() {
+        snapshots.getBack().capture(state, ticks, applied, System.nanoTime(), tickNanos);
+        snapshots.publish();
+    }
+}
@@ -0,0 +1,423 @@
+package inkball;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything the renderer needs from one tick of the game, copied out of the game state by the
+ * simulation thread so frames can be drawn while the next tick runs. Once published a snapshot
+ * is only read; its buffers are refilled when it comes round again in the {@link TripleBuffer}.
+ * <p>
+ * Each ball is stored where it was at the start and at the end of the tick, so frames drawn
+ * between two ticks can place it part of the way along. The level entities and lines are shared
+ * with the game state, and only copied when they change.
+ */
+public class Snapshot {
+
+    private long tick = -1;          // ticks simulated when captured, -1 before the first capture
+    private long appliedCommands;    // input commands applied when captured
+    private long capturedAt;         // System.nanoTime() when captured
+    private long tickNanos = 1;      // length of a tick
+
+    private TileMap tileMap;
+    private final ArrayList<Wall> walls = new ArrayList<>();
+    private final ArrayList<Hole> holes = new ArrayList<>();
+    private final ArrayList<Brick> bricks = new ArrayList<>();
+    private int[] brickHits = new int[0];
+    private final ArrayList<Line> lines = new ArrayList<>();
+    private int linesVersion = -1;
+
+    private int ballCount = 0;
+    private float[] ballX = new float[16], ballY = new float[16];
+    private float[] startX = new float[16], startY = new float[16];
+    private int[] ballRadius = new int[16], ballColour = new int[16];
+
+    private final ColourQueue ballColoursToSpawn = new ColourQueue();
+    private int lastEmittedBallColor;
+    private int queueOffset;
+    private int spawnTimer;
+    private int timeRemaining;
+    private int score;
+    private boolean paused;
+    private boolean timeUp;
+    private boolean gameEnded;
+    private boolean gameFinished;
+    private boolean incrementingScore;
+    private final int[] topLeftTile = new int[2];
+    private final int[] bottomRightTile = new int[2];
+
+    /**
+     * Copies the state of the game after a tick into this snapshot.
+     *
+     * @param state           the game state, not changed while it is copied
+     * @param tick            the number of ticks simulated so far
+     * @param appliedCommands the number of input commands applied so far
+     * @param capturedAt      System.nanoTime() at the end of the tick
+     * @param tickNanos       the length of a tick
+     */
+    public void capture(GameState state, long tick, long appliedCommands, long capturedAt, long tickNanos) {
+        this.tick = tick;
+        this.appliedCommands = appliedCommands;
+        this.capturedAt = capturedAt;
+        this.tickNanos = tickNanos;
+
+        //entities only change when a level is loaded, which always creates a new tile map
+        if (state.getTileMap() != tileMap) {
+            tileMap = state.getTileMap();
+            walls.clear();
+            walls.addAll(state.getWalls());
+            holes.clear();
+            holes.addAll(state.getHoles());
+            bricks.clear();
+            bricks.addAll(state.getBricks());
+            brickHits = new int[bricks.size()];
+        }
+        for (int i = 0; i < brickHits.length; i++) {
+            brickHits[i] = bricks.get(i).getHitCount();
+        }
+
+        if (state.getLinesVersion() != linesVersion) {
+            lines.clear();
+            lines.addAll(state.getLines());
+            linesVersion = state.getLinesVersion();
+        }
+
+        captureBalls(state.getBallStore());
+
+        ColourQueue queue = state.getBallColoursToSpawn();
+        ballColoursToSpawn.clear();
+        for (int i = 0; i < queue.size(); i++) {
+            ballColoursToSpawn.add(queue.get(i));
+        }
+        lastEmittedBallColor = state.getLastEmittedBallColor();
+        queueOffset = state.getQueueOffset();
+        spawnTimer = state.getSpawnTimer();
+        timeRemaining = state.getTimeRemaining();
+        score = state.getScore();
+        paused = state.isPaused();
+        timeUp = state.isTimeUp();
+        gameEnded = state.isGameEnded();
+        gameFinished = state.isGameFinished();
+        incrementingScore = state.isIncrementingScore();
+        int[] topLeft = state.getTopLeftTile();
+        int[] bottomRight = state.getBottomRightTile();
+        topLeftTile[0] = topLeft[0];
+        topLeftTile[1] = topLeft[1];
+        bottomRightTile[0] = bottomRight[0];
+        bottomRightTile[1] = bottomRight[1];
+    }
+
+    /**
+     * Copies the position, size and colour of every ball.
+     *
+     * @param store the balls of the game
+     */
+    private void captureBalls(BallStore store) {
+        ballCount = store.size();
+        if (ballX.length < ballCount) {
+            int capacity = Math.max(ballCount, ballX.length * 2);
+            ballX = new float[capacity];
+            ballY = new float[capacity];
+            startX = new float[capacity];
+            startY = new float[capacity];
+            ballRadius = new int[capacity];
+            ballColour = new int[capacity];
+        }
+        System.arraycopy(store.x, 0, ballX, 0, ballCount);
+        System.arraycopy(store.y, 0, ballY, 0, ballCount);
+        System.arraycopy(store.startX, 0, startX, 0, ballCount);
+        System.arraycopy(store.startY, 0, startY, 0, ballCount);
+        System.arraycopy(store.radius, 0, ballRadius, 0, ballCount);
+        System.arraycopy(store.colour, 0, ballColour, 0, ballCount);
+    }
+
+    /**
+     * Works out how far a frame drawn now is between the start and the end of the tick. Frames
+     * are drawn one tick behind the simulation, so the end of the tick is reached just as the
+     * next snapshot is due.
+     *
+     * @param now System.nanoTime() when the frame is drawn
+     * @return the share of the tick, from 0 to 1
+     */
+    public float interpolation(long now) {
+        float alpha = (now - capturedAt) / (float) tickNanos;
+        return Math.max(0, Math.min(1, alpha));
+    }
+
+    /**
+     * Checks whether the snapshot holds a captured tick.
+     *
+     * @return true once the snapshot has been captured
+     */
+    public boolean isCaptured() {
+        return tick >= 0;
+    }
+
+    /**
+     * Gets the number of ticks simulated when the snapshot was captured.
+     *
+     * @return the tick count
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the number of input commands the simulation had applied when the snapshot was captured.
+     *
+     * @return the applied command count
+     */
+    public long getAppliedCommands() {
+        return appliedCommands;
+    }
+
+    // LEVEL
+
+    /**
+     * Gets the tile map of the level.
+     *
+     * @return the tile map
+     */
+    public TileMap getTileMap() {
+        return tileMap;
+    }
+
+    /**
+     * Gets the walls of the level.
+     *
+     * @return the walls
+     */
+    public List<Wall> getWalls() {
+        return walls;
+    }
+
+    /**
+     * Gets the holes of the level.
+     *
+     * @return the holes
+     */
+    public List<Hole> getHoles() {
+        return holes;
+    }
+
+    /**
+     * Gets the bricks of the level. Their hit counts keep changing, so draw them with
+     * {@link #getBrickHits(int)} instead.
+     *
+     * @return the bricks
+     */
+    public List<Brick> getBricks() {
+        return bricks;
+    }
+
+    /**
+     * Gets the hit count of a brick when the snapshot was captured.
+     *
+     * @param index the index of the brick
+     * @return the hit count
+     */
+    public int getBrickHits(int index) {
+        return brickHits[index];
+    }
+
+    /**
+     * Gets the player-drawn lines.
+     *
+     * @return the lines
+     */
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    /**
+     * Gets the version of the lines, which changes whenever a line is added or removed.
+     *
+     * @return the version of the lines
+     */
+    public int getLinesVersion() {
+        return linesVersion;
+    }
+
+    // BALLS
+
+    /**
+     * Gets the number of balls.
+     *
+     * @return the number of balls
+     */
+    public int getBallCount() {
+        return ballCount;
+    }
+
+    /**
+     * Gets the x-coordinate of a ball's centre part of the way through the tick.
+     *
+     * @param index the index of the ball
+     * @param alpha the share of the tick, from 0 to 1
+     * @return the x-coordinate
+     */
+    public float getBallX(int index, float alpha) {
+        return startX[index] + (ballX[index] - startX[index]) * alpha;
+    }
+
+    /**
+     * Gets the y-coordinate of a ball's centre part of the way through the tick.
+     *
+     * @param index the index of the ball
+     * @param alpha the share of the tick, from 0 to 1
+     * @return the y-coordinate
+     */
+    public float getBallY(int index, float alpha) {
+        return startY[index] + (ballY[index] - startY[index]) * alpha;
+    }
+
+    /**
+     * Gets the radius of a ball.
+     *
+     * @param index the index of the ball
+     * @return the radius
+     */
+    public int getBallRadius(int index) {
+        return ballRadius[index];
+    }
+
+    /**
+     * Gets the colour id of a ball.
+     *
+     * @param index the index of the ball
+     * @return the colour id
+     */
+    public int getBallColour(int index) {
+        return ballColour[index];
+    }
+
+    // TOP BAR
+
+    /**
+     * Gets the colours of the balls waiting to be spawned.
+     *
+     * @return the queued colours
+     */
+    public ColourQueue getBallColoursToSpawn() {
+        return ballColoursToSpawn;
+    }
+
+    /**
+     * Gets the colour of the ball shown in front of the queue.
+     *
+     * @return the colour id, or GameState.NO_COLOUR
+     */
+    public int getLastEmittedBallColor() {
+        return lastEmittedBallColor;
+    }
+
+    /**
+     * Gets how far the queue display is shifted while a ball leaves it.
+     *
+     * @return the offset in pixels
+     */
+    public int getQueueOffset() {
+        return queueOffset;
+    }
+
+    /**
+     * Gets the ticks left until the next ball spawns.
+     *
+     * @return the spawn timer
+     */
+    public int getSpawnTimer() {
+        return spawnTimer;
+    }
+
+    /**
+     * Gets the seconds left in the level.
+     *
+     * @return the remaining time
+     */
+    public int getTimeRemaining() {
+        return timeRemaining;
+    }
+
+    /**
+     * Gets the score.
+     *
+     * @return the score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    // STATUS
+
+    /**
+     * Checks whether the game is paused.
+     *
+     * @return true if paused
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Checks whether the time of the level ran out.
+     *
+     * @return true if the time is up
+     */
+    public boolean isTimeUp() {
+        return timeUp;
+    }
+
+    /**
+     * Checks whether the game has ended.
+     *
+     * @return true if the game ended
+     */
+    public boolean isGameEnded() {
+        return gameEnded;
+    }
+
+    /**
+     * Checks whether every level was cleared.
+     *
+     * @return true if the game was finished
+     */
+    public boolean isGameFinished() {
+        return gameFinished;
+    }
+
+    /**
+     * Checks whether the remaining time is being added to the score.
+     *
+     * @return true during the score tally
+     */
+    public boolean isIncrementingScore() {
+        return incrementingScore;
+    }
+
+    /**
+     * Checks whether the player may draw or erase lines.
+     *
+     * @return false when the game has ended or time is up
+     */
+    public boolean canDraw() {
+        return !gameEnded && !timeUp;
+    }
+
+    /**
+     * Gets the cell of the tally tile travelling from the top-left corner.
+     *
+     * @return the {x, y} grid position, owned by the snapshot
+     */
+    public int[] getTopLeftTile() {
+        return topLeftTile;
+    }
+
+    /**
+     * Gets the cell of the tally tile travelling from the bottom-right corner.
+     *
+     * @return the {x, y} grid position, owned by the snapshot
+     */
+    public int[] getBottomRightTile() {
+        return bottomRightTile;
+    }
+}
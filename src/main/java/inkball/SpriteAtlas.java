@@ -0,0 +1,131 @@
+package inkball;
+
+import processing.core.PConstants;
+import processing.core.PGraphics;
+import processing.core.PImage;
+
+/**
+ * Every sprite of the game packed into inkball_spritesheet.png, decoded once and drawn by region
+ * id. Entities pick their region from their colour, so they hold no images of their own, and
+ * every sprite drawn in a frame comes from the same image.
+ * <p>
+ * The sheet marks the transparent corners of the balls with magenta, which is cleared when the
+ * atlas is built.
+ */
+public class SpriteAtlas {
+
+    public static final int TILE = 0;
+    public static final int ENTRYPOINT = 1;
+    public static final int BALL = 2;                          // BALL + colour for ball0 to ball4
+    public static final int HOLE = BALL + Colours.COUNT;       // HOLE + colour for hole0 to hole4
+    public static final int WALL = HOLE + Colours.COUNT;       // WALL + colour for wall0 to wall4
+    public static final int CRACKED = WALL + Colours.COUNT;    // CRACKED + colour for break0 to break4
+    public static final int REGION_COUNT = CRACKED + Colours.COUNT;
+
+    private static final int COLOUR_KEY = 0xff00ff; // magenta, transparent in the sheet
+
+    // left, top, width and height of each region in the sheet
+    private static final int[] REGIONS = new int[4 * REGION_COUNT];
+
+    static {
+        setRegion(TILE, 1, 1, 32, 32);
+        setRegion(ENTRYPOINT, 1, 34, 32, 32);
+        for (int colour = 0; colour < Colours.COUNT; colour++) {
+            setRegion(BALL + colour, 1, 157 + 24 * colour, 24, 24);
+            setRegion(HOLE + colour, 34, 1 + 65 * colour, 64, 64);
+            setRegion(WALL + colour, 99, 1 + 33 * colour, 32, 32);
+            setRegion(CRACKED + colour, 99, 166 + 33 * colour, 32, 32);
+        }
+    }
+
+    private final PImage sheet;
+
+    /**
+     * Constructs an atlas over a decoded sprite sheet, clearing its colour key.
+     *
+     * @param sheet the decoded inkball_spritesheet.png
+     */
+    public SpriteAtlas(PImage sheet) {
+        this.sheet = sheet;
+        sheet.format = PConstants.ARGB;
+        sheet.loadPixels();
+        for (int i = 0; i < sheet.pixels.length; i++) {
+            if ((sheet.pixels[i] & 0xffffff) == COLOUR_KEY) {
+                sheet.pixels[i] = 0;
+            }
+        }
+        sheet.updatePixels();
+    }
+
+    /**
+     * Draws a region of the sheet.
+     *
+     * @param g      the graphics to draw on
+     * @param region the region id
+     * @param x      the left of the drawn sprite
+     * @param y      the top of the drawn sprite
+     * @param width  the drawn width
+     * @param height the drawn height
+     */
+    public void draw(PGraphics g, int region, float x, float y, float width, float height) {
+        int r = 4 * region;
+        g.image(sheet, x, y, width, height, REGIONS[r], REGIONS[r + 1],
+                REGIONS[r] + REGIONS[r + 2], REGIONS[r + 1] + REGIONS[r + 3]);
+    }
+
+    /**
+     * Gets the region of a ball.
+     *
+     * @param colour the colour id
+     * @return the region id
+     */
+    public static int ball(int colour) {
+        return BALL + colour;
+    }
+
+    /**
+     * Gets the region of a hole.
+     *
+     * @param colour the colour id
+     * @return the region id
+     */
+    public static int hole(int colour) {
+        return HOLE + colour;
+    }
+
+    /**
+     * Gets the region of a wall, or an unbroken brick.
+     *
+     * @param colour the colour id
+     * @return the region id
+     */
+    public static int wall(int colour) {
+        return WALL + colour;
+    }
+
+    /**
+     * Gets the region of a cracked brick.
+     *
+     * @param colour the colour id
+     * @return the region id
+     */
+    public static int cracked(int colour) {
+        return CRACKED + colour;
+    }
+
+    /**
+     * Sets the place of a region in the sheet.
+     *
+     * @param region the region id
+     * @param x      the left of the region
+     * @param y      the top of the region
+     * @param width  the width of the region
+     * @param height the height of the region
+     */
+    private static void setRegion(int region, int x, int y, int width, int height) {
+        REGIONS[4 * region] = x;
+        REGIONS[4 * region + 1] = y;
+        REGIONS[4 * region + 2] = width;
+        REGIONS[4 * region + 3] = height;
+    }
+}
@@ -0,0 +1,134 @@
+package inkball;
+
+/**
+ * Time of impact calculations for a ball centre moving in a straight line. A time of 0 means
+ * the start of the movement and 1 the end, and a collision is only reported while the ball is
+ * moving towards the obstacle, so a ball that has just bounced never collides again straight away.
+ */
+public final class Sweep {
+
+    public static final float NO_HIT = Float.MAX_VALUE;
+
+    private Sweep() {
+    }
+
+    /**
+     * Calculates when a moving point first comes within the given reach of a fixed centre.
+     *
+     * @param px    the x-coordinate of the point at the start of the movement
+     * @param py    the y-coordinate of the point at the start of the movement
+     * @param dx    the movement along x
+     * @param dy    the movement along y
+     * @param cx    the x-coordinate of the centre
+     * @param cy    the y-coordinate of the centre
+     * @param reach the contact distance, the sum of both radii
+     * @return the time of impact between 0 and 1, or NO_HIT
+     */
+    public static float circle(float px, float py, float dx, float dy, float cx, float cy, float reach) {
+        float fx = px - cx;
+        float fy = py - cy;
+        float c = fx * fx + fy * fy - reach * reach;
+        float b = fx * dx + fy * dy;
+
+        //already touching, hit only if moving closer
+        if (c <= 0) {
+            return b < 0 ? 0 : NO_HIT;
+        }
+
+        //moving away or not moving
+        float a = dx * dx + dy * dy;
+        if (b >= 0 || a == 0) {
+            return NO_HIT;
+        }
+
+        //solve |f + t d| = reach for the first root
+        float disc = b * b - a * c;
+        if (disc < 0) {
+            return NO_HIT;
+        }
+        float t = (-b - (float) Math.sqrt(disc)) / a;
+        return t <= 1 ? Math.max(0, t) : NO_HIT;
+    }
+
+    /**
+     * Calculates when a moving point first comes within the given reach of a segment, that is
+     * when a ball first touches a capsule around the segment.
+     *
+     * @param px    the x-coordinate of the point at the start of the movement
+     * @param py    the y-coordinate of the point at the start of the movement
+     * @param dx    the movement along x
+     * @param dy    the movement along y
+     * @param x1    the x-coordinate of the first end of the segment
+     * @param y1    the y-coordinate of the first end of the segment
+     * @param x2    the x-coordinate of the second end of the segment
+     * @param y2    the y-coordinate of the second end of the segment
+     * @param reach the contact distance from the segment
+     * @return the time of impact between 0 and 1, or NO_HIT
+     */
+    public static float capsule(float px, float py, float dx, float dy,
+                                float x1, float y1, float x2, float y2, float reach) {
+        float ex = x2 - x1;
+        float ey = y2 - y1;
+        float len2 = ex * ex + ey * ey;
+        if (len2 == 0) {
+            return circle(px, py, dx, dy, x1, y1, reach);
+        }
+        float len = (float) Math.sqrt(len2);
+        return capsule(px, py, dx, dy, x1, y1, ex, ey, 1 / len2, -ey / len, ex / len, reach);
+    }
+
+    /**
+     * Calculates when a moving point first comes within the given reach of a segment, using the
+     * segment's precomputed direction, inverse squared length and unit normal.
+     *
+     * @param px      the x-coordinate of the point at the start of the movement
+     * @param py      the y-coordinate of the point at the start of the movement
+     * @param dx      the movement along x
+     * @param dy      the movement along y
+     * @param x1      the x-coordinate of the first end of the segment
+     * @param y1      the y-coordinate of the first end of the segment
+     * @param ex      the segment direction along x, from the first end to the second
+     * @param ey      the segment direction along y
+     * @param invLen2 one over the squared length of the segment, 0 if it has no length
+     * @param nx      the unit normal of the segment along x
+     * @param ny      the unit normal of the segment along y
+     * @param reach   the contact distance from the segment
+     * @return the time of impact between 0 and 1, or NO_HIT
+     */
+    public static float capsule(float px, float py, float dx, float dy, float x1, float y1,
+                                float ex, float ey, float invLen2, float nx, float ny, float reach) {
+        if (invLen2 == 0) {
+            return circle(px, py, dx, dy, x1, y1, reach);
+        }
+
+        //already touching the side of the segment, hit only if moving closer
+        float fx = px - x1;
+        float fy = py - y1;
+        float along = (fx * ex + fy * ey) * invLen2;
+        if (along >= 0 && along <= 1) {
+            float ox = fx - along * ex;
+            float oy = fy - along * ey;
+            if (ox * ox + oy * oy <= reach * reach) {
+                return ox * dx + oy * dy < 0 ? 0 : NO_HIT;
+            }
+        }
+
+        //the rounded ends
+        float t = Math.min(circle(px, py, dx, dy, x1, y1, reach), circle(px, py, dx, dy, x1 + ex, y1 + ey, reach));
+
+        //the flat sides, offset from the segment by the reach
+        float side = fx * nx + fy * ny;
+        float closing = dx * nx + dy * ny;
+        if ((side > 0 && closing < 0) || (side < 0 && closing > 0)) {
+            float offset = side > 0 ? reach : -reach;
+            float ts = (side - offset) / -closing;
+            if (ts >= 0 && ts <= 1 && ts < t) {
+                float hitAlong = ((fx + dx * ts) * ex + (fy + dy * ts) * ey) * invLen2;
+                if (hitAlong >= 0 && hitAlong <= 1) {
+                    t = ts;
+                }
+            }
+        }
+        return t;
+    }
+}
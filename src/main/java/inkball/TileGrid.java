@@ -0,0 +1,280 @@
+package inkball;
+
+import java.util.Arrays;
+
+/**
+ * A cell-indexed lookup of the walls and bricks in a level, so a ball only needs to
+ * check the tiles in its own and neighbouring cells instead of every tile on the board.
+ * Each cell also lists the holes that can attract a ball centred in it.
+ * <p>
+ * Like the {@link TileMap}, cells are stored in chunks that are only allocated once something is
+ * added to them, so the memory taken by a large level grows with its contents rather than its area.
+ */
+public class TileGrid {
+
+    private static final Hole[] NO_HOLES = new Hole[0];
+
+    private static final int CHUNK = TileMap.CHUNK;
+
+    private final int cols, rows;
+    private final int chunkCols;    // chunks across the grid
+    private final Wall[][] walls;   // wall in each cell of each chunk, null if empty
+    private final Brick[][] bricks; // unbroken brick in each cell of each chunk, null if empty
+    private final Hole[][][] holes; // holes in reach of each cell of each chunk in the order they were added, null if none
+    private Hole[] allHoles = NO_HOLES;
+
+    /**
+     * Constructs an empty grid covering the given number of cells.
+     *
+     * @param cols the number of columns in the level
+     * @param rows the number of rows in the level
+     */
+    public TileGrid(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.chunkCols = (cols + CHUNK - 1) / CHUNK;
+        int chunkCount = chunkCols * ((rows + CHUNK - 1) / CHUNK);
+        this.walls = new Wall[chunkCount][];
+        this.bricks = new Brick[chunkCount][];
+        this.holes = new Hole[chunkCount][][];
+    }
+
+    /**
+     * Adds a wall to the cell at its grid position.
+     *
+     * @param wall the wall to add
+     */
+    public void addWall(Wall wall) {
+        int col = (int) wall.getX();
+        int row = (int) wall.getY();
+        int chunk = chunkIndex(col, row);
+        if (walls[chunk] == null) {
+            walls[chunk] = new Wall[CHUNK * CHUNK];
+        }
+        walls[chunk][cellIndex(col, row)] = wall;
+    }
+
+    /**
+     * Adds a brick to the cell at its grid position.
+     *
+     * @param brick the brick to add
+     */
+    public void addBrick(Brick brick) {
+        int col = (int) brick.getX();
+        int row = (int) brick.getY();
+        int chunk = chunkIndex(col, row);
+        if (bricks[chunk] == null) {
+            bricks[chunk] = new Brick[CHUNK * CHUNK];
+        }
+        bricks[chunk][cellIndex(col, row)] = brick;
+    }
+
+    /**
+     * Adds a hole to every cell close enough for a ball centred in the cell to be attracted by it.
+     * The cells are chosen with a pixel of margin, since the exact check is left to the hole.
+     *
+     * @param hole the hole to add
+     */
+    public void addHole(Hole hole) {
+        allHoles = append(allHoles, hole);
+
+        float reach = Hole.ATTRACTION_RADIUS + 1;
+        int minCol = Math.max(0, colAt(hole.getX() - reach));
+        int maxCol = Math.min(cols - 1, colAt(hole.getX() + reach));
+        int minRow = Math.max(0, rowAt(hole.getY() - reach));
+        int maxRow = Math.min(rows - 1, rowAt(hole.getY() + reach));
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+
+                //closest point of the cell to the hole centre
+                float cellX = col * App.CELLSIZE;
+                float cellY = row * App.CELLSIZE + App.TOPBAR;
+                float dx = hole.getX() - Math.max(cellX, Math.min(hole.getX(), cellX + App.CELLSIZE));
+                float dy = hole.getY() - Math.max(cellY, Math.min(hole.getY(), cellY + App.CELLSIZE));
+                if (dx * dx + dy * dy <= reach * reach) {
+                    int chunk = chunkIndex(col, row);
+                    if (holes[chunk] == null) {
+                        holes[chunk] = new Hole[CHUNK * CHUNK][];
+                    }
+                    Hole[][] cells = holes[chunk];
+                    int index = cellIndex(col, row);
+                    cells[index] = cells[index] == null ? new Hole[]{hole} : append(cells[index], hole);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a brick from its cell, used once the brick has been destroyed.
+     *
+     * @param brick the brick to remove
+     */
+    public void removeBrick(Brick brick) {
+        int col = (int) brick.getX();
+        int row = (int) brick.getY();
+        Brick[] cells = bricks[chunkIndex(col, row)];
+        if (cells != null && cells[cellIndex(col, row)] == brick) {
+            cells[cellIndex(col, row)] = null;
+        }
+    }
+
+    /**
+     * Gets the wall in the given cell.
+     *
+     * @param col the column of the cell
+     * @param row the row of the cell
+     * @return the wall in the cell, or null if the cell is empty or outside the grid
+     */
+    public Wall getWall(int col, int row) {
+        if (!contains(col, row)) {
+            return null;
+        }
+        Wall[] cells = walls[chunkIndex(col, row)];
+        return cells == null ? null : cells[cellIndex(col, row)];
+    }
+
+    /**
+     * Gets the unbroken brick in the given cell.
+     *
+     * @param col the column of the cell
+     * @param row the row of the cell
+     * @return the brick in the cell, or null if the cell is empty or outside the grid
+     */
+    public Brick getBrick(int col, int row) {
+        if (!contains(col, row)) {
+            return null;
+        }
+        Brick[] cells = bricks[chunkIndex(col, row)];
+        return cells == null ? null : cells[cellIndex(col, row)];
+    }
+
+    /**
+     * Gets the holes that can attract a ball centred in the given cell, in the order they were
+     * added. Cells outside the grid get every hole.
+     *
+     * @param col the column of the cell
+     * @param row the row of the cell
+     * @return the holes in reach, empty if there are none
+     */
+    public Hole[] getHolesNear(int col, int row) {
+        if (!contains(col, row)) {
+            return allHoles;
+        }
+        Hole[][] cells = holes[chunkIndex(col, row)];
+        Hole[] near = cells == null ? null : cells[cellIndex(col, row)];
+        return near == null ? NO_HOLES : near;
+    }
+
+    /**
+     * Gets the number of holes in the level.
+     *
+     * @return the number of holes
+     */
+    public int getHoleCount() {
+        return allHoles.length;
+    }
+
+    /**
+     * Converts a screen x-coordinate to the column of the cell containing it.
+     *
+     * @param x the x-coordinate in pixels
+     * @return the column index, which may be outside the grid
+     */
+    public static int colAt(float x) {
+        return (int) Math.floor(x / App.CELLSIZE);
+    }
+
+    /**
+     * Converts a screen y-coordinate to the row of the cell containing it, accounting for the top bar.
+     *
+     * @param y the y-coordinate in pixels
+     * @return the row index, which may be outside the grid
+     */
+    public static int rowAt(float y) {
+        return (int) Math.floor((y - App.TOPBAR) / App.CELLSIZE);
+    }
+
+    /**
+     * Gets the number of columns in the grid.
+     *
+     * @return the number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Gets the number of rows in the grid.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the x-coordinate of the right edge of the board, where balls bounce. A level smaller
+     * than the window is still bounded by the window.
+     *
+     * @return the right edge in pixels
+     */
+    public int getRightEdge() {
+        return Math.max(cols * App.CELLSIZE, App.WIDTH);
+    }
+
+    /**
+     * Gets the y-coordinate of the bottom edge of the board, where balls bounce. A level smaller
+     * than the window is still bounded by the window.
+     *
+     * @return the bottom edge in pixels
+     */
+    public int getBottomEdge() {
+        return Math.max(rows * App.CELLSIZE + App.TOPBAR, App.HEIGHT);
+    }
+
+    /**
+     * Checks whether the given cell lies inside the grid.
+     *
+     * @param col the column of the cell
+     * @param row the row of the cell
+     * @return true if the cell is inside the grid
+     */
+    private boolean contains(int col, int row) {
+        return col >= 0 && row >= 0 && col < cols && row < rows;
+    }
+
+    /**
+     * Copies an array of holes with one more hole at the end.
+     *
+     * @param array the holes so far
+     * @param hole  the hole to add
+     * @return the longer array
+     */
+    private static Hole[] append(Hole[] array, Hole hole) {
+        Hole[] longer = Arrays.copyOf(array, array.length + 1);
+        longer[array.length] = hole;
+        return longer;
+    }
+
+    /**
+     * Gets the index of the chunk holding a cell.
+     *
+     * @param col the column of the cell
+     * @param row the row of the cell
+     * @return the chunk index
+     */
+    private int chunkIndex(int col, int row) {
+        return (row / CHUNK) * chunkCols + col / CHUNK;
+    }
+
+    /**
+     * Gets the index of a cell within its chunk.
+     *
+     * @param col the column of the cell
+     * @param row the row of the cell
+     * @return the index within the chunk
+     */
+    private static int cellIndex(int col, int row) {
+        return (row % CHUNK) * CHUNK + col % CHUNK;
+    }
+}
@@ -0,0 +1,199 @@
+package inkball;
+
+import java.util.Arrays;
+
+/**
+ * The tile of each cell of a level, stored as one byte code per cell. Codes index a table of
+ * sprite atlas regions, so drawing the board needs no string comparisons or sprite lookups by name.
+ * <p>
+ * Cells are stored in square chunks of CHUNK by CHUNK cells, each in row-major order, and a
+ * chunk is only allocated once something other than a plain tile is set in it. Large levels
+ * that are mostly open floor therefore take little memory.
+ */
+public class TileMap {
+
+    public static final byte TILE = 0;
+    public static final byte ENTRYPOINT = 1;
+    public static final byte WALL = 2;                      // WALL + colour for wall0 to wall4
+    public static final byte HOLE = WALL + Colours.COUNT;   // HOLE + colour for hole0 to hole4
+    public static final int CODE_COUNT = HOLE + Colours.COUNT;
+    public static final int CHUNK = 32;                     // cells along each side of a storage chunk
+
+    private static final int[] REGIONS = new int[CODE_COUNT]; // sprite atlas region of each code
+
+    static {
+        REGIONS[TILE] = SpriteAtlas.TILE;
+        REGIONS[ENTRYPOINT] = SpriteAtlas.ENTRYPOINT;
+        for (int colour = 0; colour < Colours.COUNT; colour++) {
+            REGIONS[WALL + colour] = SpriteAtlas.wall(colour);
+            REGIONS[HOLE + colour] = SpriteAtlas.hole(colour);
+        }
+    }
+
+    private final int cols;
+    private final int rows;
+    private final int chunkCols;      // chunks across the map
+    private final byte[][] chunks;    // codes of each chunk, row-major, null while all plain tiles
+
+    /**
+     * Constructs a map of plain tiles.
+     *
+     * @param cols the number of columns
+     * @param rows the number of rows
+     */
+    public TileMap(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.chunkCols = (cols + CHUNK - 1) / CHUNK;
+        this.chunks = new byte[chunkCols * ((rows + CHUNK - 1) / CHUNK)][];
+    }
+
+    /**
+     * Gets the code of a cell, a plain tile for cells that fall outside the map.
+     *
+     * @param col the column of the cell
+     * @param row the row of the cell
+     * @return the tile code
+     */
+    public byte get(int col, int row) {
+        if (col < 0 || col >= cols || row < 0 || row >= rows) {
+            return TILE;
+        }
+        byte[] chunk = chunks[chunkIndex(col, row)];
+        return chunk == null ? TILE : chunk[cellIndex(col, row)];
+    }
+
+    /**
+     * Sets the code of a cell, ignoring cells that fall outside the map.
+     *
+     * @param col  the column of the cell
+     * @param row  the row of the cell
+     * @param code the tile code
+     */
+    public void set(int col, int row, byte code) {
+        if (col < 0 || col >= cols || row < 0 || row >= rows) {
+            return;
+        }
+        int index = chunkIndex(col, row);
+        if (chunks[index] == null) {
+            if (code == TILE) {
+                return;
+            }
+            chunks[index] = new byte[CHUNK * CHUNK];
+        }
+        chunks[index][cellIndex(col, row)] = code;
+    }
+
+    /**
+     * Resets every cell to a plain tile, releasing every chunk.
+     */
+    public void clear() {
+        Arrays.fill(chunks, null);
+    }
+
+    /**
+     * Gets the number of chunks allocated so far.
+     *
+     * @return the allocated chunk count
+     */
+    public int getAllocatedChunks() {
+        int allocated = 0;
+        for (byte[] chunk : chunks) {
+            if (chunk != null) {
+                allocated++;
+            }
+        }
+        return allocated;
+    }
+
+    /**
+     * Gets the number of columns.
+     *
+     * @return the width of the map in cells
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return the height of the map in cells
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the index of the chunk holding a cell.
+     *
+     * @param col the column of the cell
+     * @param row the row of the cell
+     * @return the chunk index
+     */
+    private int chunkIndex(int col, int row) {
+        return (row / CHUNK) * chunkCols + col / CHUNK;
+    }
+
+    /**
+     * Gets the index of a cell within its chunk.
+     *
+     * @param col the column of the cell
+     * @param row the row of the cell
+     * @return the index within the chunk
+     */
+    private static int cellIndex(int col, int row) {
+        return (row % CHUNK) * CHUNK + col % CHUNK;
+    }
+
+    /**
+     * Gets the code of a wall of the given colour.
+     *
+     * @param colour the colour id
+     * @return the tile code
+     */
+    public static byte wall(int colour) {
+        return (byte) (WALL + colour);
+    }
+
+    /**
+     * Gets the code of a hole of the given colour.
+     *
+     * @param colour the colour id
+     * @return the tile code
+     */
+    public static byte hole(int colour) {
+        return (byte) (HOLE + colour);
+    }
+
+    /**
+     * Checks whether a tile code is a wall.
+     *
+     * @param code the tile code
+     * @return true for wall0 to wall4
+     */
+    public static boolean isWall(int code) {
+        return code >= WALL && code < HOLE;
+    }
+
+    /**
+     * Gets the sprite atlas region of a tile code.
+     *
+     * @param code the tile code
+     * @return the region id, a plain tile for unknown codes
+     */
+    public static int spriteRegion(int code) {
+        return code >= 0 && code < CODE_COUNT ? REGIONS[code] : REGIONS[TILE];
+    }
+
+    /**
+     * Gets the sprite atlas region of the floor drawn under a tile code. Walls and holes are
+     * drawn by their own entities on top of a plain tile, so only spawners have a floor of their own.
+     *
+     * @param code the tile code
+     * @return the region id of the floor
+     */
+    public static int floorRegion(int code) {
+        return code == ENTRYPOINT ? SpriteAtlas.ENTRYPOINT : SpriteAtlas.TILE;
+    }
+}
@@ -0,0 +1,69 @@
+package inkball;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands values from one writer thread to one reader thread without locks. The writer fills the
+ * back buffer and publishes it, the reader takes the most recently published buffer, and a third
+ * buffer in the middle lets each side swap without waiting for the other. The reader never sees
+ * a buffer while it is being written, and the writer never overwrites the buffer being read.
+ * <p>
+ * Buffers are reused, so a published value only stays unchanged until the reader asks for a
+ * newer one.
+ *
+ * @param <T> the type of the buffers
+ */
+public class TripleBuffer<T> {
+
+    private static final int INDEX = 3;  // bits holding the index of the middle buffer
+    private static final int FRESH = 4;  // set while the middle buffer was published but not yet read
+
+    private final Object[] buffers = new Object[3];
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 2;  // only used by the writer
+    private int front = 0; // only used by the reader
+
+    /**
+     * Constructs a triple buffer, creating its three buffers.
+     *
+     * @param factory creates each buffer
+     */
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = factory.get();
+        }
+    }
+
+    /**
+     * Gets the buffer the writer fills next. Only the writer thread may call this.
+     *
+     * @return the back buffer
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) buffers[back];
+    }
+
+    /**
+     * Publishes the back buffer to the reader and takes the middle buffer as the new back
+     * buffer. Only the writer thread may call this.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX;
+    }
+
+    /**
+     * Gets the most recently published buffer, swapping it to the front if it is newer than the
+     * one read last. Only the reader thread may call this.
+     *
+     * @return the front buffer
+     */
+    @SuppressWarnings("unchecked")
+    public T getLatest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX;
+        }
+        return (T) buffers[front];
+    }
+}
@@ -1,26 +1,34 @@
 package inkball;
 
-import processing.core.PImage;
+import processing.core.PGraphics;
 
 public class Wall implements Drawable {
 
     private int x, y;
-    private String type;
-    private PImage sprite;
+    private int colour; // colour id, grey for walls that do not recolour balls
 
     /**
-     * Constructs a Wall object with the specified position, type, and sprite.
+     * Constructs a Wall object with the specified position and type.
+     *
+     * @param x    the x-coordinate of the wall on the grid
+     * @param y    the y-coordinate of the wall on the grid
+     * @param type the type of the wall, which represents the wall's characteristics (e.g., color)
+     */
+    public Wall(int x, int y, String type) {
+        this(x, y, Colours.fromSpriteName(type));
+    }
+
+    /**
+     * Constructs a Wall object with the specified position and colour id.
      *
      * @param x      the x-coordinate of the wall on the grid
      * @param y      the y-coordinate of the wall on the grid
-     * @param type   the type of the wall, which represents the wall's characteristics (e.g., color)
-     * @param sprite the PImage object representing the wall's sprite
+     * @param colour the colour id of the wall
      */
-    public Wall(int x, int y, String type, PImage sprite) {
+    public Wall(int x, int y, int colour) {
         this.x = x;
         this.y = y;
-        this.type = type;
-        this.sprite = sprite;
+        this.colour = colour;
     }
 
     /**
@@ -42,39 +50,39 @@ public class Wall implements Drawable {
     }
 
     /**
-     * Gets the type of the wall, which is used to identify the wall's characteristics (e.g., color).
+     * Gets the colour of the wall.
      *
-     * @return the type of the wall as a string
+     * @return the colour id, grey for walls that do not recolour balls
      */
-    public String getType() {
-        return type;
+    public int getColour() {
+        return colour;
     }
 
     /**
-     * Gets the sprite image of the wall.
+     * Gets the sprite atlas region the wall is drawn with.
      *
-     * @return the PImage object representing the wall's sprite
+     * @return the region id
      */
-    public PImage getSprite() {
-        return sprite;
+    public int getSpriteRegion() {
+        return SpriteAtlas.wall(colour);
     }
 
     /**
-     * Gets the sprite image of the wall.
+     * Draws the wall on the screen at its specified position.
      *
-     * @param sprite the new PImage object
-     * @return the updated PImage object
+     * @param app the App object used to render the wall
      */
-    public void setSprite(PImage sprite) {
-        this.sprite = sprite;
+    public void draw(App app) {
+        draw(app.g, app.getAtlas());
     }
 
     /**
-     * Draws the wall on the screen at its specified position.
+     * Draws the wall at its specified position onto a graphics buffer, such as the background layer.
      *
-     * @param app the App object used to render the wall
+     * @param g     the graphics to draw on, in window coordinates
+     * @param atlas the sprite atlas to draw from
      */
-    public void draw(App app) {
-        app.image(sprite, x * App.CELLSIZE, y * App.CELLSIZE + App.TOPBAR, App.CELLSIZE, App.CELLSIZE);
+    public void draw(PGraphics g, SpriteAtlas atlas) {
+        atlas.draw(g, getSpriteRegion(), x * App.CELLSIZE, y * App.CELLSIZE + App.TOPBAR, App.CELLSIZE, App.CELLSIZE);
     }
 }
@@ -0,0 +1,37 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BallColliderTest {
+
+    @Test
+    public void testHeadOnBallsSwapVelocities() {
+        BallStore store = new BallStore();
+        store.add(new Ball(100, 100, 2, 0, "ball0"));
+        store.add(new Ball(120, 100, -1, 0, "ball1"));
+
+        new BallCollider().collide(store);
+
+        assertEquals(-1, store.get(0).getVx(), 0.001, "Equal masses should swap velocities.");
+        assertEquals(2, store.get(1).getVx(), 0.001, "Equal masses should swap velocities.");
+        float gap = store.get(1).getX() - store.get(0).getX();
+        assertEquals(App.CELLSIZE, gap, 0.001, "Overlapping balls should be pushed apart until they touch.");
+    }
+
+    @Test
+    public void testSeparatedAndRemovedBallsAreIgnored() {
+        BallStore store = new BallStore();
+        store.add(new Ball(100, 100, 2, 0, "ball0"));
+        store.add(new Ball(100, 300, -2, 0, "ball1")); // same x, far apart on y
+        store.add(new Ball(110, 100, -2, 0, "ball2")); // overlaps the first, but removed
+        store.markRemoved(2);
+
+        new BallCollider().collide(store);
+
+        assertEquals(2, store.get(0).getVx(), "Ball should not collide with distant or removed balls.");
+        assertEquals(-2, store.get(1).getVx(), "Ball should not collide with distant balls.");
+        assertEquals(-2, store.get(2).getVx(), "Removed ball should not collide.");
+    }
+}
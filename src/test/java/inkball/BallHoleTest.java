@@ -1,45 +1,30 @@
 package inkball;
 
-import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import processing.core.PApplet;
-import processing.core.PImage;
+
+import java.io.File;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class BallHoleTest {
 
-    static App app;
-
-    @BeforeAll
-    public static void setup() {
-        app = new App();
-        PApplet.runSketch(new String[]{"App"}, app);
-        app.setup(); // Initialize the game environment
-    }
+    GameState state;
 
-    private PImage loadSprite(String filename) {
-        PImage sprite = app.loadImage("src/main/resources/inkball/" + filename);
-        assertNotNull(sprite, "Failed to load the sprite: " + filename);
-        return sprite;
+    @BeforeEach
+    public void setup() {
+        // headless game state, no PApplet window needed
+        state = new GameState(new File("config.json"), 1);
+        state.startLevel(0);
     }
 
     @Test
     public void testBallEntersCorrectHole() {
-        // Clear any existing balls and holes
-        app.getBalls().clear();
-        app.getHoles().clear();
-
-        // Load the ball1.png sprite from the resources folder
-        PImage ballSprite = loadSprite("ball1.png");
-
         // Add a ball and a matching hole at the same coordinates (100, 100)
-        Ball ball = new Ball(100, 100, 0, 0, "ball1", ballSprite);
-        app.getBalls().add(ball);
+        Ball ball = new Ball(100, 100, 0, 0, "ball1");
         
         // Make sure hole is offset with 16
-        Hole hole = new Hole(100 + App.CELLSIZE / 2, 100 + App.CELLSIZE / 2, 1, ballSprite);
-        app.getHoles().add(hole);
+        Hole hole = new Hole(100 + App.CELLSIZE / 2, 100 + App.CELLSIZE / 2, 1);
 
         // Test if the ball is captured by the correct hole
         int result = hole.checkBallCapture(ball);
@@ -50,20 +35,11 @@ public class BallHoleTest {
 
     @Test
     public void testBallMissesHole() {
-        // Clear any existing balls and holes
-        app.getBalls().clear();
-        app.getHoles().clear();
-
-        // Load the ball1.png sprite from the resources folder
-        PImage ballSprite = loadSprite("ball1.png");
-
         // Add a ball and a hole at different coordinates (100, 100 for the ball, 200, 200 for the hole)
-        Ball ball = new Ball(100, 100, 0, 0, "ball1", ballSprite);
-        app.getBalls().add(ball);
+        Ball ball = new Ball(100, 100, 0, 0, "ball1");
 
         // Make sure hole is offset with 16
-        Hole hole = new Hole(200 + App.CELLSIZE / 2, 200 + App.CELLSIZE / 2, 1, ballSprite); // Place hole far from the ball
-        app.getHoles().add(hole);
+        Hole hole = new Hole(200 + App.CELLSIZE / 2, 200 + App.CELLSIZE / 2, 1); // Place hole far from the ball
 
         // Test if the ball misses the hole
         int result = hole.checkBallCapture(ball);
@@ -71,4 +47,19 @@ public class BallHoleTest {
         // Assert that the ball does not enter the hole
         assertEquals(0, result, "Ball should miss the hole.");
     }
+
+    @Test
+    public void testTickCapturesBallOverHole() {
+        // still ball placed on the centre of a level 1 hole of its own colour
+        Hole hole = state.getHoles().get(0);
+        Ball ball = new Ball(hole.getX() - App.CELLSIZE / 2, hole.getY() - App.CELLSIZE / 2, 0, 0,
+                hole.getColourNumber());
+        state.getBallStore().add(ball);
+        int balls = state.getBalls().size();
+
+        state.tick();
+
+        assertEquals(1, state.getCapturedCount(), "The ball should be captured by the hole.");
+        assertEquals(balls - 1, state.getBalls().size(), "The captured ball should leave the board.");
+    }
 }
@@ -0,0 +1,64 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BallStoreTest {
+
+    @Test
+    public void testAddedBallIsViewOfStore() {
+        BallStore store = new BallStore(1);
+        Ball ball = new Ball(100, 100, 2, -2, "ball3");
+        store.add(ball);
+
+        // moving the store moves the view
+        ball.updatePostition();
+        assertEquals(100 + App.CELLSIZE / 2 + 2, ball.getX(), "View should read the moved position.");
+        assertEquals(100 + App.CELLSIZE / 2 - 2, ball.getY(), "View should read the moved position.");
+        assertEquals(3, ball.getColourNumber(), "View should keep the ball colour.");
+    }
+
+    @Test
+    public void testRemoveMarkedKeepsOrder() {
+        BallStore store = new BallStore(1);
+        Ball first = new Ball(0, 0, 1, 0, "ball0");
+        Ball second = new Ball(50, 0, 2, 0, "ball1");
+        Ball third = new Ball(100, 0, 3, 0, "ball2");
+        store.add(first);
+        store.add(second);
+        store.add(third);
+
+        store.markRemoved(1);
+        store.removeMarked();
+
+        assertEquals(2, store.size(), "One ball should be removed.");
+        assertSame(first, store.get(0), "Remaining balls should keep their order.");
+        assertSame(third, store.get(1), "Remaining balls should keep their order.");
+        assertEquals(3, third.getVx(), "Moved view should still read its own state.");
+
+        // the removed ball keeps its last state
+        assertEquals(2, second.getVx(), "Removed view should keep its state.");
+        assertEquals(1, second.getColourNumber(), "Removed view should keep its colour.");
+    }
+
+    @Test
+    public void testBallReflectsOffLineNormal() {
+        // horizontal line below a ball falling diagonally onto it
+        Line line = new Line();
+        line.addPoint(100, 300);
+        line.addPoint(400, 300);
+        SegmentIndex index = new SegmentIndex();
+        index.add(line);
+
+        Ball ball = new Ball(250 - App.CELLSIZE / 2, 280 - App.CELLSIZE / 2, 2, 6, "ball0");
+        ArrayList<Line> hitLines = new ArrayList<>();
+        ball.move(new TileGrid(18, 18), index, hitLines);
+
+        assertTrue(hitLines.contains(line), "Ball should hit the line.");
+        assertEquals(2, ball.getVx(), "Velocity along the line should be kept.");
+        assertEquals(-6, ball.getVy(), "Velocity into the line should be reversed.");
+    }
+}
@@ -0,0 +1,79 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BallUpdaterTest {
+
+    private TileGrid level() {
+        TileGrid grid = new TileGrid(18, 18);
+        for (int i = 0; i < 18; i++) {
+            grid.addWall(new Wall(i, 9, "wall" + (i % 5)));
+        }
+        grid.addBrick(new Brick(4, 4, "wall0"));
+        grid.addBrick(new Brick(12, 12, "wall0"));
+        grid.addHole(new Hole(160, 400, 1));
+        return grid;
+    }
+
+    private BallStore manyBalls(int count) {
+        Random random = new Random(7);
+        BallStore store = new BallStore(count);
+        for (int i = 0; i < count; i++) {
+            Ball ball = new Ball(random.nextInt(500) + 40, random.nextInt(500) + 100,
+                    random.nextFloat() * 8 - 4, random.nextFloat() * 8 - 4, "ball" + random.nextInt(5));
+            store.add(ball);
+        }
+        return store;
+    }
+
+    @Test
+    public void testParallelUpdateMatchesSequential() {
+        SegmentIndex lines = new SegmentIndex();
+        Line line = new Line();
+        line.addPoint(100, 200);
+        line.addPoint(400, 250);
+        lines.add(line);
+
+        BallStore sequential = manyBalls(1000);
+        BallStore parallel = manyBalls(1000);
+        BallUpdater sequentialUpdater = new BallUpdater();
+        BallUpdater parallelUpdater = new BallUpdater();
+        parallelUpdater.setParallel(true);
+
+        for (int frame = 0; frame < 30; frame++) {
+            sequentialUpdater.update(sequential, level(), lines);
+            parallelUpdater.update(parallel, level(), lines);
+
+            for (int i = 0; i < sequential.size(); i++) {
+                BallEvents expected = sequentialUpdater.getEvents(i);
+                BallEvents actual = parallelUpdater.getEvents(i);
+                assertEquals(sequential.x[i], parallel.x[i], "Ball " + i + " should move the same in parallel.");
+                assertEquals(sequential.vy[i], parallel.vy[i], "Ball " + i + " should bounce the same in parallel.");
+                assertEquals(sequential.colour[i], parallel.colour[i], "Ball " + i + " should recolour the same in parallel.");
+                assertEquals(expected.getHitLines(), actual.getHitLines(), "Ball " + i + " should hit the same lines.");
+                assertEquals(expected.getHitBricks().size(), actual.getHitBricks().size(), "Ball " + i + " should hit the same bricks.");
+                assertEquals(expected.getCapture(), actual.getCapture(), "Ball " + i + " should be captured the same.");
+            }
+        }
+    }
+
+    @Test
+    public void testBrickHitIsRecordedNotApplied() {
+        TileGrid grid = new TileGrid(10, 10);
+        Brick brick = new Brick(5, 5, "wall0");
+        grid.addBrick(brick);
+
+        BallStore store = new BallStore(1);
+        store.add(new Ball(4 * App.CELLSIZE, 5 * App.CELLSIZE + App.TOPBAR, 2, 0, "ball0"));
+        BallUpdater updater = new BallUpdater();
+        updater.update(store, grid, new SegmentIndex());
+
+        assertEquals(1, updater.getEvents(0).getHitBricks().size(), "The brick hit should be recorded.");
+        assertEquals(0, brick.getHitCount(), "The brick should not be damaged until the events are applied.");
+        assertEquals(-2, store.get(0).getVx(), "The ball should still bounce off the brick.");
+    }
+}
@@ -0,0 +1,65 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchRunnerTest {
+
+    @Test
+    public void testResultsDoNotDependOnThreadCount() {
+        BatchRunner runner = new BatchRunner(new File("config.json"));
+        List<List<BatchRunner.GameResult>> single = runner.run(3, 1, BatchRunner.policyNamed("random"), 5, 60 * App.FPS);
+        List<List<BatchRunner.GameResult>> many = runner.run(3, 4, BatchRunner.policyNamed("random"), 5, 60 * App.FPS);
+
+        assertEquals(runner.getLevelCount(), single.size(), "Every level should be played.");
+        for (int level = 0; level < single.size(); level++) {
+            for (int i = 0; i < 3; i++) {
+                BatchRunner.GameResult a = single.get(level).get(i);
+                BatchRunner.GameResult b = many.get(level).get(i);
+                assertEquals(a.seed, b.seed, "Games should keep their seeds.");
+                assertEquals(a.score, b.score, "Seeded games should score the same on any number of threads.");
+                assertEquals(a.frames, b.frames, "Seeded games should last the same on any number of threads.");
+            }
+        }
+    }
+
+    @Test
+    public void testParallelBallsPlayTheSameGames() {
+        BatchRunner runner = new BatchRunner(new File("config.json"));
+        List<List<BatchRunner.GameResult>> sequential = runner.run(2, 2, BatchRunner.policyNamed("random"), 9, 60 * App.FPS);
+        runner.setParallelBalls(true);
+        List<List<BatchRunner.GameResult>> parallel = runner.run(2, 2, BatchRunner.policyNamed("random"), 9, 60 * App.FPS);
+
+        for (int level = 0; level < sequential.size(); level++) {
+            for (int i = 0; i < 2; i++) {
+                assertEquals(sequential.get(level).get(i).score, parallel.get(level).get(i).score,
+                        "Moving balls in parallel should not change a game.");
+            }
+        }
+    }
+
+    @Test
+    public void testPercentileUsesNearestRank() {
+        int[] sorted = {10, 20, 30, 40, 50};
+        assertEquals(10, BatchRunner.percentile(sorted, 0), "The 0th percentile should be the minimum.");
+        assertEquals(30, BatchRunner.percentile(sorted, 50), "The median should be the middle value.");
+        assertEquals(50, BatchRunner.percentile(sorted, 100), "The 100th percentile should be the maximum.");
+    }
+
+    @Test
+    public void testEmptyRunReportsNoGames() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BatchRunner.report(new PrintStream(bytes), 0, Collections.emptyList());
+        assertTrue(bytes.toString().startsWith("level 1: 0 games"), "A level without games should still be reported.");
+
+        assertThrows(IllegalArgumentException.class, () -> BatchRunner.main(new String[]{"--games"}),
+                "An option without a value should be rejected.");
+    }
+}
@@ -0,0 +1,40 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColourQueueTest {
+
+    @Test
+    public void testQueueKeepsOrderWhenWrappingAndGrowing() {
+        ColourQueue queue = new ColourQueue();
+
+        // move the front along so later adds wrap around the buffer
+        for (int i = 0; i < 10; i++) {
+            queue.add(Colours.BLUE);
+            queue.poll();
+        }
+        for (int i = 0; i < 40; i++) {
+            queue.add(i % Colours.COUNT);
+        }
+
+        assertEquals(40, queue.size(), "Queue should hold every colour added.");
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i % Colours.COUNT, queue.get(i), "Queue should keep insertion order.");
+        }
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i % Colours.COUNT, queue.poll(), "Colours should leave in insertion order.");
+        }
+        assertTrue(queue.isEmpty(), "Queue should be empty once every colour is polled.");
+    }
+
+    @Test
+    public void testColourNamesAndSpriteNames() {
+        assertEquals(Colours.GREEN, Colours.fromName("Green"), "Names should ignore case.");
+        assertEquals(Colours.GREY, Colours.fromName("purple"), "Unknown names should be grey.");
+        assertEquals("yellow", Colours.name(Colours.YELLOW), "Ids should map back to config names.");
+        assertEquals(Colours.ORANGE, Colours.fromSpriteName("wall1"), "Sprite names should end in the colour.");
+        assertEquals(Colours.ORANGE, new Wall(0, 0, "wall1").getColour(), "Walls should keep their colour id.");
+    }
+}
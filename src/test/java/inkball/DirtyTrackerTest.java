@@ -0,0 +1,69 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirtyTrackerTest {
+
+    @Test
+    public void testOverlappingRegionsMerge() {
+        DirtyRegions regions = new DirtyRegions(0, 64, 576, 640);
+        regions.add(10, 100, 20, 20);
+        regions.add(25, 110, 20, 20);
+        regions.add(300, 300, 10, 10);
+        regions.add(-50, 0, 60, 80);
+
+        assertEquals(3, regions.size(), "Overlapping rectangles should merge into one.");
+        assertEquals(10, regions.x(0), "The merged rectangle should start at the left of the first.");
+        assertEquals(35, regions.width(0), "The merged rectangle should reach the right of the second.");
+        assertEquals(64, regions.y(2), "Rectangles should be clipped to the area.");
+        assertEquals(16, regions.height(2), "Rectangles should be clipped to the area.");
+    }
+
+    @Test
+    public void testPausedFrameChangesNothing() {
+        GameState state = new GameState(new File("config.json"), 1);
+        state.startLevel(0);
+        Simulation simulation = new Simulation(state, App.FPS);
+        DirtyTracker tracker = new DirtyTracker();
+        Camera camera = new Camera(App.WIDTH, App.HEIGHT - App.TOPBAR);
+
+        tracker.track(simulation.getLatest(), null, 1, camera);
+        assertTrue(tracker.getRegions().isFull(), "The first frame of a level should be repainted in full.");
+
+        simulation.submit(GameState::togglePause);
+        simulation.step();
+        tracker.track(simulation.getLatest(), null, 1, camera);
+        tracker.track(simulation.getLatest(), null, 1, camera);
+        assertTrue(tracker.getRegions().isEmpty(), "Nothing should change while the game is paused.");
+        assertFalse(tracker.isHudChanged(), "The top bar should not change while the game is paused.");
+    }
+
+    @Test
+    public void testMovingBallAndInkAreMarked() {
+        GameState state = new GameState(new File("config.json"), 1);
+        state.startLevel(0);
+        Simulation simulation = new Simulation(state, App.FPS);
+        DirtyTracker tracker = new DirtyTracker();
+        Camera camera = new Camera(App.WIDTH, App.HEIGHT - App.TOPBAR);
+        tracker.track(simulation.getLatest(), null, 1, camera);
+
+        simulation.step();
+        tracker.track(simulation.getLatest(), null, 1, camera);
+        assertEquals(1, tracker.getRegions().size(), "The old and new bounds of the only ball should merge.");
+
+        Line line = new Line();
+        line.addPoint(300, 300);
+        line.addPoint(400, 300);
+        tracker.track(simulation.getLatest(), line, 1, camera);
+        DirtyRegions regions = tracker.getRegions();
+        boolean inkMarked = false;
+        for (int i = 0; i < regions.size(); i++) {
+            inkMarked |= regions.x(i) <= 300 && regions.x(i) + regions.width(i) >= 400 && regions.y(i) <= 295;
+        }
+        assertTrue(inkMarked, "The new stroke and its thickness should be marked.");
+    }
+}
@@ -0,0 +1,69 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrameRecorderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testPngFramesAreNumbered() throws IOException {
+        FrameRecorder recorder = new FrameRecorder(dir.toFile(), FrameRecorder.PNG, 4, 3, 2, 4, false, 60);
+        int[] pixels = new int[12];
+        for (int frame = 0; frame < 3; frame++) {
+            pixels[0] = 0xff000000 | frame * 40;
+            assertTrue(recorder.capture(pixels), "Waiting for a buffer should never drop a frame.");
+        }
+        recorder.stop();
+
+        assertEquals(3, recorder.getWritten());
+        BufferedImage last = ImageIO.read(new File(dir.toFile(), "frame-000003.png"));
+        assertEquals(4, last.getWidth());
+        assertEquals(80, last.getRGB(0, 0) & 0xffffff, "Each file should hold the pixels captured for it.");
+    }
+
+    @Test
+    public void testRawStreamHoldsEveryFrameInOrder() throws IOException {
+        FrameRecorder recorder = new FrameRecorder(dir.toFile(), FrameRecorder.RAW, 2, 2, 4, 2, false, 60);
+        int[] pixels = new int[4];
+        for (int frame = 0; frame < 5; frame++) {
+            pixels[3] = 0xff000000 | frame << 16 | 0x0203;
+            recorder.capture(pixels);
+        }
+        recorder.stop();
+
+        byte[] raw = Files.readAllBytes(dir.resolve("frames.rgb"));
+        assertEquals(5 * 4 * 3, raw.length, "Every frame should take 3 bytes per pixel.");
+        for (int frame = 0; frame < 5; frame++) {
+            int last = frame * 12 + 9;
+            assertEquals(frame, raw[last], "Frames should be written in the order they were captured.");
+            assertEquals(2, raw[last + 1]);
+            assertEquals(3, raw[last + 2]);
+        }
+    }
+
+    @Test
+    public void testFramesAreDroppedWhenEncodersFallBehind() throws IOException {
+        FrameRecorder recorder = new FrameRecorder(dir.toFile(), FrameRecorder.PNG, 64, 64, 1, 1, true, 60);
+        int[] pixels = new int[64 * 64];
+        for (int frame = 0; frame < 20; frame++) {
+            recorder.capture(pixels);
+        }
+        recorder.stop();
+
+        assertEquals(20, recorder.getRecorded() + recorder.getDropped(), "Every frame should be recorded or dropped.");
+        assertEquals(recorder.getRecorded(), recorder.getWritten(), "Every recorded frame should be written.");
+        assertTrue(recorder.getDropped() > 0, "A single buffer cannot keep up with frames captured back to back.");
+    }
+}
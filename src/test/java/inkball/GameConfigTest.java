@@ -0,0 +1,62 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import processing.core.PApplet;
+import processing.data.JSONObject;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameConfigTest {
+
+    @Test
+    public void testConfigParsedIntoLevels() {
+        GameConfig config = GameConfig.load(new File("config.json"));
+
+        assertEquals(3, config.getLevelCount());
+        assertEquals(70, config.getScoreIncrease(Colours.GREY));
+        assertEquals(25, config.getScoreDecrease(Colours.BLUE));
+
+        LevelConfig level = config.getLevel(1);
+        assertEquals(180, level.getTime());
+        assertEquals(6, level.getSpawnInterval());
+        assertEquals(1.2f, level.getScoreIncreaseModifier(), 1e-6);
+        assertEquals(8, level.getBallCount());
+        assertEquals(Colours.YELLOW, level.getBall(4), "Ball names should be parsed into colour ids.");
+        assertEquals(18, level.getLayout().getCols());
+    }
+
+    @Test
+    public void testLevelChangesReadNothing() {
+        AtomicInteger reads = new AtomicInteger();
+        JSONObject json = PApplet.loadJSONObject(new File("config.json"));
+        GameConfig config = GameConfig.parse(json, layout -> {
+            reads.incrementAndGet();
+            return PApplet.loadStrings(new File(layout));
+        });
+        assertEquals(3, reads.get(), "Every layout should be read once while parsing.");
+
+        GameState state = new GameState(config, new Random(1));
+        state.startLevel(0);
+        state.startLevel(2);
+        state.startLevel(0);
+        assertEquals(3, reads.get(), "Starting levels should not read any layout again.");
+        assertEquals(150, state.getTimeRemaining());
+    }
+
+    @Test
+    public void testMissingValuesAreRejected() {
+        JSONObject json = PApplet.loadJSONObject(new File("config.json"));
+        json.getJSONArray("levels").getJSONObject(1).remove("spawn_interval");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> GameConfig.parse(json, layout -> new String[]{"X"}));
+        assertTrue(e.getMessage().contains("level 2"), "The error should name the broken level.");
+        assertThrows(IllegalArgumentException.class,
+                () -> GameConfig.parse(PApplet.loadJSONObject(new File("config.json")), layout -> null),
+                "A layout that cannot be read should be rejected.");
+    }
+}
@@ -0,0 +1,127 @@
+package inkball;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStateTest {
+
+    GameState state;
+
+    @BeforeEach
+    public void setup() {
+        // headless game state, no PApplet window needed
+        state = new GameState(new File("config.json"), 1);
+        state.startLevel(0);
+    }
+
+    @Test
+    public void testLevelLoadsWithoutWindow() {
+        // level 1 has walls, bricks, holes and one ball placed on the board
+        assertFalse(state.getWalls().isEmpty(), "Level 1 should have walls.");
+        assertFalse(state.getBricks().isEmpty(), "Level 1 should have bricks.");
+        assertEquals(4, state.getHoles().size(), "Level 1 should have 4 holes.");
+        assertEquals(1, state.getBalls().size(), "Level 1 should start with 1 ball.");
+        assertEquals(5, state.getBallColoursToSpawn().size(), "Level 1 should queue 5 balls.");
+        assertEquals(150, state.getTimeRemaining(), "Level 1 should start with 150 seconds.");
+        assertFalse(state.isBallCollisions(), "Level 1 should not bounce balls off each other.");
+    }
+
+    @Test
+    public void testTileMapCodes() {
+        TileMap map = state.getTileMap();
+        assertEquals(18, map.getCols(), "Level 1 should be 18 cells wide.");
+        assertEquals(TileMap.ENTRYPOINT, map.get(5, 8), "The spawner cell should be an entrypoint.");
+        assertEquals(TileMap.wall(Colours.BLUE), map.get(6, 0), "A '2' should be a blue wall.");
+        assertEquals(TileMap.hole(Colours.ORANGE), map.get(12, 7), "Every cell under a hole should be coded as the hole.");
+        assertEquals(TileMap.TILE, map.get(6, 13), "The cell a ball starts on should be a plain tile.");
+    }
+
+    @Test
+    public void testLinesVersionChangesWithInk() {
+        int version = state.getLinesVersion();
+        Line line = new Line();
+        line.addPoint(300, 300);
+        line.addPoint(400, 300);
+        state.addLine(line);
+        assertNotEquals(version, state.getLinesVersion(), "Adding a line should change the version.");
+
+        version = state.getLinesVersion();
+        state.tick();
+        assertEquals(version, state.getLinesVersion(), "A frame that leaves the ink alone should keep the version.");
+
+        state.eraseLineAt(350, 300);
+        assertNotEquals(version, state.getLinesVersion(), "Erasing a line should change the version.");
+        assertEquals(400, line.bound(2), "The bounds of a line should cover its points.");
+    }
+
+    @Test
+    public void testBallSpawnsAfterInterval() {
+        // spawn interval is 10 seconds at 30 frames per second
+        for (int i = 0; i < 10 * App.FPS; i++) {
+            state.tick();
+        }
+        assertEquals(5, state.getBallColoursToSpawn().size(), "No ball should spawn before the interval ends.");
+
+        state.tick();
+        assertEquals(4, state.getBallColoursToSpawn().size(), "The spawned ball should leave the queue.");
+        assertEquals(Colours.GREY, state.getLastEmittedBallColor(), "The spawned ball should be shown as last emitted.");
+    }
+
+    @Test
+    public void testPauseFreezesBalls() {
+        for (int i = 0; i <= 10 * App.FPS; i++) {
+            state.tick();
+        }
+        Ball ball = state.getBalls().get(0);
+        float x = ball.getX();
+        float y = ball.getY();
+
+        state.togglePause();
+        for (int i = 0; i < 100; i++) {
+            state.tick();
+        }
+
+        assertEquals(x, ball.getX(), "Ball should not move while paused.");
+        assertEquals(y, ball.getY(), "Ball should not move while paused.");
+    }
+
+    @Test
+    public void testManyFramesWithoutWindow() {
+        // a full level of 150 seconds runs until the time is up
+        for (int i = 0; i < 200 * App.FPS && !state.isTimeUp(); i++) {
+            state.tick();
+        }
+        assertTrue(state.isTimeUp() || state.getCurrentLevelIndex() > 0, "The level should end within its time limit.");
+    }
+
+    @Test
+    public void testNextBoardBuiltDuringTally() {
+        AtomicInteger builds = new AtomicInteger();
+        Executor counting = task -> {
+            builds.incrementAndGet();
+            task.run();
+        };
+        state.setLevelPrefetch(counting);
+
+        // clear level 1 at once, leaving its time to be tallied
+        state.getBallStore().clear();
+        state.getBallColoursToSpawn().clear();
+        state.tick();
+        assertTrue(state.isIncrementingScore(), "Clearing the level should start the tally.");
+        assertEquals(1, builds.get(), "The next board should be built as the tally starts.");
+
+        for (int i = 0; i < 400 * App.FPS && state.getCurrentLevelIndex() == 0; i++) {
+            state.tick();
+        }
+        assertEquals(1, state.getCurrentLevelIndex(), "The next level should load after the tally.");
+        assertEquals(1, builds.get(), "The prefetched board should be used rather than built again.");
+        assertEquals(180, state.getTimeRemaining(), "Level 2 should start with its own time.");
+        assertFalse(state.getWalls().isEmpty(), "The swapped in board should have the walls of level 2.");
+    }
+}
@@ -0,0 +1,54 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class InkAllocationTest {
+
+    private Line zigzag(int x) {
+        Line line = new Line();
+        for (int y = 80; y <= 560; y += 20) {
+            line.addPoint(x + (y % 40 == 0 ? 0 : 6), y);
+        }
+        return line;
+    }
+
+    @Test
+    public void testBallAgainstInkAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "Allocation counting is not supported by this JVM.");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        // a fast ball bouncing between two long strokes
+        SegmentIndex index = new SegmentIndex();
+        Line left = zigzag(150);
+        Line right = zigzag(400);
+        index.add(left);
+        index.add(right);
+        TileGrid grid = new TileGrid(18, 18);
+        BallStore store = new BallStore(1);
+        store.add(new Ball(250, 300, 9, 3, "ball0"));
+        BallEvents events = new BallEvents();
+
+        // warm up so the measured loop runs compiled code with its buffers already grown
+        for (int i = 0; i < 20000; i++) {
+            events.clear();
+            store.move(0, grid, index, events);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 10000; i++) {
+            events.clear();
+            store.move(0, grid, index, events);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(allocated < 1024, "Ball against ink should not allocate, but allocated " + allocated + " bytes.");
+    }
+}
@@ -0,0 +1,103 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import processing.core.PApplet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LevelCompilerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testCompiledLevelMatchesText() {
+        LevelLayout text = LevelCompiler.parse(PApplet.loadStrings(new File("level2.txt")));
+        LevelLayout compiled = LevelCompiler.read(ByteBuffer.wrap(LevelCompiler.compile(text, null)));
+
+        assertEquals(text.getCols(), compiled.getCols());
+        assertEquals(text.getRows(), compiled.getRows());
+        TileMap textMap = new LevelBoard(text).getTileMap();
+        TileMap compiledMap = new LevelBoard(compiled).getTileMap();
+        for (int row = 0; row < text.getRows(); row++) {
+            for (int col = 0; col < text.getCols(); col++) {
+                assertEquals(textMap.get(col, row), compiledMap.get(col, row), "Tile codes should survive compiling.");
+            }
+        }
+        for (int table = 0; table < LevelLayout.TABLES; table++) {
+            assertEquals(text.getCount(table), compiled.getCount(table));
+            for (int i = 0; i < text.getCount(table); i++) {
+                assertEquals(text.getCol(table, i), compiled.getCol(table, i));
+                assertEquals(text.getRow(table, i), compiled.getRow(table, i));
+                assertEquals(text.getColour(table, i), compiled.getColour(table, i));
+            }
+        }
+    }
+
+    @Test
+    public void testDamagedLevelIsRejected() {
+        byte[] bytes = LevelCompiler.compile(LevelCompiler.parse(new String[]{"XXXX", "XB1X", "X5SX"}), null);
+        bytes[bytes.length / 2] ^= 1;
+
+        assertThrows(IllegalArgumentException.class, () -> LevelCompiler.read(ByteBuffer.wrap(bytes)),
+                "A level with a bad checksum should not load.");
+    }
+
+    @Test
+    public void testTextIsCompiledOnceAndMapped() throws IOException {
+        File text = dir.resolve("level.txt").toFile();
+        File compiled = dir.resolve("cache/level.txt.lvl").toFile();
+        Files.write(text.toPath(), "XXXX\nXH2X\nX  X\n".getBytes());
+
+        LevelLayout first = LevelCompiler.load(text, compiled);
+        assertTrue(compiled.isFile(), "The first load should write the compiled level.");
+
+        //without the text only the compiled file can be read
+        assertTrue(text.delete());
+        LevelLayout second = LevelCompiler.load(text, compiled);
+        assertNotNull(second, "Later loads should map the compiled level.");
+        assertEquals(1, second.getCount(LevelLayout.HOLES));
+        assertEquals(Colours.BLUE, second.getColour(LevelLayout.HOLES, 0));
+        assertEquals(TileMap.hole(Colours.BLUE), new LevelBoard(second).getTileMap().get(2, 2),
+                "A hole should cover two by two cells.");
+        assertEquals(first.getCount(LevelLayout.WALLS), second.getCount(LevelLayout.WALLS));
+    }
+
+    @Test
+    public void testEditedTextWithOlderTimeIsCompiledAgain() throws IOException {
+        File text = dir.resolve("level.txt").toFile();
+        File compiled = dir.resolve("cache/level.txt.lvl").toFile();
+        Files.write(text.toPath(), "XXXX\nXH2X\nX  X\n".getBytes());
+        LevelCompiler.load(text, compiled);
+
+        // edited, but with a time older than the compiled file, as a checkout can leave it
+        Files.write(text.toPath(), "XXXX\nXH3X\nX  X\n".getBytes());
+        assertTrue(text.setLastModified(compiled.lastModified() - 60000));
+
+        LevelLayout layout = LevelCompiler.load(text, compiled);
+        assertEquals(Colours.GREEN, layout.getColour(LevelLayout.HOLES, 0), "The edited text should be compiled again.");
+        assertEquals(Colours.GREEN, LevelCompiler.map(compiled).getColour(LevelLayout.HOLES, 0),
+                "The cache should hold the edited level.");
+    }
+
+    @Test
+    public void testCompiledSizeDoesNotGrowWithArea() {
+        String[] small = {"XXXX", "XH1X", "X  X", "XXXX"};
+        String[] large = new String[1000];
+        Arrays.fill(large, "");
+        System.arraycopy(small, 0, large, 0, small.length);
+        large[999] = String.format("%1000s", "");
+
+        assertEquals(LevelCompiler.compile(LevelCompiler.parse(small), null).length,
+                LevelCompiler.compile(LevelCompiler.parse(large), null).length,
+                "A compiled level should only grow with its entities.");
+    }
+}
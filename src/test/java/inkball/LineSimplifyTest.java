@@ -0,0 +1,84 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineSimplifyTest {
+
+    @Test
+    public void testCollinearStrokeKeepsOnlyEnds() {
+        Line line = new Line();
+        for (int x = 100; x <= 300; x++) {
+            line.addPoint(x, 200 + (x % 2)); // one pixel of jitter
+        }
+
+        line.simplify(1.5f);
+
+        assertEquals(2, line.getPoints().size(), "A straight stroke should reduce to its two ends.");
+        assertEquals(new Point(100, 200), line.getPoints().get(0), "The first point should be kept.");
+        assertEquals(new Point(300, 200), line.getPoints().get(1), "The last point should be kept.");
+    }
+
+    @Test
+    public void testCornerIsKeptAndShapeStaysWithinHalfThickness() {
+        Line original = new Line();
+        Line line = new Line();
+        for (int i = 0; i <= 100; i++) {
+            original.addPoint(100 + i, 100);
+            line.addPoint(100 + i, 100);
+        }
+        for (int i = 1; i <= 100; i++) {
+            original.addPoint(200, 100 + i);
+            line.addPoint(200, 100 + i);
+        }
+
+        // a tolerance above half the thickness is capped
+        line.simplify(50);
+
+        assertEquals(3, line.getPoints().size(), "The corner should be kept.");
+        assertEquals(new Point(200, 100), line.getPoints().get(1), "The corner should be kept exactly.");
+        for (Point p : original.getPoints()) {
+            boolean near = false;
+            for (int s = 0; s < line.getSegmentCount(); s++) {
+                near |= line.mouseNearSegment(p.x, p.y, s);
+            }
+            assertTrue(near, "Every original point should stay near the simplified line.");
+        }
+    }
+
+    @Test
+    public void testSegmentBoundsFollowSimplifiedPoints() {
+        Line line = new Line();
+        for (int i = 0; i <= 40; i++) {
+            line.addPoint(100 + i, 100 + (i <= 20 ? i : 40 - i)); // a 20 pixel tent
+        }
+
+        line.simplify(1.5f);
+
+        assertEquals(2, line.getSegmentCount(), "The tent should keep two segments.");
+        assertEquals(100, line.segmentBound(0, 0), "First segment should start at the left.");
+        assertEquals(120, line.segmentBound(0, 3), "First segment should reach the peak.");
+        assertEquals(120, line.segmentBound(1, 0), "Second segment should start at the peak.");
+        assertEquals(140, line.segmentBound(1, 2), "Second segment should end at the right.");
+        assertFalse(line.mouseNearLine(130, 100 + 25), "Points outside every bounding box should not be near.");
+    }
+
+    @Test
+    public void testSimplifyingCopyLeavesOriginal() {
+        Line drawn = new Line();
+        for (int x = 100; x <= 300; x++) {
+            drawn.addPoint(x, 200);
+        }
+        Line copy = new Line(drawn);
+
+        copy.simplify(1.5f);
+        copy.finish();
+
+        assertEquals(2, copy.getPoints().size());
+        assertEquals(201, drawn.getPoints().size(), "The drawn line should keep every point.");
+        assertEquals(new Point(150, 200), drawn.getPoints().get(50));
+    }
+}
@@ -1,24 +1,20 @@
 package inkball;
 
-import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import processing.core.PApplet;
+import processing.core.PGraphics;
 
 import java.awt.Point;
+import java.util.ArrayList;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class LineTest {
 
-    static App app;
-    static Line line;
+    Line line;
 
-    @BeforeAll
-    public static void setup() {
-        app = new App();
-        PApplet.runSketch(new String[]{"App"}, app);
-        app.setup();
-
-        // new line for testing
+    @BeforeEach
+    public void setup() {
+        // new line for testing, no PApplet window needed
         line = new Line();
     }
 
@@ -42,24 +38,45 @@ public class LineTest {
 
     @Test
     public void testHandleCollisionWithBall() {
-        // create ball to the left of the vertical line travelling right only
-        Ball ball = new Ball(70, 50, 2, 0, "ball0", null);
+        // create ball just left of the vertical line travelling right only
+        Ball ball = new Ball(70, 84, 4, 0, "ball0");
 
         // create vertical line
         line.addPoint(100, 40);
-        line.addPoint(100, 60);
+        line.addPoint(100, 160);
 
         // test ball collision
-        boolean collisionOccurred = line.handleCollision(ball);
+        SegmentIndex index = new SegmentIndex();
+        index.add(line);
+        ArrayList<Line> hitLines = new ArrayList<>();
+        ball.move(new TileGrid(18, 18), index, hitLines);
 
-        assertTrue(collisionOccurred, "Ball should collide with the line.");
+        assertTrue(hitLines.contains(line), "Ball should collide with the line.");
+        assertEquals(-4, ball.getVx(), "Ball should bounce back off the line.");
 
         // tests that a collision occurs when a ball encounters a line
     }
 
     @Test
     public void testLineDrawing() {
-        // Test if the line can be drawn without errors
-        assertDoesNotThrow(() -> line.draw(app), "Line drawing should not throw any exceptions.");
+        // record the segments drawn instead of rendering them, so no display is needed
+        ArrayList<float[]> drawn = new ArrayList<>();
+        PGraphics g = new PGraphics() {
+            @Override
+            public void line(float x1, float y1, float x2, float y2) {
+                drawn.add(new float[]{x1, y1, x2, y2});
+            }
+
+            @Override
+            public void strokeWeight(float weight) {
+            }
+        };
+        line.addPoint(20, 20);
+        line.addPoint(180, 180);
+        line.addPoint(180, 20);
+
+        assertDoesNotThrow(() -> line.draw(g), "Line drawing should not throw any exceptions.");
+        assertEquals(2, drawn.size(), "Every segment should be drawn.");
+        assertArrayEquals(new float[]{180, 180, 180, 20}, drawn.get(1), 0);
     }
 }
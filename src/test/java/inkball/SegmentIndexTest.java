@@ -0,0 +1,70 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentIndexTest {
+
+    private Line verticalLine(int x) {
+        Line line = new Line();
+        line.addPoint(x, 100);
+        line.addPoint(x, 200);
+        line.addPoint(x, 300);
+        return line;
+    }
+
+    @Test
+    public void testBallHitsOnlyNearbyLine() {
+        SegmentIndex index = new SegmentIndex();
+        Line near = verticalLine(100);
+        Line far = verticalLine(400);
+        index.add(near);
+        index.add(far);
+
+        // ball to the left of the near line travelling right
+        Ball ball = new Ball(80 - App.CELLSIZE / 2, 250 - App.CELLSIZE / 2, 2, 0, "ball0");
+        List<Line> hitLines = new ArrayList<>();
+        ball.move(new TileGrid(0, 0), index, hitLines);
+
+        assertEquals(1, hitLines.size(), "Ball should hit exactly one line.");
+        assertSame(near, hitLines.get(0), "Ball should hit the nearby line.");
+        assertEquals(-2, ball.getVx(), 0.001, "Ball should bounce back.");
+    }
+
+    @Test
+    public void testFastBallDoesNotTunnelThroughLine() {
+        SegmentIndex index = new SegmentIndex();
+        Line line = verticalLine(200);
+        index.add(line);
+
+        // ball moving 50 pixels per frame towards a 10 pixel line
+        Ball ball = new Ball(150 - App.CELLSIZE / 2, 250 - App.CELLSIZE / 2, 50, 0, "ball0");
+        List<Line> hitLines = new ArrayList<>();
+        ball.move(new TileGrid(0, 0), index, hitLines);
+
+        assertEquals(1, hitLines.size(), "Fast ball should hit the line.");
+        assertEquals(-50, ball.getVx(), 0.001, "Fast ball should bounce back.");
+        assertTrue(ball.getX() < 200, "Fast ball should stay on its side of the line.");
+    }
+
+    @Test
+    public void testEraseFindsOldestLineAndForgetsRemoved() {
+        SegmentIndex index = new SegmentIndex();
+        Line first = verticalLine(100);
+        Line second = verticalLine(102);
+        index.add(first);
+        index.add(second);
+
+        assertSame(first, index.findNear(101, 150), "Erase should pick the oldest line near the mouse.");
+
+        index.remove(first);
+        assertSame(second, index.findNear(101, 150), "Removed lines should no longer be found.");
+
+        index.remove(second);
+        assertNull(index.findNear(101, 150), "No line should be found once both are removed.");
+    }
+}
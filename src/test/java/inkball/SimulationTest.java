@@ -0,0 +1,73 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationTest {
+
+    @Test
+    public void testTripleBufferHandsOverLatest() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[1]);
+        int[] read = buffer.getLatest();
+
+        buffer.getBack()[0] = 1;
+        buffer.publish();
+        buffer.getBack()[0] = 2;
+        buffer.publish();
+        assertNotSame(read, buffer.getBack(), "The writer should never get the buffer being read.");
+
+        read = buffer.getLatest();
+        assertEquals(2, read[0], "The reader should skip straight to the latest published buffer.");
+        assertSame(read, buffer.getLatest(), "Nothing new was published, so the same buffer should be read.");
+        assertNotSame(read, buffer.getBack(), "The writer should never get the buffer being read.");
+    }
+
+    @Test
+    public void testBallsAreInterpolatedWithinTheTick() {
+        GameState state = new GameState(new File("config.json"), 1);
+        state.startLevel(0);
+        Simulation simulation = new Simulation(state, App.FPS);
+        simulation.step();
+        simulation.step();
+
+        Snapshot snapshot = simulation.getLatest();
+        Ball ball = state.getBalls().get(0);
+        assertEquals(1, snapshot.getBallCount());
+        assertEquals(ball.getX(), snapshot.getBallX(0, 1), 1e-4, "The end of the tick should be the ball's position.");
+        float start = snapshot.getBallX(0, 0);
+        assertNotEquals(start, snapshot.getBallX(0, 1), "The ball should move during the tick.");
+        assertEquals((start + ball.getX()) / 2, snapshot.getBallX(0, 0.5f), 1e-4, "Halfway through the tick should be halfway along.");
+    }
+
+    @Test
+    public void testCommandsApplyAtTheNextTick() {
+        GameState state = new GameState(new File("config.json"), 1);
+        state.startLevel(0);
+        Simulation simulation = new Simulation(state, App.FPS);
+
+        long pause = simulation.submit(GameState::togglePause);
+        assertFalse(simulation.getLatest().isPaused(), "Commands should wait for the next tick.");
+        simulation.step();
+        Snapshot snapshot = simulation.getLatest();
+        assertTrue(snapshot.isPaused(), "The pause should be applied by the tick.");
+        assertTrue(snapshot.getAppliedCommands() >= pause, "The snapshot should count the applied command.");
+        assertEquals(1, snapshot.getTick());
+    }
+
+    @Test
+    public void testThreadTicksUntilStopped() throws InterruptedException {
+        GameState state = new GameState(new File("config.json"), 1);
+        state.startLevel(0);
+        Simulation simulation = new Simulation(state, App.FPS);
+
+        simulation.start();
+        Thread.sleep(300);
+        simulation.stop();
+        long ticks = simulation.getLatest().getTick();
+        assertTrue(ticks > 0, "The thread should tick on its own.");
+        assertEquals(ticks, state.getFrameCount(), "Every tick should be published.");
+    }
+}
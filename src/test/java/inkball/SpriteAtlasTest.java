@@ -0,0 +1,37 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import processing.core.PImage;
+
+import javax.imageio.ImageIO;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpriteAtlasTest {
+
+    @Test
+    public void testColourKeyIsCleared() throws IOException {
+        PImage sheet = new PImage(ImageIO.read(new File("src/main/resources/inkball/inkball_spritesheet.png")));
+        new SpriteAtlas(sheet);
+
+        // ball0 is the 24x24 region at (1, 157), with magenta corners in the sheet
+        assertEquals(0, sheet.get(1, 157) >>> 24, "The corner of a ball should be transparent.");
+        assertEquals(255, sheet.get(13, 169) >>> 24, "The centre of a ball should stay opaque.");
+        assertEquals(255, sheet.get(1, 1) >>> 24, "Tiles should stay opaque.");
+    }
+
+    @Test
+    public void testRegionsFollowColourAndDamage() {
+        Brick brick = new Brick(0, 0, "wall2");
+        assertEquals(SpriteAtlas.wall(Colours.BLUE), brick.getSpriteRegion(), "An unbroken brick should use its wall sprite.");
+        brick.hit();
+        assertEquals(SpriteAtlas.cracked(Colours.BLUE), brick.getSpriteRegion(), "A hit brick should use its cracked sprite.");
+
+        Ball ball = new Ball(0, 0, 0, 0, Colours.GREEN);
+        ball.changeColour("ball4");
+        assertEquals(SpriteAtlas.ball(Colours.YELLOW), ball.getSpriteRegion(), "A recoloured ball should use its new sprite.");
+        assertEquals(SpriteAtlas.ENTRYPOINT, TileMap.floorRegion(TileMap.ENTRYPOINT), "Spawners should have their own floor.");
+    }
+}
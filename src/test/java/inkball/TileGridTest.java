@@ -0,0 +1,127 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TileGridTest {
+
+    @Test
+    public void testBallBouncesOffNeighbouringWall() {
+        TileGrid grid = new TileGrid(10, 10);
+        grid.addWall(new Wall(5, 5, "wall0"));
+
+        // ball in the cell left of the wall, moving right
+        Ball ball = new Ball(4 * App.CELLSIZE, 5 * App.CELLSIZE + App.TOPBAR, 2, 0, "ball0");
+        ball.move(grid, new SegmentIndex(), new ArrayList<>());
+
+        assertEquals(-2, ball.getVx(), "Ball should bounce off the wall in the next cell.");
+    }
+
+    @Test
+    public void testDestroyedBrickLeavesGrid() {
+        TileGrid grid = new TileGrid(10, 10);
+        Brick brick = new Brick(5, 5, "wall0");
+        grid.addBrick(brick);
+
+        // hit the brick with a new ball until it breaks
+        for (int i = 0; i < 3; i++) {
+            Ball ball = new Ball(4 * App.CELLSIZE, 5 * App.CELLSIZE + App.TOPBAR, 2, 0, "ball0");
+            ball.move(grid, new SegmentIndex(), new ArrayList<>());
+        }
+
+        assertTrue(brick.isDestroyed(), "Brick should be destroyed after 3 hits.");
+        assertNull(grid.getBrick(5, 5), "Destroyed brick should be removed from the grid.");
+    }
+
+    @Test
+    public void testFastBallDoesNotTunnelThroughWall() {
+        TileGrid grid = new TileGrid(10, 10);
+        grid.addWall(new Wall(5, 5, "wall0"));
+
+        // ball two cells left of the wall, moving faster than a cell per frame
+        Ball ball = new Ball(3 * App.CELLSIZE, 5 * App.CELLSIZE + App.TOPBAR, 60, 0, "ball0");
+        ball.move(grid, new SegmentIndex(), new ArrayList<>());
+
+        assertEquals(-60, ball.getVx(), "Fast ball should bounce off the wall.");
+        assertTrue(ball.getX() < 5 * App.CELLSIZE, "Fast ball should stay on its side of the wall.");
+    }
+
+    @Test
+    public void testHoleListedOnlyForCellsInReach() {
+        TileGrid grid = new TileGrid(18, 18);
+        Hole hole = new Hole(5 * App.CELLSIZE, 5 * App.CELLSIZE + App.TOPBAR, 1);
+        grid.addHole(hole);
+
+        assertArrayEquals(new Hole[]{hole}, grid.getHolesNear(4, 4), "Cells under the hole should list it.");
+        assertArrayEquals(new Hole[]{hole}, grid.getHolesNear(3, 5), "Cells within the attraction radius should list it.");
+        assertEquals(0, grid.getHolesNear(10, 10).length, "Far cells should list no holes.");
+        assertEquals(1, grid.getHoleCount(), "The grid should count the hole.");
+    }
+
+    @Test
+    public void testBallKeepsShrunkRadiusAfterLeavingHole() {
+        TileGrid grid = new TileGrid(18, 18);
+        grid.addHole(new Hole(5 * App.CELLSIZE, 5 * App.CELLSIZE + App.TOPBAR, 1));
+
+        // ball moving away from the hole, 20 pixels from its centre
+        BallStore store = new BallStore(1);
+        store.add(new Ball(5 * App.CELLSIZE + 20 - App.CELLSIZE / 2, 5 * App.CELLSIZE + App.TOPBAR - App.CELLSIZE / 2, 20, 0, "ball1"));
+        BallUpdater updater = new BallUpdater();
+        updater.update(store, grid, new SegmentIndex());
+        int shrunk = store.get(0).getRadius();
+        updater.update(store, grid, new SegmentIndex());
+
+        assertTrue(store.get(0).getX() > 5 * App.CELLSIZE + 32, "Ball should have left the attraction radius.");
+        assertEquals(shrunk, store.get(0).getRadius(), "Ball should keep its radius once out of reach, as in the original game.");
+    }
+
+    @Test
+    public void testLargeBoardOnlyStoresChunksInUse() {
+        TileGrid grid = new TileGrid(1000, 1000);
+        grid.addWall(new Wall(900, 900, "wall0"));
+        TileMap map = new TileMap(1000, 1000);
+        map.set(900, 900, TileMap.wall(0));
+        map.set(10, 10, TileMap.TILE);
+
+        assertEquals(1, map.getAllocatedChunks(), "Plain tiles should not allocate a chunk.");
+        assertEquals(TileMap.wall(0), map.get(900, 900));
+        assertEquals(TileMap.TILE, map.get(901, 900));
+
+        // ball in the cell left of the far wall, moving right
+        Ball ball = new Ball(899 * App.CELLSIZE, 900 * App.CELLSIZE + App.TOPBAR, 2, 0, "ball0");
+        ball.move(grid, new SegmentIndex(), new ArrayList<>());
+        assertEquals(-2, ball.getVx(), "Ball should bounce off a wall far out on a large board.");
+    }
+
+    @Test
+    public void testCellsOffTheMapArePlainTiles() {
+        // 20 columns leave padding cells in the last chunk
+        TileMap map = new TileMap(20, 20);
+        map.set(19, 5, TileMap.wall(1));
+        map.set(20, 5, TileMap.wall(2));
+
+        assertEquals(TileMap.wall(1), map.get(19, 5));
+        assertEquals(TileMap.TILE, map.get(20, 5), "A cell past the last column should not read chunk padding.");
+        assertEquals(TileMap.TILE, map.get(-1, 5), "A cell before the first column should be a plain tile.");
+        assertEquals(TileMap.TILE, map.get(5, 20), "A cell past the last row should be a plain tile.");
+    }
+
+    @Test
+    public void testCameraStaysOnBoard() {
+        Camera camera = new Camera(App.WIDTH, App.HEIGHT - App.TOPBAR);
+        camera.setBoard(100, 50);
+        camera.scroll(-10, 100000);
+
+        assertEquals(0, camera.getX(), "Camera should not scroll past the left edge.");
+        assertEquals(50 * App.CELLSIZE - camera.getViewHeight(), camera.getY(), "Camera should stop at the bottom edge.");
+        assertFalse(camera.isVisible(0, App.TOPBAR, 10, App.TOPBAR + 10), "The top of the board should be out of view.");
+
+        camera.setBoard(10, 10);
+        camera.scroll(100, 100);
+        assertEquals(0, camera.getX(), "A board smaller than the view should not scroll.");
+        assertEquals(0, camera.getY());
+    }
+}